@@ -0,0 +1,94 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of requestResources and releaseResources in avoidance mode
+ * against the plain mode, with many idle claimants.
+ *
+ * The state is built once per trial. Process b holds some units of R4,
+ * the idle claimants each claim all of R4 and hold nothing, and process
+ * a runs at SYSTEM priority, claims all of R4 and keeps taking and giving
+ * back one unit. With nothing held by b, a can always finish on its own
+ * and every safety check takes the fast path. With units held by b it
+ * cannot, and the check runs the safe sequence up to a instead, which
+ * stays short however many claimants wait behind it.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankerBenchmark {
+
+    /**
+     * Whether requests are checked for safety
+     */
+    public enum Avoidance {
+        PLAIN, BANKER
+    }
+
+    @Param({"10", "100", "1000"})
+    private int claimantCount;
+
+    @Param({"0", "2"})
+    private int heldByOthers;
+
+    @Param({"PLAIN", "BANKER"})
+    private Avoidance avoidance;
+
+    private Kernel kernel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new Kernel();
+        kernel.setAvoiding(avoidance == Avoidance.BANKER);
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+
+        /* b preempts init and takes its units of R4 */
+        create("b", PriorityMix.PRIORITY_USER, "R4:2");
+        if (heldByOthers > 0) {
+            kernel.requestResources("R4", heldByOthers);
+        }
+
+        /* b creates the idle claimants, then a which preempts b */
+        for (int i = 0; i < claimantCount; i++) {
+            create("c" + i, PriorityMix.PRIORITY_USER, "R4:4");
+        }
+        create("a", PriorityMix.PRIORITY_SYSTEM, "R4:4");
+    }
+
+    /**
+     * A request that is granted and the release of its units.
+     */
+    @Benchmark
+    public void requestAndRelease() {
+        kernel.requestResources("R4", 1);
+        kernel.releaseResources("R4", 1);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void create(String pid, int priority, String claims) {
+        if (avoidance == Avoidance.BANKER) {
+            kernel.createProcess(pid, priority, claims);
+        } else {
+            kernel.createProcess(pid, priority);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of writing and reading a checkpoint of an engine with many
+ * processes, a quarter of them blocked on a resource. The state and its
+ * checkpoint are built once per trial, and every restore replaces the
+ * state of a second engine with it.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckpointBenchmark {
+
+    @Param({"1000", "100000"})
+    private int processCount;
+
+    private Kernel kernel;
+    private Kernel restored;
+    private byte[] checkpoint;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new Kernel();
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+
+        for (int i = 0; i < processCount; i++) {
+            kernel.createProcess("p" + i, PriorityMix.PRIORITY_USER);
+        }
+
+        /* The first process takes R1, then every other one blocks on it in turn */
+        kernel.requestResources("R1", 1);
+        for (int i = 1; i < processCount / 4; i++) {
+            kernel.timeOut();
+            kernel.requestResources("R1", 1);
+        }
+
+        out = new ByteArrayOutputStream();
+        kernel.writeCheckpoint(out);
+        checkpoint = out.toByteArray();
+
+        restored = new Kernel();
+        restored.init(PriorityMix.PRIORITY_SYSTEM + 1);
+    }
+
+    @Benchmark
+    public int save() {
+        out.reset();
+        kernel.writeCheckpoint(out);
+        return out.size();
+    }
+
+    @Benchmark
+    public void restore() {
+        restored.readCheckpoint(new ByteArrayInputStream(checkpoint));
+    }
+}
@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of advancing the virtual clock by a million ticks with the
+ * default quantum. With a single USER process there is never anyone to
+ * switch to and the ticks are skipped at once, otherwise the processes
+ * take turns at the end of every time slice, and whole rounds of turns are
+ * skipped at once, so the time grows with the number of processes only.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark {
+
+    private static final int TICKS = 1000000;
+
+    @Param({"1", "100", "10000"})
+    private int processCount;
+
+    private Kernel kernel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new Kernel();
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+
+        for (int i = 0; i < processCount; i++) {
+            kernel.createProcess("p" + i, PriorityMix.PRIORITY_USER);
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        kernel.tick(TICKS);
+    }
+}
@@ -0,0 +1,528 @@
+package bench;
+
+import java.util.Arrays;
+
+/**
+ * Process table that keeps every PCB field in parallel primitive arrays
+ * indexed by a dense process slot, instead of one Process object per
+ * process. This is a benchmark fixture only, measured by
+ * CompactStoreBenchmark against the object process table of PREngine, to
+ * show what object headers, list nodes and map entries cost with very
+ * many processes. No engine runs on it.
+ *
+ * Slots of destroyed processes are recycled through a free list, and the
+ * arrays only grow when no free slot is left. Pids are indexed by their
+ * lower-cased key in an open-addressed table of slots, and live slots are
+ * linked in creation order so they can be listed like the object table.
+ */
+
+public class CompactProcessStore {
+
+    /**
+     * Slot value meaning no process
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Status of a new process, as Process.READY
+     */
+    private static final int READY = 1;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * PCB states, one entry per slot
+     */
+    private String[] pids;
+    private String[] keys;
+    private short[] priorities;
+    private byte[] statuses;
+    private int[] blockedUnits;
+
+    /**
+     * Links of the Ready List or Block List the process is in
+     */
+    private int[] lists;
+    private int[] prevs;
+    private int[] nexts;
+
+    /**
+     * Creation tree links
+     */
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] lastChildren;
+    private int[] prevSiblings;
+    private int[] nextSiblings;
+    private int[] childCounts;
+
+    /**
+     * Resource holdings packed as (resource index, units) pairs in the
+     * order the resources were first acquired
+     */
+    private int[][] holdings;
+    private int[] holdingCounts;
+
+    /**
+     * Live slots in creation order
+     */
+    private int[] orderPrevs;
+    private int[] orderNexts;
+    private int orderHead;
+    private int orderTail;
+
+    /**
+     * Open-addressed table of slot + 1 by key hash, 0 if empty
+     */
+    private int[] table;
+
+    /**
+     * Slot allocation state, free slots are linked through nexts
+     */
+    private int capacity;
+    private int top;
+    private int freeHead;
+    private int size;
+
+    /**
+     * Number of allocations served from the free list and by a new slot
+     */
+    private long hits;
+    private long misses;
+
+    /**
+     * Sole constructor that creates an empty store.
+     */
+    public CompactProcessStore() {
+        capacity = 0;
+        grow(INITIAL_CAPACITY);
+        table = new int[INITIAL_CAPACITY * 2];
+        clear();
+    }
+
+    /**
+     * Remove every process, keeping the arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(pids, 0, top, null);
+        Arrays.fill(keys, 0, top, null);
+        Arrays.fill(holdings, 0, top, null);
+        Arrays.fill(table, 0);
+
+        top = 0;
+        freeHead = NONE;
+        size = 0;
+        orderHead = NONE;
+        orderTail = NONE;
+    }
+
+    /**
+     * Allocate a slot for a new READY process that is in no list and
+     * has no parent, and index it by key.
+     *
+     * @param pid      process identification tag
+     * @param key      lower-cased pid, must not be in the store
+     * @param priority priority of the process
+     * @return the slot of the new process
+     */
+    public int allocate(String pid, String key, int priority) {
+        int slot;
+        if (freeHead != NONE) {
+            slot = freeHead;
+            freeHead = nexts[slot];
+            hits++;
+        } else {
+            if (top == capacity) {
+                grow(capacity * 2);
+            }
+            slot = top++;
+            misses++;
+        }
+
+        pids[slot] = pid;
+        keys[slot] = key;
+        priorities[slot] = (short) priority;
+        statuses[slot] = (byte) READY;
+        blockedUnits[slot] = 0;
+        lists[slot] = NONE;
+        prevs[slot] = NONE;
+        nexts[slot] = NONE;
+        parents[slot] = NONE;
+        firstChildren[slot] = NONE;
+        lastChildren[slot] = NONE;
+        prevSiblings[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        childCounts[slot] = 0;
+        holdings[slot] = EMPTY;
+        holdingCounts[slot] = 0;
+
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(slot);
+
+        /* Append to creation order */
+        orderPrevs[slot] = orderTail;
+        orderNexts[slot] = NONE;
+        if (orderTail == NONE) {
+            orderHead = slot;
+        } else {
+            orderNexts[orderTail] = slot;
+        }
+        orderTail = slot;
+
+        return slot;
+    }
+
+    /**
+     * Remove the process from the key index and creation order and put
+     * its slot on the free list.
+     *
+     * @param slot the slot of the process
+     */
+    public void free(int slot) {
+        delete(slot);
+
+        /* Unlink from creation order */
+        int prev = orderPrevs[slot];
+        int next = orderNexts[slot];
+        if (prev == NONE) {
+            orderHead = next;
+        } else {
+            orderNexts[prev] = next;
+        }
+        if (next == NONE) {
+            orderTail = prev;
+        } else {
+            orderPrevs[next] = prev;
+        }
+
+        pids[slot] = null;
+        keys[slot] = null;
+        holdings[slot] = null;
+
+        nexts[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    /**
+     * Returns the slot of the process with the given key.
+     *
+     * @param key lower-cased pid
+     * @return the slot, or NONE if no such process
+     */
+    public int find(String key) {
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; table[i] != 0; i = (i + 1) & mask) {
+            int slot = table[i] - 1;
+            if (keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Append the child to the children of the parent.
+     *
+     * @param parent the slot of the parent
+     * @param child  the slot of the child
+     */
+    public void addChild(int parent, int child) {
+        int last = lastChildren[parent];
+        prevSiblings[child] = last;
+        nextSiblings[child] = NONE;
+
+        if (last == NONE) {
+            firstChildren[parent] = child;
+        } else {
+            nextSiblings[last] = child;
+        }
+
+        lastChildren[parent] = child;
+        childCounts[parent]++;
+        parents[child] = parent;
+    }
+
+    /**
+     * Detach the child from the children of its parent.
+     *
+     * @param child the slot of the child
+     */
+    public void removeChild(int child) {
+        int parent = parents[child];
+        int prev = prevSiblings[child];
+        int next = nextSiblings[child];
+
+        if (prev == NONE) {
+            firstChildren[parent] = next;
+        } else {
+            nextSiblings[prev] = next;
+        }
+
+        if (next == NONE) {
+            lastChildren[parent] = prev;
+        } else {
+            prevSiblings[next] = prev;
+        }
+
+        prevSiblings[child] = NONE;
+        nextSiblings[child] = NONE;
+        childCounts[parent]--;
+    }
+
+    /**
+     * Returns the units of the resource held by the process.
+     *
+     * @param slot     the slot of the process
+     * @param resource the index of the resource
+     * @return the units held, 0 if none
+     */
+    public int getHeld(int slot, int resource) {
+        int i = indexOfHeld(slot, resource);
+        return i < 0 ? 0 : holdings[slot][i + 1];
+    }
+
+    /**
+     * Add units of the resource to the process, after all other
+     * resources it holds if it does not hold it yet.
+     *
+     * @param slot     the slot of the process
+     * @param resource the index of the resource
+     * @param unit     the units acquired
+     */
+    public void addHeld(int slot, int resource, int unit) {
+        int i = indexOfHeld(slot, resource);
+        if (i >= 0) {
+            holdings[slot][i + 1] += unit;
+            return;
+        }
+
+        int count = holdingCounts[slot];
+        int[] entries = holdings[slot];
+        if (2 * count == entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(4, entries.length * 2));
+            holdings[slot] = entries;
+        }
+
+        entries[2 * count] = resource;
+        entries[2 * count + 1] = unit;
+        holdingCounts[slot] = count + 1;
+    }
+
+    /**
+     * Set the units of a resource already held by the process.
+     *
+     * @param slot     the slot of the process
+     * @param resource the index of the resource
+     * @param unit     the units now held
+     */
+    public void setHeld(int slot, int resource, int unit) {
+        holdings[slot][indexOfHeld(slot, resource) + 1] = unit;
+    }
+
+    /**
+     * Remove the resource from the process, keeping the order of the rest.
+     *
+     * @param slot     the slot of the process
+     * @param resource the index of the resource
+     */
+    public void removeHeld(int slot, int resource) {
+        int i = indexOfHeld(slot, resource);
+        if (i < 0) {
+            return;
+        }
+
+        int[] entries = holdings[slot];
+        System.arraycopy(entries, i + 2, entries, i, 2 * holdingCounts[slot] - i - 2);
+        holdingCounts[slot]--;
+    }
+
+    /**
+     * Remove every resource from the process.
+     *
+     * @param slot the slot of the process
+     */
+    public void clearHeld(int slot) {
+        holdingCounts[slot] = 0;
+    }
+
+    /* Getters & Setters Methods */
+
+    public int size() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int getFirstInOrder() {
+        return orderHead;
+    }
+
+    public int getNextInOrder(int slot) {
+        return orderNexts[slot];
+    }
+
+    public String getPid(int slot) {
+        return pids[slot];
+    }
+
+    public int getPriority(int slot) {
+        return priorities[slot];
+    }
+
+    public int getType(int slot) {
+        return statuses[slot];
+    }
+
+    public void setType(int slot, int type) {
+        statuses[slot] = (byte) type;
+    }
+
+    public int getBlockedReqUnit(int slot) {
+        return blockedUnits[slot];
+    }
+
+    public void setBlockedReqUnit(int slot, int unit) {
+        blockedUnits[slot] = unit;
+    }
+
+    public int getList(int slot) {
+        return lists[slot];
+    }
+
+    public void setList(int slot, int list) {
+        lists[slot] = list;
+    }
+
+    public int getPrev(int slot) {
+        return prevs[slot];
+    }
+
+    public void setPrev(int slot, int prev) {
+        prevs[slot] = prev;
+    }
+
+    public int getNext(int slot) {
+        return nexts[slot];
+    }
+
+    public void setNext(int slot, int next) {
+        nexts[slot] = next;
+    }
+
+    public int getParent(int slot) {
+        return parents[slot];
+    }
+
+    public int getFirstChild(int slot) {
+        return firstChildren[slot];
+    }
+
+    public int getNextSibling(int slot) {
+        return nextSiblings[slot];
+    }
+
+    public int getChildCount(int slot) {
+        return childCounts[slot];
+    }
+
+    public int getHeldCount(int slot) {
+        return holdingCounts[slot];
+    }
+
+    public int getHeldResourceAt(int slot, int position) {
+        return holdings[slot][2 * position];
+    }
+
+    public int getHeldUnitsAt(int slot, int position) {
+        return holdings[slot][2 * position + 1];
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private int indexOfHeld(int slot, int resource) {
+        int[] entries = holdings[slot];
+        int end = 2 * holdingCounts[slot];
+        for (int i = 0; i < end; i += 2) {
+            if (entries[i] == resource) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private void insert(int slot) {
+        int mask = table.length - 1;
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+    }
+
+    private void delete(int slot) {
+        int mask = table.length - 1;
+        int i = hash(keys[slot]) & mask;
+        while (table[i] != slot + 1) {
+            i = (i + 1) & mask;
+        }
+
+        /* Shift back later entries of the probe run into the hole */
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = hash(keys[table[j] - 1]) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+
+    private void rehash(int length) {
+        table = new int[length];
+        for (int slot = orderHead; slot != NONE; slot = orderNexts[slot]) {
+            insert(slot);
+        }
+    }
+
+    private void grow(int newCapacity) {
+        pids = Arrays.copyOf(pids == null ? new String[0] : pids, newCapacity);
+        keys = Arrays.copyOf(keys == null ? new String[0] : keys, newCapacity);
+        priorities = Arrays.copyOf(priorities == null ? new short[0] : priorities, newCapacity);
+        statuses = Arrays.copyOf(statuses == null ? new byte[0] : statuses, newCapacity);
+        blockedUnits = copyOf(blockedUnits, newCapacity);
+        lists = copyOf(lists, newCapacity);
+        prevs = copyOf(prevs, newCapacity);
+        nexts = copyOf(nexts, newCapacity);
+        parents = copyOf(parents, newCapacity);
+        firstChildren = copyOf(firstChildren, newCapacity);
+        lastChildren = copyOf(lastChildren, newCapacity);
+        prevSiblings = copyOf(prevSiblings, newCapacity);
+        nextSiblings = copyOf(nextSiblings, newCapacity);
+        childCounts = copyOf(childCounts, newCapacity);
+        holdings = Arrays.copyOf(holdings == null ? new int[0][] : holdings, newCapacity);
+        holdingCounts = copyOf(holdingCounts, newCapacity);
+        orderPrevs = copyOf(orderPrevs, newCapacity);
+        orderNexts = copyOf(orderNexts, newCapacity);
+        capacity = newCapacity;
+    }
+
+    private static int[] copyOf(int[] array, int newLength) {
+        return array == null ? new int[newLength] : Arrays.copyOf(array, newLength);
+    }
+}
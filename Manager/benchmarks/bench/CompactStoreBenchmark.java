@@ -0,0 +1,77 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the CompactProcessStore fixture on the wide process tree
+ * of ProcessTreeBenchmark, a single root with every other process as its
+ * child. Every invocation allocates the whole tree and frees it again,
+ * so its time and allocation rate can be compared with the object
+ * process table. Only the table is measured, there is no scheduling.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompactStoreBenchmark {
+
+    @Param({"100", "1000"})
+    private int processCount;
+
+    @Param({"USER", "SYSTEM", "MIXED"})
+    private PriorityMix priorityMix;
+
+    private CompactProcessStore store;
+    private String[] pids;
+    private int[] priorities;
+    private int[] slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pids = new String[processCount];
+        priorities = new int[processCount];
+        slots = new int[processCount];
+
+        for (int i = 0; i < processCount; i++) {
+            pids[i] = "p" + i;
+            priorities[i] = i == 0 ? PriorityMix.PRIORITY_SYSTEM : priorityMix.priorityOf(i);
+        }
+
+        store = new CompactProcessStore();
+    }
+
+    @Benchmark
+    public int allocateAndFreeTree() {
+        /* Pids are already lower-case, so they are their own keys */
+        slots[0] = store.allocate(pids[0], pids[0], priorities[0]);
+        for (int i = 1; i < processCount; i++) {
+            slots[i] = store.allocate(pids[i], pids[i], priorities[i]);
+            store.addChild(slots[0], slots[i]);
+        }
+
+        int found = store.find(pids[processCount - 1]);
+
+        for (int i = processCount - 1; i > 0; i--) {
+            store.removeChild(slots[i]);
+            store.free(slots[i]);
+        }
+        store.free(slots[0]);
+        return found;
+    }
+}
@@ -0,0 +1,110 @@
+package bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the cost of the write-ahead journal on a full trace replay
+ * through Main, with the same workload as ReplayBenchmark. Every replay
+ * starts from an empty journal, so nothing is replayed from it on start-up,
+ * and the run includes the last commit when the journal is closed.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+    /**
+     * Whether kernel calls are journaled
+     */
+    public enum Journal {
+        OFF, ON
+    }
+
+    private static final int NUM_SEQUENCE = 10;
+    private static final int COMMANDS_PER_PROCESS = 20;
+
+    @Param({"1000", "10000"})
+    private int processCount;
+
+    @Param({"OFF", "ON"})
+    private Journal journal;
+
+    private Path script;
+    private Path trace;
+    private Path journalFile;
+    private String[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        script = Files.createTempFile("journal", ".txt");
+        trace = Files.createTempFile("journal", ".bin");
+        journalFile = Files.createTempFile("journal", ".wal");
+        writeScript();
+
+        try (InputStream in = Files.newInputStream(script);
+             OutputStream out = Files.newOutputStream(trace)) {
+            Kernel.compileTrace(in, out, PriorityMix.PRIORITY_SYSTEM + 1);
+        }
+
+        if (journal == Journal.ON) {
+            args = new String[] {"--no-output", "--replay", trace.toString(),
+                "--journal", journalFile.toString()};
+        } else {
+            args = new String[] {"--no-output", "--replay", trace.toString()};
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyJournal() throws IOException {
+        Files.deleteIfExists(journalFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(script);
+        Files.deleteIfExists(trace);
+        Files.deleteIfExists(journalFile);
+    }
+
+    @Benchmark
+    public void replay() {
+        Kernel.runMain(args);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void writeScript() throws IOException {
+        int numCommands = processCount * COMMANDS_PER_PROCESS;
+
+        try (OutputStream out = Files.newOutputStream(script)) {
+            Kernel.generateWorkload(out,
+                "--seed", "1",
+                "--commands", String.valueOf(numCommands),
+                "--sequence", String.valueOf(numCommands / NUM_SEQUENCE),
+                "--system", String.valueOf(PriorityMix.MIXED.systemRate()));
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package bench;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Bridge from the benchmarks to the manager. The manager classes live in
+ * the default package, which cannot be referenced from the named package
+ * that JMH requires for benchmarks, so every call goes through a method
+ * handle. The handles are resolved once into static finals, which lets
+ * the JIT inline them like direct calls.
+ *
+ * Engines are created with a DiscardOutputSink so output is not measured.
+ * Kernel calls are made through the CommandTarget interface.
+ */
+
+public final class Kernel {
+
+    private static final MethodHandle NEW_SINK;
+    private static final MethodHandle NEW_ENGINE;
+    private static final MethodHandle INIT;
+    private static final MethodHandle CREATE;
+    private static final MethodHandle CREATE_CLAIMS;
+    private static final MethodHandle DESTROY;
+    private static final MethodHandle REQUEST;
+    private static final MethodHandle RELEASE;
+    private static final MethodHandle TIME_OUT;
+    private static final MethodHandle TICK;
+    private static final MethodHandle POOL_HITS;
+    private static final MethodHandle POOL_MISSES;
+    private static final MethodHandle SET_AVOIDING;
+    private static final MethodHandle NEW_METRICS;
+    private static final MethodHandle SET_METRICS;
+    private static final MethodHandle WRITE_CHECKPOINT;
+    private static final MethodHandle READ_CHECKPOINT;
+    private static final MethodHandle MAIN;
+    private static final MethodHandle COMPILE;
+    private static final MethodHandle GENERATE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> target = Class.forName("CommandTarget");
+            Class<?> sink = Class.forName("OutputSink");
+
+            NEW_SINK = lookup.findConstructor(Class.forName("DiscardOutputSink"),
+                MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            NEW_ENGINE = lookup.findConstructor(Class.forName("PREngine"),
+                MethodType.methodType(void.class, sink))
+                .asType(MethodType.methodType(Object.class, Object.class));
+
+            INIT = virtual(lookup, target, "init", int.class);
+            CREATE = virtual(lookup, target, "createProcess", String.class, int.class);
+            CREATE_CLAIMS = virtual(lookup, target, "createProcess", String.class, int.class,
+                String.class);
+            DESTROY = virtual(lookup, target, "destroyProcess", String.class);
+            REQUEST = virtual(lookup, target, "requestResources", String.class, int.class);
+            RELEASE = virtual(lookup, target, "releaseResources", String.class, int.class);
+            TIME_OUT = virtual(lookup, target, "timeOut");
+            TICK = virtual(lookup, target, "tick", int.class);
+            POOL_HITS = counter(lookup, Class.forName("PREngine"), "getPoolHits");
+            POOL_MISSES = counter(lookup, Class.forName("PREngine"), "getPoolMisses");
+            SET_AVOIDING = virtual(lookup, Class.forName("PREngine"), "setAvoiding", boolean.class);
+            NEW_METRICS = lookup.findConstructor(Class.forName("RecordingMetricsSink"),
+                MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+            SET_METRICS = virtual(lookup, Class.forName("PREngine"), "setMetrics",
+                Class.forName("MetricsSink"))
+                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+            WRITE_CHECKPOINT = virtual(lookup, Class.forName("PREngine"), "writeCheckpoint",
+                OutputStream.class);
+            READ_CHECKPOINT = virtual(lookup, Class.forName("PREngine"), "readCheckpoint",
+                InputStream.class);
+
+            MAIN = lookup.findStatic(Class.forName("Main"), "main",
+                MethodType.methodType(void.class, String[].class));
+            COMPILE = lookup.findStatic(Class.forName("TraceCompiler"), "compile",
+                MethodType.methodType(void.class, InputStream.class, OutputStream.class, int.class));
+            GENERATE = lookup.findStatic(Class.forName("WorkloadGenerator"), "generate",
+                MethodType.methodType(void.class, OutputStream.class, String[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The engine instance all calls are made on
+     */
+    private final Object engine;
+
+    /**
+     * Constructor that creates a new PREngine discarding all output.
+     * The engine must be initialised with init before use.
+     */
+    public Kernel() {
+        try {
+            Object sink = (Object) NEW_SINK.invokeExact();
+            engine = (Object) NEW_ENGINE.invokeExact(sink);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /* Forwarding Methods - See PREngine for details */
+
+    public void init(int numPriority) {
+        try {
+            INIT.invokeExact(engine, numPriority);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void createProcess(String pid, int priority) {
+        try {
+            CREATE.invokeExact(engine, pid, priority);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void createProcess(String pid, int priority, String claims) {
+        try {
+            CREATE_CLAIMS.invokeExact(engine, pid, priority, claims);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void destroyProcess(String pid) {
+        try {
+            DESTROY.invokeExact(engine, pid);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void requestResources(String rid, int unit) {
+        try {
+            REQUEST.invokeExact(engine, rid, unit);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void releaseResources(String rid, int unit) {
+        try {
+            RELEASE.invokeExact(engine, rid, unit);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void timeOut() {
+        try {
+            TIME_OUT.invokeExact(engine);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    public void tick(int ticks) {
+        try {
+            TICK.invokeExact(engine, ticks);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Returns the number of creates that reused a pooled PCB.
+     *
+     * @return the number of pool hits
+     */
+    public long getPoolHits() {
+        try {
+            return (long) POOL_HITS.invokeExact(engine);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Returns the number of creates that needed a new PCB.
+     *
+     * @return the number of pool misses
+     */
+    public long getPoolMisses() {
+        try {
+            return (long) POOL_MISSES.invokeExact(engine);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Turn avoidance mode on or off, before init.
+     *
+     * @param isAvoiding whether requests must leave the system safe
+     */
+    public void setAvoiding(boolean isAvoiding) {
+        try {
+            SET_AVOIDING.invokeExact(engine, isAvoiding);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Record metrics of every kernel call from now on, as with --metrics.
+     */
+    public void recordMetrics() {
+        try {
+            Object metrics = (Object) NEW_METRICS.invokeExact();
+            SET_METRICS.invokeExact(engine, metrics);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Write the whole state of the engine as a checkpoint.
+     *
+     * @param out the stream to write the checkpoint to
+     */
+    public void writeCheckpoint(OutputStream out) {
+        try {
+            WRITE_CHECKPOINT.invokeExact(engine, out);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Replace the whole state of the engine with a checkpoint.
+     *
+     * @param in the stream to read the checkpoint from
+     */
+    public void readCheckpoint(InputStream in) {
+        try {
+            READ_CHECKPOINT.invokeExact(engine, in);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Run the driver with the given command line arguments.
+     *
+     * @param args the arguments given to Main
+     */
+    public static void runMain(String... args) {
+        try {
+            MAIN.invokeExact(args);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Compile a text script into a binary trace with TraceCompiler.
+     *
+     * @param script      the text script of driver commands
+     * @param trace       the stream to write the binary trace to
+     * @param numPriority the number of priority levels used on every init
+     */
+    public static void compileTrace(InputStream script, OutputStream trace, int numPriority) {
+        try {
+            COMPILE.invokeExact(script, trace, numPriority);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /**
+     * Write a synthetic script with WorkloadGenerator.
+     *
+     * @param out  the stream to write the script to
+     * @param args the options of the workload, as given to WorkloadGenerator
+     */
+    public static void generateWorkload(OutputStream out, String... args) {
+        try {
+            GENERATE.invokeExact(out, args);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> target, String name,
+        Class<?>... parameters) throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(target, name,
+            MethodType.methodType(void.class, parameters));
+        return handle.asType(handle.type().changeParameterType(0, Object.class));
+    }
+
+    private static MethodHandle counter(MethodHandles.Lookup lookup, Class<?> target, String name)
+        throws ReflectiveOperationException {
+        MethodHandle handle = lookup.findVirtual(target, name, MethodType.methodType(long.class));
+        return handle.asType(handle.type().changeParameterType(0, Object.class));
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+}
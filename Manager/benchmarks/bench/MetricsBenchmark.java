@@ -0,0 +1,73 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the cost of metrics on the cheapest kernel calls. With
+ * metrics off, every fork only ever sees the DiscardMetricsSink, so the
+ * results should match TimeOutBenchmark and ResourceBenchmark.
+ *
+ * The state is built once per trial: processCount USER processes take
+ * turns with timeOut, and the running one requests and releases a unit.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    /**
+     * Whether kernel calls are measured
+     */
+    public enum Metrics {
+        OFF, ON
+    }
+
+    @Param({"100"})
+    private int processCount;
+
+    @Param({"OFF", "ON"})
+    private Metrics metrics;
+
+    private Kernel kernel;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = new Kernel();
+        if (metrics == Metrics.ON) {
+            kernel.recordMetrics();
+        }
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+
+        for (int i = 0; i < processCount; i++) {
+            kernel.createProcess("p" + i, PriorityMix.PRIORITY_USER);
+        }
+    }
+
+    @Benchmark
+    public void timeOut() {
+        kernel.timeOut();
+    }
+
+    @Benchmark
+    public void requestAndRelease() {
+        kernel.requestResources("R4", 1);
+        kernel.releaseResources("R4", 1);
+    }
+}
@@ -0,0 +1,48 @@
+package bench;
+
+/**
+ * Priorities given to the processes created by a benchmark.
+ */
+
+public enum PriorityMix {
+    USER, SYSTEM, MIXED;
+
+    /**
+     * Priorities as defined in Process
+     */
+    public static final int PRIORITY_USER = 1;
+    public static final int PRIORITY_SYSTEM = 2;
+
+    /**
+     * Returns the fraction of processes created with SYSTEM priority.
+     *
+     * @return fraction between 0 and 1
+     */
+    public double systemRate() {
+        switch (this) {
+            case USER:
+                return 0;
+            case SYSTEM:
+                return 1;
+            default:
+                return 0.5;
+        }
+    }
+
+    /**
+     * Returns the priority of the i-th process created.
+     *
+     * @param i the index of the process
+     * @return USER or SYSTEM priority
+     */
+    public int priorityOf(int i) {
+        switch (this) {
+            case USER:
+                return PRIORITY_USER;
+            case SYSTEM:
+                return PRIORITY_SYSTEM;
+            default:
+                return i % 2 == 0 ? PRIORITY_USER : PRIORITY_SYSTEM;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of createProcess and destroyProcess on a deep process tree,
+ * a chain of processes where each one is the child of the one before it,
+ * and every process of the chain also has one leaf child. Each process of
+ * the chain must preempt its parent to create the next one, so they have
+ * rising priorities above SYSTEM. The leaves have the priorities of the
+ * mix and never preempt, so the shape is the same for every mix and only
+ * the ready lists the leaves wait in differ. Half of the processes are in
+ * the chain and half are leaves. Every invocation builds the whole tree
+ * under init and destroys its root.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessChainBenchmark {
+
+    @Param({"100", "1000"})
+    private int processCount;
+
+    @Param({"USER", "SYSTEM", "MIXED"})
+    private PriorityMix priorityMix;
+
+    private Kernel kernel;
+    private String[] pids;
+    private int[] priorities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pids = new String[processCount];
+        priorities = new int[processCount];
+
+        /* Processes are created in order, a chain process then its leaf */
+        int chainLength = (processCount + 1) / 2;
+        for (int i = 0; i < processCount; i++) {
+            pids[i] = "p" + i;
+            if (i % 2 == 0) {
+                priorities[i] = PriorityMix.PRIORITY_SYSTEM + 1 + i / 2;
+            } else {
+                priorities[i] = priorityMix.priorityOf(i / 2);
+            }
+        }
+
+        kernel = new Kernel();
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1 + chainLength);
+    }
+
+    @Benchmark
+    public void createAndDestroyChain() {
+        for (int i = 0; i < processCount; i++) {
+            kernel.createProcess(pids[i], priorities[i]);
+        }
+
+        kernel.destroyProcess(pids[0]);
+    }
+}
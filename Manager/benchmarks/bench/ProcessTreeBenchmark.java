@@ -0,0 +1,101 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of createProcess and destroyProcess on a wide process tree,
+ * a single root with every other process as its child. The root has the
+ * highest priority so that it creates every child, and the children have
+ * the priorities of the mix. Every invocation builds the whole tree under
+ * init and destroys its root. Deep trees are measured by
+ * ProcessChainBenchmark.
+ *
+ * The creates served by a pooled PCB, and those that needed a new one, are reported as the poolHits and poolMisses
+ * counters, which confirm that destroyed processes are reused.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessTreeBenchmark {
+
+    /**
+     * Pool hits and misses of the creates of an iteration
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PoolCounters {
+        public long poolHits;
+        public long poolMisses;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            poolHits = 0;
+            poolMisses = 0;
+        }
+    }
+
+    @Param({"100", "1000"})
+    private int processCount;
+
+    @Param({"USER", "SYSTEM", "MIXED"})
+    private PriorityMix priorityMix;
+
+    private Kernel kernel;
+    private String[] pids;
+    private int[] priorities;
+    private long poolHits;
+    private long poolMisses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pids = new String[processCount];
+        priorities = new int[processCount];
+
+        for (int i = 0; i < processCount; i++) {
+            pids[i] = "p" + i;
+
+            /* Root has the highest priority so it creates every child */
+            priorities[i] = i == 0 ? PriorityMix.PRIORITY_SYSTEM : priorityMix.priorityOf(i);
+        }
+
+        kernel = new Kernel();
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+        poolHits = kernel.getPoolHits();
+        poolMisses = kernel.getPoolMisses();
+    }
+
+    @Benchmark
+    public void createAndDestroyTree(PoolCounters counters) {
+        for (int i = 0; i < processCount; i++) {
+            kernel.createProcess(pids[i], priorities[i]);
+        }
+
+        kernel.destroyProcess(pids[0]);
+
+        /* Only the creates of this invocation are counted */
+        long hits = kernel.getPoolHits();
+        long misses = kernel.getPoolMisses();
+        counters.poolHits += hits - poolHits;
+        counters.poolMisses += misses - poolMisses;
+        poolHits = hits;
+        poolMisses = misses;
+    }
+}
@@ -0,0 +1,105 @@
+package bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a full trace replay through Main, either parsing the text
+ * script from a memory-mapped file or replaying its compiled binary trace.
+ * The script is written by WorkloadGenerator with a fixed seed, so every
+ * run replays the same commands. Output is discarded with --no-output.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReplayBenchmark {
+
+    public enum Input {
+        TEXT, BINARY
+    }
+
+    /**
+     * Number of init-separated test sequences in the trace and the
+     * number of commands generated for every process
+     */
+    private static final int NUM_SEQUENCE = 10;
+    private static final int COMMANDS_PER_PROCESS = 20;
+
+    @Param({"100", "1000"})
+    private int processCount;
+
+    @Param({"USER", "SYSTEM", "MIXED"})
+    private PriorityMix priorityMix;
+
+    @Param({"TEXT", "BINARY"})
+    private Input input;
+
+    private Path script;
+    private Path trace;
+    private String[] args;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        script = Files.createTempFile("replay", ".txt");
+        trace = Files.createTempFile("replay", ".bin");
+        writeScript();
+
+        try (InputStream in = Files.newInputStream(script);
+             OutputStream out = Files.newOutputStream(trace)) {
+            Kernel.compileTrace(in, out, PriorityMix.PRIORITY_SYSTEM + 1);
+        }
+
+        if (input == Input.TEXT) {
+            args = new String[] {"--no-output", "--mmap", script.toString()};
+        } else {
+            args = new String[] {"--no-output", "--replay", trace.toString()};
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(script);
+        Files.deleteIfExists(trace);
+    }
+
+    @Benchmark
+    public void replay() {
+        Kernel.runMain(args);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void writeScript() throws IOException {
+        int numCommands = processCount * COMMANDS_PER_PROCESS;
+
+        try (OutputStream out = Files.newOutputStream(script)) {
+            Kernel.generateWorkload(out,
+                "--seed", "1",
+                "--commands", String.valueOf(numCommands),
+                "--sequence", String.valueOf(numCommands / NUM_SEQUENCE),
+                "--system", String.valueOf(priorityMix.systemRate()));
+        }
+    }
+}
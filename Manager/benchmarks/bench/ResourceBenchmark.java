@@ -0,0 +1,109 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of requestResources and releaseResources with a long block
+ * list on R4.
+ *
+ * Every invocation starts from init. Process a takes all of R4 and c all
+ * of R3, then each blocks on the resource the other holds, leaving init
+ * running. Init then creates the waiters, each of which preempts init,
+ * requests one unit of R4 and joins the back of its block list.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int waiterCount;
+
+    @Param({"USER", "SYSTEM", "MIXED"})
+    private PriorityMix priorityMix;
+
+    private Kernel kernel;
+    private String[] pids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pids = new String[waiterCount];
+        for (int i = 0; i < waiterCount; i++) {
+            pids[i] = "w" + i;
+        }
+
+        kernel = new Kernel();
+    }
+
+    /**
+     * Requests that block and are appended to the block list.
+     */
+    @Benchmark
+    public void requestUntilBlocked() {
+        blockWaiters();
+    }
+
+    /**
+     * Releases that wake up the head of the block list, one unit at a time.
+     */
+    @Benchmark
+    public void releaseThroughBlockList() {
+        blockWaiters();
+
+        /* Frees all of R4, then every destroyed waiter frees its unit */
+        kernel.destroyProcess("a");
+        for (int i = 0; i < waiterCount; i++) {
+            kernel.destroyProcess(pids[i]);
+        }
+    }
+
+    /**
+     * Removal of blocked processes from the back of the block list.
+     */
+    @Benchmark
+    public void destroyFromTail() {
+        blockWaiters();
+
+        for (int i = waiterCount - 1; i >= 0; i--) {
+            kernel.destroyProcess(pids[i]);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void blockWaiters() {
+        kernel.init(PriorityMix.PRIORITY_SYSTEM + 1);
+
+        /* a holds R4 and waits for R3, c holds R3 and waits for R4 */
+        kernel.createProcess("a", PriorityMix.PRIORITY_USER);
+        kernel.requestResources("R4", 4);
+        kernel.createProcess("c", PriorityMix.PRIORITY_USER);
+        kernel.timeOut();
+        kernel.requestResources("R3", 3);
+        kernel.requestResources("R4", 1);
+        kernel.requestResources("R3", 1);
+
+        /* init is running again and creates every waiter */
+        for (int i = 0; i < waiterCount; i++) {
+            kernel.createProcess(pids[i], priorityMix.priorityOf(i));
+            kernel.requestResources("R4", 1);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+import java.util.ArrayList;
+
+/**
+ * Safety check of the Banker's algorithm, used by PREngine in avoidance
+ * mode to only grant requests that leave the system in a safe state, one
+ * where every process can still be given its whole claim in some order.
+ *
+ * The textbook check walks every process against every resource on each
+ * request. This one keeps a safe sequence of the claimants, processes that
+ * declared a claim, up to date between checks, as everyone else holds
+ * nothing and needs nothing. The sequence stays safe when a process is
+ * added at its end, when a process is removed, and when units are given
+ * back, so only grants have to be checked:
+ *
+ * - If the requester could finish straight away with what is left after
+ *   the grant, it is moved to the front of the sequence. This costs one
+ *   pass over its claims, and is the common case.
+ * - Otherwise the sequence is run on paper up to the requester. A grant
+ *   only takes units away from the steps before it, and the requester gives
+ *   them back when it finishes, so every later step stays as it was.
+ * - Only if that fails are all claimants run to completion in any order
+ *   that works, which then becomes the new sequence.
+ */
+
+public class Banker {
+
+    /**
+     * Resources of the engine, indexed like the resource holdings
+     */
+    private Resource[] resources = new Resource[0];
+
+    /**
+     * Claimants in the order of the current safe sequence, linked through
+     * the processes themselves
+     */
+    private Process first;
+    private Process last;
+    private int size;
+
+    /**
+     * Units available at each step of a check, valid for a resource only
+     * if its mark is the number of the current check
+     */
+    private int[] work = new int[0];
+    private long[] workMark = new long[0];
+    private long epoch;
+
+    /**
+     * Reusable work lists of a full check
+     */
+    private ArrayList<Process> finished = new ArrayList<Process>();
+    private ArrayList<Process> pending = new ArrayList<Process>();
+
+    /**
+     * Number of checks answered by the fast path, by the current sequence
+     * and by a full check
+     */
+    private long fastChecks;
+    private long sequenceChecks;
+    private long fullChecks;
+
+    /**
+     * Set the resources of the engine and forget every claimant, after
+     * every init.
+     *
+     * @param resources every resource of the engine, in catalogue order
+     */
+    public void setResources(Resource[] resources) {
+        this.resources = resources;
+        work = new int[resources.length];
+        workMark = new long[resources.length];
+
+        while (first != null) {
+            unlink(first);
+        }
+    }
+
+    /**
+     * Add a new process with a claim. It holds nothing yet, so it can run
+     * last in the safe sequence and the state stays safe.
+     *
+     * @param p the process, with its claims set
+     */
+    public void add(Process p) {
+        linkLast(p);
+    }
+
+    /**
+     * Remove a process that is being destroyed, once it holds nothing.
+     * Nothing happens if the process has no claim.
+     *
+     * @param p the process
+     */
+    public void remove(Process p) {
+        if (p == first || p.getClaimPrev() != null) {
+            unlink(p);
+        }
+    }
+
+    /**
+     * Returns whether granting the units of the resource to the process
+     * leaves the system in a safe state. The units must be free and within
+     * the remaining claim of the process.
+     *
+     * @param p        the process making the request
+     * @param resource the requested resource
+     * @param unit     the number of requested units
+     * @return true if the request can be granted
+     */
+    public boolean isSafe(Process p, Resource resource, int unit) {
+        int index = resource.getIndex();
+
+        if (canFinishAfterGrant(p, index, unit)) {
+            fastChecks++;
+            if (p != first) {
+                unlink(p);
+                linkFirst(p);
+            }
+            return true;
+        }
+
+        if (runSequence(p, index, unit)) {
+            sequenceChecks++;
+            return true;
+        }
+
+        fullChecks++;
+        return runToCompletion(p, index, unit);
+    }
+
+    /**
+     * Private method that checks whether the process could finish right
+     * after the grant with only the free units left.
+     *
+     * @param p     the process making the request
+     * @param index the index of the requested resource
+     * @param unit  the number of requested units
+     * @return true if the whole remaining claim fits
+     */
+    private boolean canFinishAfterGrant(Process p, int index, int unit) {
+        ResourceHoldings claims = p.getClaims();
+        for (int i = 0; i < claims.size(); i++) {
+            int r = claims.getResourceAt(i);
+            int granted = r == index ? unit : 0;
+            int need = claims.getUnitsAt(i) - p.getResources().get(r) - granted;
+
+            if (need > resources[r].getFreeUnits() - granted) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Private method that runs the current safe sequence on paper as if
+     * the request was granted, up to the process making it.
+     *
+     * @param p     the process making the request
+     * @param index the index of the requested resource
+     * @param unit  the number of requested units
+     * @return true if every claimant up to the requester can still finish
+     */
+    private boolean runSequence(Process p, int index, int unit) {
+        epoch++;
+        setWork(index, resources[index].getFreeUnits() - unit);
+
+        for (Process q = first; q != null; q = q.getClaimNext()) {
+            if (!canFinish(q, p, index, unit)) {
+                return false;
+            }
+
+            if (q == p) {
+                return true;
+            }
+            giveBack(q, p, index, unit);
+        }
+        return false;
+    }
+
+    /**
+     * Private method that runs every claimant to completion on paper as if
+     * the request was granted, keeping the sequence found if it is safe.
+     *
+     * @param p     the process making the request
+     * @param index the index of the requested resource
+     * @param unit  the number of requested units
+     * @return true if every claimant can finish
+     */
+    private boolean runToCompletion(Process p, int index, int unit) {
+        epoch++;
+        finished.clear();
+        pending.clear();
+
+        /* The granted units are taken from the free units */
+        setWork(index, resources[index].getFreeUnits() - unit);
+
+        /* First pass in the current order */
+        for (Process q = first; q != null; q = q.getClaimNext()) {
+            if (canFinish(q, p, index, unit)) {
+                giveBack(q, p, index, unit);
+                finished.add(q);
+            } else {
+                pending.add(q);
+            }
+        }
+
+        /* Then until no one else can finish */
+        boolean isProgress = true;
+        while (isProgress && !pending.isEmpty()) {
+            isProgress = false;
+
+            int kept = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                Process q = pending.get(i);
+                if (canFinish(q, p, index, unit)) {
+                    giveBack(q, p, index, unit);
+                    finished.add(q);
+                    isProgress = true;
+                } else {
+                    pending.set(kept++, q);
+                }
+            }
+
+            while (pending.size() > kept) {
+                pending.remove(pending.size() - 1);
+            }
+        }
+
+        boolean isSafe = pending.isEmpty();
+
+        /* Keep the safe sequence for the next check */
+        if (isSafe) {
+            for (int i = 0; i < finished.size(); i++) {
+                unlink(finished.get(i));
+                linkLast(finished.get(i));
+            }
+        }
+
+        finished.clear();
+        pending.clear();
+        return isSafe;
+    }
+
+    /**
+     * Private method that checks whether the remaining claim of a claimant
+     * fits in the units available at this step.
+     *
+     * @param q     the claimant
+     * @param p     the process making the request
+     * @param index the index of the requested resource
+     * @param unit  the number of requested units
+     * @return true if the claimant can finish
+     */
+    private boolean canFinish(Process q, Process p, int index, int unit) {
+        ResourceHoldings claims = q.getClaims();
+        for (int i = 0; i < claims.size(); i++) {
+            int r = claims.getResourceAt(i);
+            int need = claims.getUnitsAt(i) - q.getResources().get(r);
+            if (q == p && r == index) {
+                need -= unit;
+            }
+
+            if (need > getWork(r)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Private method that gives back every unit held by a claimant that
+     * finishes, including the granted units if it made the request.
+     *
+     * @param q     the claimant
+     * @param p     the process making the request
+     * @param index the index of the requested resource
+     * @param unit  the number of requested units
+     */
+    private void giveBack(Process q, Process p, int index, int unit) {
+        ResourceHoldings holdings = q.getResources();
+        for (int i = 0; i < holdings.size(); i++) {
+            int r = holdings.getResourceAt(i);
+            setWork(r, getWork(r) + holdings.getUnitsAt(i));
+        }
+
+        if (q == p) {
+            setWork(index, getWork(index) + unit);
+        }
+    }
+
+    /* Getters Methods */
+
+    public int size() {
+        return size;
+    }
+
+    public Process getFirst() {
+        return first;
+    }
+
+    public long getFastChecks() {
+        return fastChecks;
+    }
+
+    public long getSequenceChecks() {
+        return sequenceChecks;
+    }
+
+    public long getFullChecks() {
+        return fullChecks;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private int getWork(int r) {
+        return workMark[r] == epoch ? work[r] : resources[r].getFreeUnits();
+    }
+
+    private void setWork(int r, int units) {
+        work[r] = units;
+        workMark[r] = epoch;
+    }
+
+    private void linkFirst(Process p) {
+        p.setClaimPrev(null);
+        p.setClaimNext(first);
+        if (first == null) {
+            last = p;
+        } else {
+            first.setClaimPrev(p);
+        }
+        first = p;
+        size++;
+    }
+
+    private void linkLast(Process p) {
+        p.setClaimPrev(last);
+        p.setClaimNext(null);
+        if (last == null) {
+            first = p;
+        } else {
+            last.setClaimNext(p);
+        }
+        last = p;
+        size++;
+    }
+
+    private void unlink(Process p) {
+        Process prev = p.getClaimPrev();
+        Process next = p.getClaimNext();
+
+        if (prev == null) {
+            first = next;
+        } else {
+            prev.setClaimNext(next);
+        }
+
+        if (next == null) {
+            last = prev;
+        } else {
+            next.setClaimPrev(prev);
+        }
+
+        p.setClaimPrev(null);
+        p.setClaimNext(null);
+        size--;
+    }
+}
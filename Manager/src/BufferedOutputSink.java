@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Output sink that encodes everything into a large reusable byte buffer
+ * and only writes to the underlying stream when the buffer is full or
+ * when flushed explicitly, e.g. at the end of a test sequence.
+ */
+
+public class BufferedOutputSink implements OutputSink {
+
+    /**
+     * Default size of the buffer in bytes
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /**
+     * Destination of the buffered output and the charset used
+     * for any text that is not plain ASCII
+     */
+    private OutputStream out;
+    private Charset charset;
+
+    /**
+     * The reusable buffer and the number of bytes currently in it
+     */
+    private byte[] buffer;
+    private int count;
+
+    /**
+     * Constructor that creates a sink with the default buffer size.
+     *
+     * @param out the stream to write the output to
+     */
+    public BufferedOutputSink(OutputStream out) {
+        this(out, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor that creates a sink with the given buffer size.
+     *
+     * @param out      the stream to write the output to
+     * @param capacity the number of bytes buffered before writing to the stream
+     */
+    public BufferedOutputSink(OutputStream out, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("invalid buffer capacity: " + capacity);
+        }
+
+        this.out = out;
+        this.charset = Charset.defaultCharset();
+        this.buffer = new byte[capacity];
+        this.count = 0;
+    }
+
+    @Override
+    public void print(String s) {
+        int length = s.length();
+
+        /* Make sure the whole string fits in the buffer if possible */
+        if (length > buffer.length - count) {
+            drain();
+        }
+
+        /* Copy ASCII characters straight into the buffer */
+        int start = count;
+        if (length <= buffer.length) {
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                if (c >= 0x80) {
+                    break;
+                }
+                buffer[count++] = (byte) c;
+            }
+
+            if (count - start == length) {
+                return;
+            }
+        }
+
+        /* Fall back to the charset for long or non-ASCII strings */
+        count = start;
+        write(s.getBytes(charset));
+    }
+
+    @Override
+    public void print(char c) {
+        if (c >= 0x80) {
+            print(String.valueOf(c));
+            return;
+        }
+
+        if (count == buffer.length) {
+            drain();
+        }
+
+        buffer[count++] = (byte) c;
+    }
+
+    @Override
+    public void println(String s) {
+        print(s);
+        print(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void flush() {
+        drain();
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void write(byte[] bytes) {
+        if (bytes.length > buffer.length - count) {
+            drain();
+        }
+
+        if (bytes.length > buffer.length) {
+            writeToStream(bytes, bytes.length);
+        } else {
+            System.arraycopy(bytes, 0, buffer, count, bytes.length);
+            count += bytes.length;
+        }
+    }
+
+    private void drain() {
+        if (count > 0) {
+            writeToStream(buffer, count);
+            count = 0;
+        }
+    }
+
+    private void writeToStream(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/**
+ * Output sink that keeps everything printed to it in memory,
+ * used by tests to check the output of the manager.
+ */
+
+public class CaptureOutputSink implements OutputSink {
+
+    private StringBuilder captured = new StringBuilder();
+
+    @Override
+    public void print(String s) {
+        captured.append(s);
+    }
+
+    @Override
+    public void print(char c) {
+        captured.append(c);
+    }
+
+    @Override
+    public void println(String s) {
+        captured.append(s).append(System.lineSeparator());
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Remove everything captured so far.
+     */
+    public void clear() {
+        captured.setLength(0);
+    }
+
+    /**
+     * Returns everything printed since creation or the last clear.
+     *
+     * @return the captured output
+     */
+    @Override
+    public String toString() {
+        return captured.toString();
+    }
+}
@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoder of the numbers and names of a checkpoint written by a
+ * CheckpointEncoder, reading the underlying stream in large blocks.
+ */
+
+public class CheckpointDecoder {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Source of the checkpoint and the buffer of bytes not yet decoded
+     */
+    private InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * Sole constructor that reads and checks the header of the checkpoint.
+     *
+     * @param in the stream to read the checkpoint from
+     * @throws IllegalArgumentException if the stream is not a checkpoint
+     */
+    public CheckpointDecoder(InputStream in) {
+        this.in = in;
+
+        for (byte b : CheckpointFormat.MAGIC) {
+            if (readByte() != (b & 0xFF)) {
+                throw new IllegalArgumentException("not a checkpoint");
+            }
+        }
+
+        int version = readByte();
+        if (version != CheckpointFormat.VERSION) {
+            throw new IllegalArgumentException("unsupported checkpoint version: " + version);
+        }
+    }
+
+    /**
+     * Read a number that must be within the given bounds.
+     *
+     * @param min the smallest valid value
+     * @param max the largest valid value
+     * @return the number
+     * @throws IllegalArgumentException if the number is out of bounds
+     */
+    public int readVarint(int min, int max) {
+        long value = readVarlong();
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("invalid value in checkpoint: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Read a non-negative long number.
+     *
+     * @return the number
+     */
+    public long readVarlong() {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint in checkpoint");
+    }
+
+    /**
+     * Read a name.
+     *
+     * @return the name
+     */
+    public String readString() {
+        byte[] bytes = new byte[readVarint(0, BUFFER_SIZE)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) readByte();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private int readByte() {
+        if (position == limit && !fill()) {
+            throw new IllegalArgumentException("truncated checkpoint");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() {
+        try {
+            int read = in.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder of the numbers and names of a checkpoint into a reusable
+ * buffer, written to the underlying stream in large blocks.
+ */
+
+public class CheckpointEncoder {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Destination of the checkpoint and the buffer of bytes not yet written
+     */
+    private OutputStream out;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    /**
+     * Sole constructor that writes the header of the checkpoint.
+     *
+     * @param out the stream to write the checkpoint to
+     */
+    public CheckpointEncoder(OutputStream out) {
+        this.out = out;
+
+        for (byte b : CheckpointFormat.MAGIC) {
+            writeByte(b);
+        }
+        writeByte(CheckpointFormat.VERSION);
+    }
+
+    /**
+     * Write a non-negative number.
+     *
+     * @param value the number
+     */
+    public void writeVarint(int value) {
+        writeVarlong(value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Write a non-negative long number.
+     *
+     * @param value the number
+     */
+    public void writeVarlong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    /**
+     * Write a name.
+     *
+     * @param s the name
+     */
+    public void writeString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        for (byte b : bytes) {
+            writeByte(b);
+        }
+    }
+
+    /**
+     * Write everything buffered to the stream and flush it.
+     */
+    public void flush() {
+        drain();
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void writeByte(int b) {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, count);
+            count = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Constants of the binary checkpoint of a PREngine, written by
+ * CheckpointEncoder and read back by CheckpointDecoder.
+ *
+ * A checkpoint starts with the 4 byte MAGIC and a VERSION byte. Every
+ * number after that is a varint and every name is its length followed by
+ * its UTF-8 bytes. Processes are numbered from 1 in creation order, and
+ * 0 stands for no process. In order, a checkpoint holds:
+ *
+ * - the number of priority levels, the number of the last blocking
+ *   request and the virtual clock;
+ * - the resources in catalogue order, each with its rid, units, wake-up
+ *   policy and free units;
+ * - the processes in creation order, each with its pid, priority, type,
+ *   parent, the resource it is blocked on plus 1 or 0, blockedReqUnit,
+ *   blockedSeq, bypass count, its holdings and claims as a count
+ *   followed by resource index and units pairs, its age and ticks in its
+ *   current state, its ticks running, ready and blocked before that, and
+ *   its dispatches;
+ * - every level of the Ready List, then the Block List and holders of
+ *   every resource, each as a count followed by processes in list order;
+ * - the running process and the ticks left in its time slice;
+ * - the resources held back by the Banker and the safe sequence of the
+ *   Banker, as a count followed by resource indices and processes;
+ * - for every priority level, the number of destroyed processes, their
+ *   total turnaround, ticks running, ready and blocked and dispatches,
+ *   then the ticks waited on every resource.
+ *
+ * Lists are written in their current order, so a restored engine behaves
+ * exactly like the one that was saved.
+ */
+
+public class CheckpointFormat {
+
+    public static final byte[] MAGIC = {'P', 'R', 'C', 'K'};
+    public static final int VERSION = 3;
+
+    private CheckpointFormat() {
+    }
+}
@@ -0,0 +1,544 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal of the kernel calls given to an engine, so that its
+ * state can be rebuilt after a crash by replaying the journal on start-up.
+ *
+ * Every call that changes the state of the engine (init, create, destroy,
+ * request, release, time-out and tick) is appended to the journal before it
+ * is executed. Print commands and errors change nothing and are not
+ * journaled. Checkpoint loads are rejected with an error, as replaying one
+ * would depend on a file the journal does not own. Records are the ones of
+ * a binary trace described in TraceFormat, and are not forced to disk one
+ * by one but in group commits: a background thread commits everything
+ * appended so far once a whole batch of records is pending, or once the
+ * oldest pending record has waited for the time window. A commit takes
+ * every pending record, so commits grow on their own when the disk is slow.
+ * After a crash, at most the records of the last window are lost, and the
+ * state rebuilt is the one after some prefix of the calls given.
+ *
+ * A journal starts with the 4 byte MAGIC and a VERSION byte, followed by
+ * one block per commit: the length of its records and their CRC32, both as
+ * 4 byte ints, then the records. Every block starts with a RESET_NAMES
+ * record and defines the pids and rids it uses, so the name tables only
+ * ever hold the names of one commit. A block cut short or damaged by a
+ * crash ends the journal, and is cut off before anything else is appended.
+ */
+
+public class CommandJournal implements CommandTarget, Closeable {
+
+    public static final byte[] MAGIC = {'P', 'R', 'J', 'L'};
+    public static final int VERSION = 1;
+
+    /**
+     * Default number of records per commit and default time window
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_WINDOW_MILLIS = 10;
+
+    private static final int HEADER_SIZE = MAGIC.length + 1;
+    private static final int BLOCK_HEADER_SIZE = 8;
+
+    /**
+     * Engine the kernel calls are executed on
+     */
+    private CommandTarget engine;
+
+    /**
+     * Journal file, and where the next block is written
+     */
+    private FileChannel channel;
+
+    /**
+     * Records appended since the last commit, encoded by the writer into
+     * the batch, and the time the first of them was appended
+     */
+    private ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private TraceWriter writer;
+    private int pendingRecords;
+    private long firstPendingNanos;
+
+    /**
+     * Group commit settings
+     */
+    private int batchSize;
+    private long windowNanos;
+
+    /**
+     * Thread that commits the pending records, and whether it should
+     * commit them all and stop
+     */
+    private Thread committer;
+    private boolean isClosing;
+
+    /**
+     * First failure of the committer, thrown back at the engine thread
+     */
+    private IOException failure;
+
+    /**
+     * Private constructor, use open.
+     *
+     * @param channel     the journal file, positioned at its end
+     * @param engine      the engine the kernel calls are executed on
+     * @param batchSize   the number of records that triggers a commit
+     * @param windowNanos the longest a record waits for a commit
+     */
+    private CommandJournal(FileChannel channel, CommandTarget engine, int batchSize,
+        long windowNanos) {
+        this.channel = channel;
+        this.engine = engine;
+        this.batchSize = batchSize;
+        this.windowNanos = windowNanos;
+
+        /* The trace header is not journaled, only the records after it */
+        writer = new TraceWriter(batch);
+        writer.flush();
+        batch.reset();
+        writer.resetNames();
+
+        committer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                commitLoop();
+            }
+        }, "journal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Open the journal file, creating it if needed. Every kernel call
+     * already in it is replayed on the engine first, so the engine must
+     * be in the state the journal was started from, e.g. right after
+     * init, and its output should be discarded while this runs.
+     *
+     * @param file         the journal file
+     * @param engine       the engine the kernel calls are executed on
+     * @param batchSize    the number of records that triggers a commit
+     * @param windowMillis the longest a record waits for a commit, in ms
+     * @return the journal, to give the kernel calls to instead of the engine
+     * @throws IOException              if the file cannot be read or written
+     * @throws IllegalArgumentException if the file is not a journal
+     */
+    public static CommandJournal open(Path file, CommandTarget engine, int batchSize,
+        int windowMillis) throws IOException {
+        if (batchSize <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("invalid group commit settings");
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            /* A journal cut short before its header is as good as empty */
+            if (channel.size() < HEADER_SIZE) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.put(MAGIC).put((byte) VERSION).flip();
+                writeFully(channel, header);
+                channel.force(true);
+            }
+
+            /* Replay every complete block, then cut off anything after them */
+            channel.position(0);
+            BlockInputStream blocks = new BlockInputStream(channel);
+            new TraceReplayer(blocks, engine).replay();
+
+            channel.truncate(blocks.getValidLength());
+            channel.position(blocks.getValidLength());
+
+            return new CommandJournal(channel, engine, batchSize,
+                TimeUnit.MILLISECONDS.toNanos(windowMillis));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void init(int numPriority) {
+        synchronized (this) {
+            writer.init(numPriority);
+            appended();
+        }
+        engine.init(numPriority);
+    }
+
+    @Override
+    public void createProcess(String pid, int priority) {
+        synchronized (this) {
+            writer.createProcess(pid, priority);
+            appended();
+        }
+        engine.createProcess(pid, priority);
+    }
+
+    @Override
+    public void createProcess(String pid, int priority, String claims) {
+        synchronized (this) {
+            writer.createProcess(pid, priority, claims);
+            appended();
+        }
+        engine.createProcess(pid, priority, claims);
+    }
+
+    @Override
+    public void destroyProcess(String pid) {
+        synchronized (this) {
+            writer.destroyProcess(pid);
+            appended();
+        }
+        engine.destroyProcess(pid);
+    }
+
+    @Override
+    public void requestResources(String rid, int unit) {
+        synchronized (this) {
+            writer.requestResources(rid, unit);
+            appended();
+        }
+        engine.requestResources(rid, unit);
+    }
+
+    @Override
+    public void releaseResources(String rid, int unit) {
+        synchronized (this) {
+            writer.releaseResources(rid, unit);
+            appended();
+        }
+        engine.releaseResources(rid, unit);
+    }
+
+    @Override
+    public void timeOut() {
+        synchronized (this) {
+            writer.timeOut();
+            appended();
+        }
+        engine.timeOut();
+    }
+
+    @Override
+    public void tick(int ticks) {
+        synchronized (this) {
+            writer.tick(ticks);
+            appended();
+        }
+        engine.tick(ticks);
+    }
+
+    /**
+     * Reject a checkpoint load. The journal could only keep the name of the
+     * file, and replaying it would load whatever the file holds by then, so
+     * the state rebuilt would not be the one the load gave.
+     *
+     * @param file the checkpoint file, ignored
+     */
+    @Override
+    public void loadCheckpoint(String file) {
+        engine.showError();
+    }
+
+    @Override
+    public void printAllProcess() {
+        engine.printAllProcess();
+    }
+
+    @Override
+    public void printAllResource() {
+        engine.printAllResource();
+    }
+
+    @Override
+    public void printProcess(String argument) {
+        engine.printProcess(argument);
+    }
+
+    @Override
+    public void printResource(String argument) {
+        engine.printResource(argument);
+    }
+
+    @Override
+    public void printDeadlock() {
+        engine.printDeadlock();
+    }
+
+    @Override
+    public void printStats() {
+        engine.printStats();
+    }
+
+    @Override
+    public void printEvents(int count) {
+        engine.printEvents(count);
+    }
+
+    @Override
+    public void printAccounting() {
+        engine.printAccounting();
+    }
+
+    @Override
+    public void saveCheckpoint(String file) {
+        engine.saveCheckpoint(file);
+    }
+
+    @Override
+    public void showError() {
+        engine.showError();
+    }
+
+    @Override
+    public void printSequenceSeparator() {
+        engine.printSequenceSeparator();
+    }
+
+    /**
+     * Commit every record appended so far, stop the committer and close
+     * the journal file.
+     *
+     * @throws IOException if a commit failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            isClosing = true;
+            notifyAll();
+        }
+
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Private method that counts a record appended by the writer, waking
+     * up the committer if it starts a batch or fills it. The caller must
+     * hold the lock of the journal.
+     *
+     * @throws UncheckedIOException if an earlier commit failed
+     */
+    private void appended() {
+        if (failure != null) {
+            throw new UncheckedIOException("cannot write journal", failure);
+        }
+
+        pendingRecords++;
+        if (pendingRecords == 1) {
+            firstPendingNanos = System.nanoTime();
+            notifyAll();
+        } else if (pendingRecords == batchSize) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Private method run by the committer, that waits for a batch to fill
+     * up or for its window to pass and writes it out as one block, forced
+     * to disk, until the journal is closed.
+     */
+    private void commitLoop() {
+        try {
+            while (true) {
+                byte[] records;
+
+                synchronized (this) {
+                    /* Wait for a reason to commit */
+                    while (!isClosing && pendingRecords < batchSize) {
+                        if (pendingRecords == 0) {
+                            wait();
+                            continue;
+                        }
+
+                        long remaining = firstPendingNanos + windowNanos - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+
+                    if (pendingRecords == 0) {
+                        return;
+                    }
+
+                    /* Take every pending record, the engine goes on with a new batch */
+                    writer.flush();
+                    records = batch.toByteArray();
+                    batch.reset();
+                    writer.resetNames();
+                    pendingRecords = 0;
+                }
+
+                writeBlock(records);
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+            }
+        } catch (InterruptedException e) {
+            synchronized (this) {
+                failure = new IOException("journal committer interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * Private method that appends the records as one block and forces
+     * them to disk.
+     *
+     * @param records the encoded records
+     * @throws IOException if the block cannot be written
+     */
+    private void writeBlock(byte[] records) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(records, 0, records.length);
+
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        header.putInt(records.length).putInt((int) crc.getValue()).flip();
+
+        writeFully(channel, header);
+        writeFully(channel, ByteBuffer.wrap(records));
+        channel.force(false);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Stream of the records of every complete block of a journal, behind
+     * the header of a binary trace so that a TraceReplayer can read them.
+     * It ends at the end of the journal or at the first block that was
+     * cut short or damaged, and knows the length of the journal up to it.
+     */
+    private static class BlockInputStream extends InputStream {
+
+        private DataInputStream in;
+        private long remaining;
+        private long validLength;
+
+        /**
+         * Bytes of the current block not yet read
+         */
+        private byte[] block;
+        private int position;
+
+        BlockInputStream(FileChannel channel) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel),
+                1 << 16));
+            remaining = channel.size();
+
+            for (byte b : MAGIC) {
+                if (in.readByte() != b) {
+                    throw new IllegalArgumentException("not a journal");
+                }
+            }
+
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported journal version: " + version);
+            }
+
+            remaining -= HEADER_SIZE;
+            validLength = HEADER_SIZE;
+
+            /* The replayer expects a trace header */
+            block = new byte[TraceFormat.MAGIC.length + 1];
+            System.arraycopy(TraceFormat.MAGIC, 0, block, 0, TraceFormat.MAGIC.length);
+            block[TraceFormat.MAGIC.length] = (byte) TraceFormat.VERSION;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!hasBlock()) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!hasBlock()) {
+                return -1;
+            }
+
+            int read = Math.min(len, block.length - position);
+            System.arraycopy(block, position, b, off, read);
+            position += read;
+            return read;
+        }
+
+        long getValidLength() {
+            return validLength;
+        }
+
+        private boolean hasBlock() throws IOException {
+            while (block != null && position == block.length) {
+                block = readBlock();
+                position = 0;
+            }
+            return block != null;
+        }
+
+        private byte[] readBlock() throws IOException {
+            if (remaining < BLOCK_HEADER_SIZE) {
+                return null;
+            }
+
+            int length = in.readInt();
+            int checksum = in.readInt();
+            remaining -= BLOCK_HEADER_SIZE;
+            if (length <= 0 || length > remaining) {
+                return null;
+            }
+
+            byte[] records = new byte[length];
+            try {
+                in.readFully(records);
+            } catch (EOFException e) {
+                return null;
+            }
+            remaining -= length;
+
+            CRC32 crc = new CRC32();
+            crc.update(records, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                return null;
+            }
+
+            validLength += BLOCK_HEADER_SIZE + length;
+            return records;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser that executes driver commands directly out of a byte buffer.
+ * The command word is matched on its bytes, numbers are converted without
+ * exceptions and only the pid / rid argument is turned into a String.
+ *
+ * Lines are trimmed and split exactly like Main does with String.trim and
+ * split("\\s+"), so errors and output are identical to the Scanner driver.
+ * Lines containing non-ASCII bytes are decoded and handed to Main instead.
+ */
+
+public class CommandParser {
+
+    /**
+     * Line separators other than CR / LF recognised by Scanner.nextLine
+     */
+    private static final String UNICODE_LINE_SEPARATORS = "[\\u0085\\u2028\\u2029]";
+
+    /**
+     * The engine that commands are executed on
+     */
+    private CommandTarget engine;
+
+    /**
+     * Number of priority levels used on every init
+     */
+    private int numPriority;
+
+    /**
+     * Reusable buffer for copying out arguments
+     */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Sole constructor of this class.
+     *
+     * @param engine      the engine that commands are executed on
+     * @param numPriority the number of priority levels used on every init
+     */
+    public CommandParser(CommandTarget engine, int numPriority) {
+        this.engine = engine;
+        this.numPriority = numPriority;
+    }
+
+    /**
+     * Execute a single line of input on the engine.
+     *
+     * @param buffer buffer containing the line
+     * @param start  absolute index of the first byte of the line
+     * @param end    absolute index after the last byte, excluding line separator
+     */
+    public void executeLine(ByteBuffer buffer, int start, int end) {
+        /* Lines that are not plain ASCII go through the String driver */
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                executeDecoded(buffer, start, end);
+                return;
+            }
+        }
+
+        /* Same as String.trim, which removes every char up to space */
+        while (start < end && buffer.get(start) <= ' ') {
+            start++;
+        }
+        while (end > start && buffer.get(end - 1) <= ' ') {
+            end--;
+        }
+
+        /* if input contains empty line, ignore and return */
+        if (start == end) {
+            return;
+        }
+
+        /* The first word ends at the first whitespace */
+        int commandEnd = skipWord(buffer, start, end);
+        Main.CommandType commandType = getCommandType(buffer, start, commandEnd);
+
+        /* With no arguments the driver sees a single empty argument */
+        if (commandEnd == end) {
+            Main.executeCommand(engine, numPriority, commandType, 1, "", Main.INVALID_NUM, null);
+            return;
+        }
+
+        /* The arguments are the rest of the line, trimmed again */
+        int argStart = skipSpace(buffer, commandEnd, end);
+        while (argStart < end && buffer.get(argStart) <= ' ') {
+            argStart++;
+        }
+
+        int argEnd = skipWord(buffer, argStart, end);
+        String argument = toString(buffer, argStart, argEnd);
+
+        if (argEnd == end) {
+            Main.executeCommand(engine, numPriority, commandType, 1, argument, Main.INVALID_NUM,
+                null);
+        } else if (commandType == Main.CommandType.CREATE) {
+            /* Anything after the priority of a create is its claims */
+            int unitStart = skipSpace(buffer, argEnd, end);
+            int unitEnd = skipWord(buffer, unitStart, end);
+            String claims = unitEnd == end
+                ? null : toString(buffer, skipSpace(buffer, unitEnd, end), end);
+            Main.executeCommand(engine, numPriority, commandType, 2, argument,
+                toInt(buffer, unitStart, unitEnd), claims);
+        } else {
+            int unit = isNumeric(commandType)
+                ? toInt(buffer, skipSpace(buffer, argEnd, end), end) : Main.INVALID_NUM;
+            Main.executeCommand(engine, numPriority, commandType, 2, argument, unit, null);
+        }
+    }
+
+    /**
+     * Method to determine command type based on the bytes of the
+     * first word, ignoring case.
+     *
+     * @param buffer buffer containing the word
+     * @param start  absolute index of the first byte of the word
+     * @param end    absolute index after the last byte of the word
+     * @return the CommandType of the word
+     */
+    private static Main.CommandType getCommandType(ByteBuffer buffer, int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (matches(buffer, start, "cr")) {
+                    return Main.CommandType.CREATE;
+                } else if (matches(buffer, start, "de")) {
+                    return Main.CommandType.DELETE;
+                } else if (matches(buffer, start, "to")) {
+                    return Main.CommandType.TIME_OUT;
+                } else if (matches(buffer, start, "dl")) {
+                    return Main.CommandType.DEADLOCK;
+                }
+                break;
+
+            case 3:
+                if (matches(buffer, start, "req")) {
+                    return Main.CommandType.REQUEST;
+                } else if (matches(buffer, start, "rel")) {
+                    return Main.CommandType.RELEASE;
+                }
+                break;
+
+            case 4:
+                if (matches(buffer, start, "init")) {
+                    return Main.CommandType.INIT;
+                } else if (matches(buffer, start, "allp")) {
+                    return Main.CommandType.ALL_PROCESS;
+                } else if (matches(buffer, start, "allr")) {
+                    return Main.CommandType.ALL_RESOURCE;
+                } else if (matches(buffer, start, "getp")) {
+                    return Main.CommandType.GET_PROCESS;
+                } else if (matches(buffer, start, "getr")) {
+                    return Main.CommandType.GET_RESOURCE;
+                } else if (matches(buffer, start, "save")) {
+                    return Main.CommandType.SAVE;
+                } else if (matches(buffer, start, "load")) {
+                    return Main.CommandType.LOAD;
+                } else if (matches(buffer, start, "tick")) {
+                    return Main.CommandType.TICK;
+                } else if (matches(buffer, start, "acct")) {
+                    return Main.CommandType.ACCOUNTING;
+                }
+                break;
+
+            case 5:
+                if (matches(buffer, start, "stats")) {
+                    return Main.CommandType.STATS;
+                }
+                break;
+
+            case 6:
+                if (matches(buffer, start, "events")) {
+                    return Main.CommandType.EVENTS;
+                }
+                break;
+
+            default:
+                break;
+        }
+
+        return Main.CommandType.INVALID;
+    }
+
+    /**
+     * Convert the bytes to an int the same way as Integer.parseInt,
+     * without throwing exceptions.
+     *
+     * @param buffer buffer containing the number
+     * @param start  absolute index of the first byte of the number
+     * @param end    absolute index after the last byte of the number
+     * @return the number, or INVALID_NUM if not a valid int
+     */
+    static int toInt(ByteBuffer buffer, int start, int end) {
+        if (start == end) {
+            return Main.INVALID_NUM;
+        }
+
+        boolean isNegative = false;
+        byte first = buffer.get(start);
+        if (first == '-' || first == '+') {
+            isNegative = first == '-';
+            start++;
+
+            /* A lone sign is not a number */
+            if (start == end) {
+                return Main.INVALID_NUM;
+            }
+        }
+
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Main.INVALID_NUM;
+            }
+
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Main.INVALID_NUM;
+            }
+        }
+
+        if (isNegative) {
+            return (int) -value;
+        }
+
+        return value > Integer.MAX_VALUE ? Main.INVALID_NUM : (int) value;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void executeDecoded(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+
+        String userInput = new String(bytes, Charset.defaultCharset());
+        for (String line : userInput.split(UNICODE_LINE_SEPARATORS, -1)) {
+            Main.handleUserCommand(engine, line, numPriority);
+        }
+    }
+
+    private String toString(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(start + i);
+        }
+
+        return new String(scratch, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isNumeric(Main.CommandType commandType) {
+        return commandType == Main.CommandType.CREATE || commandType == Main.CommandType.REQUEST
+            || commandType == Main.CommandType.RELEASE;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if ((buffer.get(start + i) | 0x20) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+    }
+
+    private static int skipWord(ByteBuffer buffer, int start, int end) {
+        while (start < end && !isSpace(buffer.get(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipSpace(ByteBuffer buffer, int start, int end) {
+        while (start < end && isSpace(buffer.get(start))) {
+            start++;
+        }
+        return start;
+    }
+}
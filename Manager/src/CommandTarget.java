@@ -0,0 +1,49 @@
+/**
+ * Receiver of the kernel calls and print commands issued by the driver.
+ * Implemented by PREngine to execute them, by TraceWriter to record
+ * them into a binary trace and by CommandJournal to journal them before
+ * passing them on to an engine.
+ */
+
+public interface CommandTarget {
+
+    void init(int numPriority);
+
+    void createProcess(String pid, int priority);
+
+    void createProcess(String pid, int priority, String claims);
+
+    void destroyProcess(String pid);
+
+    void requestResources(String rid, int unit);
+
+    void releaseResources(String rid, int unit);
+
+    void timeOut();
+
+    void tick(int ticks);
+
+    void printAllProcess();
+
+    void printAllResource();
+
+    void printProcess(String argument);
+
+    void printResource(String argument);
+
+    void printDeadlock();
+
+    void printStats();
+
+    void printEvents(int count);
+
+    void printAccounting();
+
+    void saveCheckpoint(String file);
+
+    void loadCheckpoint(String file);
+
+    void showError();
+
+    void printSequenceSeparator();
+}
@@ -0,0 +1,375 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Deadlock detector over the wait-for graph of an engine. The graph is
+ * kept up to date by the engine itself: a blocked process points to the
+ * resource it is blocked on, and every resource keeps the processes
+ * holding units of it. Nothing is rebuilt for a check.
+ *
+ * A check only looks at the part of the graph reachable from its roots,
+ * following each blocked process to its resource and each resource to its
+ * holders, as nothing else can ever wake up the roots. That part is then
+ * reduced: processes that are not blocked, and blocked processes whose
+ * request fits in the free units plus the units of reduced holders, are
+ * assumed to run to completion and give back all they hold. Waiters of a
+ * resource outside that part are never looked at. The blocked processes
+ * left over are deadlocked, and a cycle of them is found by following the
+ * unreduced holders of what they wait on.
+ *
+ * The scratch state of a check is kept here, in arrays indexed by the
+ * slot of a process and the index of a resource, rather than on the
+ * processes and resources themselves. Marks are tagged with the number of
+ * the check, so nothing has to be cleared between checks.
+ */
+
+public class DeadlockDetector {
+
+    /**
+     * Resources of the engine, indexed like the resource holdings
+     */
+    private Resource[] resources = new Resource[0];
+
+    /**
+     * Number of the current check and of the current walk to a cycle,
+     * which never wrap around, so a mark left by an earlier check can
+     * never match a later one
+     */
+    private long epoch;
+    private long walk;
+
+    /**
+     * Scratch state of the processes by slot: the check that last reached
+     * and reduced them, the walk that last pushed them and their position
+     * in its path, and the next member waiting on the same resource
+     */
+    private long[] detectMarks = new long[16];
+    private long[] reduceMarks = new long[16];
+    private long[] walkMarks = new long[16];
+    private int[] pathIndexes = new int[16];
+    private Process[] nextWaiting = new Process[16];
+
+    /**
+     * Scratch state of the resources by index: the check that last reached
+     * them, the units the members could have, whether they are queued for
+     * reduction, and the first member waiting on them
+     */
+    private long[] resourceMarks = new long[0];
+    private int[] available = new int[0];
+    private boolean[] queued = new boolean[0];
+    private Process[] firstWaiting = new Process[0];
+
+    /**
+     * Reusable work lists of a check
+     */
+    private ArrayList<Process> members = new ArrayList<Process>();
+    private ArrayList<Resource> reached = new ArrayList<Resource>();
+    private ArrayList<Process> reducible = new ArrayList<Process>();
+    private ArrayDeque<Resource> queue = new ArrayDeque<Resource>();
+    private ArrayList<Process> path = new ArrayList<Process>();
+    private int[] cursors = new int[16];
+    private ArrayList<Process> cycle = new ArrayList<Process>();
+
+    /**
+     * Set the resources of the engine, after every init. The same detector
+     * is kept for the life of the engine, so that marks left in the slots of
+     * earlier processes are always from an earlier check.
+     *
+     * @param resources every resource of the engine, in catalogue order
+     */
+    public void setResources(Resource[] resources) {
+        this.resources = resources;
+        resourceMarks = new long[resources.length];
+        available = new int[resources.length];
+        queued = new boolean[resources.length];
+        firstWaiting = new Process[resources.length];
+    }
+
+    /**
+     * Check whether a process that has just blocked is now deadlocked.
+     * Only the processes and resources reachable from it are visited.
+     *
+     * @param p the blocked process
+     * @return the cycle the process waits on, each process waiting on its
+     * blocked resource held by the next one, or null if there is none.
+     * The list is reused by the next check.
+     */
+    public ArrayList<Process> findCycle(Process p) {
+        epoch++;
+        members.clear();
+        collect(p);
+
+        if (reduce(p)) {
+            return null;
+        }
+
+        int start = walkToCycle(p, ++walk);
+        if (start < 0) {
+            return null;
+        }
+
+        cycle.clear();
+        cycle.addAll(path.subList(start, path.size()));
+        return cycle;
+    }
+
+    /**
+     * Find the cycles of deadlocked processes in the engine, searching
+     * from processes in the given creation order. Every deadlocked
+     * process waits, directly or through others, on one of the cycles
+     * found, and no process is searched from twice.
+     *
+     * @param first the first process in creation order
+     * @return the cycles, each as returned by findCycle
+     */
+    public ArrayList<ArrayList<Process>> findAllCycles(Process first) {
+        epoch++;
+        members.clear();
+        for (Process p = first; p != null; p = p.getOrderNext()) {
+            if (p.getBlockedOn() != null) {
+                collect(p);
+            }
+        }
+
+        ArrayList<ArrayList<Process>> cycles = new ArrayList<ArrayList<Process>>();
+        if (members.isEmpty()) {
+            return cycles;
+        }
+
+        reduce(null);
+
+        /* Walks of this scan are numbered from base, a process seen by an
+           earlier walk leads to a cycle already found or to none at all */
+        long base = walk + 1;
+        for (Process p = first; p != null; p = p.getOrderNext()) {
+            if (!isMember(p) || reduceMarks[p.getSlot()] == epoch
+                || walkMarks[p.getSlot()] >= base) {
+                continue;
+            }
+
+            walk++;
+            int start = walkToCycle(p, base);
+            if (start >= 0) {
+                cycles.add(new ArrayList<Process>(path.subList(start, path.size())));
+            }
+        }
+
+        return cycles;
+    }
+
+    /**
+     * Private method that adds the root and everything reachable from it
+     * to the members of the current check.
+     *
+     * @param root the process to start from
+     */
+    private void collect(Process root) {
+        int i = members.size();
+        mark(root);
+
+        for (; i < members.size(); i++) {
+            Process q = members.get(i);
+            Resource r = q.getBlockedOn();
+            if (r == null) {
+                continue;
+            }
+
+            int index = r.getIndex();
+            if (resourceMarks[index] != epoch) {
+                resourceMarks[index] = epoch;
+                available[index] = r.getFreeUnits();
+                firstWaiting[index] = null;
+                reached.add(r);
+
+                for (int j = 0; j < r.getHolderCount(); j++) {
+                    mark(r.getHolder(j));
+                }
+            }
+
+            /* Only member waiters are looked at, not the whole Block List */
+            nextWaiting[q.getSlot()] = firstWaiting[index];
+            firstWaiting[index] = q;
+        }
+    }
+
+    /**
+     * Private method that reduces the members of the current check,
+     * stopping early once the target is reduced.
+     *
+     * @param target the process to stop at, or null to reduce everything
+     * @return whether the target was reduced
+     */
+    private boolean reduce(Process target) {
+        /* Free units may already fit some waiters */
+        for (int i = 0; i < reached.size(); i++) {
+            queued[reached.get(i).getIndex()] = true;
+            queue.add(reached.get(i));
+        }
+
+        /* Processes that are not blocked can always run to completion */
+        for (int i = 0; i < members.size(); i++) {
+            Process p = members.get(i);
+            if (p.getBlockedOn() == null) {
+                reduceMarks[p.getSlot()] = epoch;
+                reducible.add(p);
+            }
+        }
+
+        boolean isReduced = false;
+        while (!isReduced && (!reducible.isEmpty() || !queue.isEmpty())) {
+            if (!reducible.isEmpty()) {
+                giveBack(reducible.remove(reducible.size() - 1));
+                continue;
+            }
+
+            int index = queue.poll().getIndex();
+            queued[index] = false;
+
+            /* Reduce the waiters that fit, dropping them from the waiting list */
+            Process prev = null;
+            for (Process w = firstWaiting[index]; w != null; w = nextWaiting[w.getSlot()]) {
+                if (w.getBlockedReqUnit() > available[index]) {
+                    prev = w;
+                    continue;
+                }
+
+                if (prev == null) {
+                    firstWaiting[index] = nextWaiting[w.getSlot()];
+                } else {
+                    nextWaiting[prev.getSlot()] = nextWaiting[w.getSlot()];
+                }
+
+                reduceMarks[w.getSlot()] = epoch;
+                reducible.add(w);
+                if (w == target) {
+                    isReduced = true;
+                }
+            }
+        }
+
+        /* Leave the scratch state clean for the next check */
+        for (int i = 0; i < reached.size(); i++) {
+            queued[reached.get(i).getIndex()] = false;
+            firstWaiting[reached.get(i).getIndex()] = null;
+        }
+        reached.clear();
+        reducible.clear();
+        queue.clear();
+
+        return isReduced;
+    }
+
+    /**
+     * Private method that gives back every unit held by a reduced process
+     * to the resources reached by the current check.
+     *
+     * @param p the reduced process
+     */
+    private void giveBack(Process p) {
+        ResourceHoldings holdings = p.getResources();
+        for (int i = 0; i < holdings.size(); i++) {
+            int index = holdings.getResourceAt(i);
+            if (resourceMarks[index] != epoch) {
+                continue;
+            }
+
+            available[index] += holdings.getUnitsAt(i);
+            if (!queued[index]) {
+                queued[index] = true;
+                queue.add(resources[index]);
+            }
+        }
+    }
+
+    /**
+     * Private method that searches depth first along unreduced processes
+     * for a cycle reachable from the given one. The path holds the
+     * processes being searched, and is left holding the cycle and the
+     * processes leading to it once one is found.
+     *
+     * A process can be stuck without being on a cycle when the units it
+     * waits on are no longer held by anyone, so the search backs out of
+     * processes that lead nowhere instead of assuming a cycle ahead.
+     *
+     * @param p    an unreduced process
+     * @param base the first walk number of the current scan, processes
+     *             seen by earlier walks of the scan are not searched again
+     * @return position in the path where the cycle starts, or -1 if none
+     */
+    private int walkToCycle(Process p, long base) {
+        path.clear();
+        push(p);
+
+        while (!path.isEmpty()) {
+            int top = path.size() - 1;
+            Process q = path.get(top);
+            Resource r = q.getBlockedOn();
+
+            /* Next unreduced holder of the resource q waits on, not yet searched */
+            Process next = null;
+            while (next == null && cursors[top] < r.getHolderCount()) {
+                Process h = r.getHolder(cursors[top]++);
+                int slot = h.getSlot();
+                if (h == q || reduceMarks[slot] == epoch) {
+                    continue;
+                }
+
+                if (walkMarks[slot] == walk && pathIndexes[slot] >= 0) {
+                    return pathIndexes[slot];
+                }
+
+                if (walkMarks[slot] < base) {
+                    next = h;
+                }
+            }
+
+            if (next == null) {
+                /* No cycle through q, back out of it */
+                pathIndexes[q.getSlot()] = -1;
+                path.remove(top);
+            } else {
+                push(next);
+            }
+        }
+
+        return -1;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void push(Process p) {
+        if (path.size() == cursors.length) {
+            cursors = Arrays.copyOf(cursors, cursors.length * 2);
+        }
+
+        walkMarks[p.getSlot()] = walk;
+        pathIndexes[p.getSlot()] = path.size();
+        cursors[path.size()] = 0;
+        path.add(p);
+    }
+
+    private void mark(Process p) {
+        int slot = p.getSlot();
+        if (slot >= detectMarks.length) {
+            growSlots(Math.max(slot + 1, detectMarks.length * 2));
+        }
+
+        if (detectMarks[slot] != epoch) {
+            detectMarks[slot] = epoch;
+            members.add(p);
+        }
+    }
+
+    private boolean isMember(Process p) {
+        return p.getSlot() < detectMarks.length && detectMarks[p.getSlot()] == epoch;
+    }
+
+    private void growSlots(int length) {
+        detectMarks = Arrays.copyOf(detectMarks, length);
+        reduceMarks = Arrays.copyOf(reduceMarks, length);
+        walkMarks = Arrays.copyOf(walkMarks, length);
+        pathIndexes = Arrays.copyOf(pathIndexes, length);
+        nextWaiting = Arrays.copyOf(nextWaiting, length);
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Metrics sink that throws away every measurement, used by default so
+ * that the engine runs as if it had no instrumentation at all.
+ */
+
+public class DiscardMetricsSink implements MetricsSink {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public long startTimer() {
+        return 0L;
+    }
+
+    @Override
+    public void stopTimer(Operation operation, long start) {
+    }
+
+    @Override
+    public void contextSwitch(boolean isPreemption) {
+    }
+
+    @Override
+    public void contextSwitches(long count) {
+    }
+
+    @Override
+    public void block() {
+    }
+
+    @Override
+    public void unblock() {
+    }
+
+    @Override
+    public void error(ErrorCause cause) {
+    }
+
+    @Override
+    public void readyDepth(int level, int depth) {
+    }
+
+    @Override
+    public void blockDepth(int index, int depth) {
+    }
+
+    @Override
+    public void printStats(PREngine engine, OutputSink out) {
+    }
+
+    @Override
+    public String toJson(PREngine engine) {
+        return "{}";
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * Output sink that throws away everything printed to it,
+ * used when benchmarking the manager without output costs.
+ */
+
+public class DiscardOutputSink implements OutputSink {
+
+    @Override
+    public void print(String s) {
+    }
+
+    @Override
+    public void print(char c) {
+    }
+
+    @Override
+    public void println(String s) {
+    }
+
+    @Override
+    public void flush() {
+    }
+}
@@ -0,0 +1,277 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flight recorder of the scheduling events of an engine: context
+ * switches, blocks, unblocks, time-outs and destroys. It is always on,
+ * and keeps only the most recent events in a ring buffer allocated up
+ * front, so that the events leading up to a diverging replay can be
+ * looked at afterwards.
+ *
+ * Every event is a single packed long, its type, flags and units, and two
+ * references to the pid and to the other process or resource involved.
+ * Those are the strings the engine already holds, so recording an event
+ * allocates nothing. There is a single writer, the engine. Events are
+ * numbered from 0 and the number of the next one is published with a
+ * lazySet once the event is written. A reader on another thread can
+ * therefore copy the events below the number it reads, and keep only
+ * those whose slot the writer had not started to reuse once it was done
+ * copying them, which printLast and writeTo both do. As the writer may be
+ * reusing the slot of the oldest event at any time, readers see at most
+ * one event fewer than the capacity.
+ *
+ * The binary export written by writeTo is the MAGIC bytes and VERSION
+ * byte, the number of events as an int, then for each event its number
+ * as a long, its type and flags as bytes, its units as an int, and its
+ * two names written with writeUTF, empty if there is none.
+ */
+
+public class EventRecorder {
+
+    public static final byte[] MAGIC = {'P', 'R', 'E', 'V'};
+    public static final int VERSION = 1;
+
+    /**
+     * Default number of events kept
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    /**
+     * Types of events, with the names they are printed with
+     */
+    public static final int SWITCH = 1;      // pid dispatched, previous pid
+    public static final int BLOCK = 2;       // pid, rid, units requested
+    public static final int UNBLOCK = 3;     // pid, rid, units granted
+    public static final int TIME_OUT = 4;    // pid
+    public static final int DESTROY = 5;     // pid
+    private static final String[] TYPE_NAMES = {"", "switch", "block", "unblock", "timeout",
+        "destroy"};
+
+    /**
+     * Flag of a switch that preempted the running process
+     */
+    public static final int PREEMPTED = 1;
+
+    /**
+     * Packed events, type in the low byte, flags in the next, units in the
+     * high int, and the two names of each event, indexed by the number of
+     * the event modulo the capacity
+     */
+    private final long[] events;
+    private final String[] names;
+    private final int mask;
+
+    /**
+     * Number of the next event, as published to readers and as known to
+     * the writer
+     */
+    private final AtomicLong published = new AtomicLong();
+    private long next;
+
+    /**
+     * Constructor that creates a recorder keeping the default number
+     * of events.
+     */
+    public EventRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor that creates a recorder keeping at least the given
+     * number of most recent events.
+     *
+     * @param capacity the number of events kept, rounded up to a power of two
+     */
+    public EventRecorder(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("invalid number of events: " + capacity);
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        events = new long[size];
+        names = new String[size * 2];
+        mask = size - 1;
+    }
+
+    /**
+     * Record a context switch.
+     *
+     * @param p            the process dispatched
+     * @param previous     the process that was running, or null if none
+     * @param isPreemption whether the previous process was preempted
+     */
+    public void contextSwitch(Process p, Process previous, boolean isPreemption) {
+        record(SWITCH, isPreemption ? PREEMPTED : 0, 0, p.getPid(),
+            previous == null ? null : previous.getPid());
+    }
+
+    /**
+     * Record a process blocking on a resource.
+     *
+     * @param p        the process
+     * @param resource the resource it waits on
+     * @param unit     the number of requested units
+     */
+    public void block(Process p, Resource resource, int unit) {
+        record(BLOCK, 0, unit, p.getPid(), resource.getRid());
+    }
+
+    /**
+     * Record a blocked process being granted its request.
+     *
+     * @param p        the process
+     * @param resource the resource it waited on
+     * @param unit     the number of granted units
+     */
+    public void unblock(Process p, Resource resource, int unit) {
+        record(UNBLOCK, 0, unit, p.getPid(), resource.getRid());
+    }
+
+    /**
+     * Record the running process being timed out.
+     *
+     * @param p the process
+     */
+    public void timeOut(Process p) {
+        record(TIME_OUT, 0, 0, p.getPid(), null);
+    }
+
+    /**
+     * Record a process being destroyed.
+     *
+     * @param p the process
+     */
+    public void destroy(Process p) {
+        record(DESTROY, 0, 0, p.getPid(), null);
+    }
+
+    /**
+     * Print the most recent events, oldest first, one per line as its
+     * number, type and the names and units that apply, e.g.
+     *
+     * 41 switch y x preempted
+     * 42 block y R2 1
+     *
+     * @param count the number of events to print, at most all that are kept
+     * @param out   the sink to print to
+     */
+    public void printLast(int count, OutputSink out) {
+        long end = published.get();
+        long start = Math.max(0L, end - Math.min(count, events.length));
+
+        StringBuilder line = new StringBuilder();
+        for (long seq = start; seq < end; seq++) {
+            int index = (int) seq & mask;
+            long event = events[index];
+            String pid = names[2 * index];
+            String other = names[2 * index + 1];
+
+            /* Overwritten, or being overwritten, by the writer while being read */
+            if (published.get() - events.length >= seq) {
+                continue;
+            }
+
+            line.setLength(0);
+            line.append(seq).append(' ').append(TYPE_NAMES[typeOf(event)]).append(' ').append(pid);
+            switch (typeOf(event)) {
+                case SWITCH:
+                    line.append(' ').append(other == null ? "-" : other);
+                    if ((flagsOf(event) & PREEMPTED) != 0) {
+                        line.append(" preempted");
+                    }
+                    break;
+
+                case BLOCK:
+                case UNBLOCK:
+                    line.append(' ').append(other).append(' ').append(unitsOf(event));
+                    break;
+
+                default:
+                    break;
+            }
+            out.println(line.toString());
+        }
+    }
+
+    /**
+     * Write every event kept in the binary export format, oldest first.
+     * The events are copied first, and those the writer overwrote while
+     * they were being copied are left out. The stream is not closed.
+     *
+     * @param stream the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public void writeTo(OutputStream stream) throws IOException {
+        long end = published.get();
+        long start = Math.max(0L, end - events.length);
+
+        int count = (int) (end - start);
+        long[] copied = new long[count];
+        String[] copiedNames = new String[2 * count];
+        for (int i = 0; i < count; i++) {
+            int index = (int) (start + i) & mask;
+            copied[i] = events[index];
+            copiedNames[2 * i] = names[2 * index];
+            copiedNames[2 * i + 1] = names[2 * index + 1];
+        }
+
+        /* Every event up to the one being written now may have reused a slot */
+        long first = Math.max(start, published.get() - events.length + 1);
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt((int) Math.max(0L, end - first));
+
+        for (long seq = first; seq < end; seq++) {
+            int i = (int) (seq - start);
+            long event = copied[i];
+
+            out.writeLong(seq);
+            out.writeByte(typeOf(event));
+            out.writeByte(flagsOf(event));
+            out.writeInt(unitsOf(event));
+            out.writeUTF(copiedNames[2 * i] == null ? "" : copiedNames[2 * i]);
+            out.writeUTF(copiedNames[2 * i + 1] == null ? "" : copiedNames[2 * i + 1]);
+        }
+        out.flush();
+    }
+
+    /* Getters Methods */
+
+    public int getCapacity() {
+        return events.length;
+    }
+
+    public long getCount() {
+        return published.get();
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void record(int type, int flags, int units, String pid, String other) {
+        int index = (int) next & mask;
+        events[index] = type | flags << 8 | (long) units << 32;
+        names[2 * index] = pid;
+        names[2 * index + 1] = other;
+        published.lazySet(++next);
+    }
+
+    private static int typeOf(long event) {
+        return (int) event & 0xFF;
+    }
+
+    private static int flagsOf(long event) {
+        return (int) (event >>> 8) & 0xFF;
+    }
+
+    private static int unitsOf(long event) {
+        return (int) (event >>> 32);
+    }
+}
@@ -0,0 +1,128 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reader that pulls raw bytes from an input stream in large chunks, splits
+ * them into lines in place and hands every line to a CommandParser.
+ * Used by the driver instead of Scanner when started with --fast.
+ */
+
+public class FastCommandReader {
+
+    /**
+     * Default number of bytes read from the stream at a time
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private InputStream in;
+    private CommandParser parser;
+
+    /**
+     * Buffer holding the bytes read and the region not yet parsed
+     */
+    private byte[] buffer;
+    private int start;
+    private int end;
+
+    /**
+     * Constructor that reads with the default chunk size.
+     *
+     * @param in     the stream to read commands from
+     * @param engine the engine that commands are executed on
+     */
+    public FastCommandReader(InputStream in, CommandTarget engine) {
+        this(in, engine, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor that reads with the given chunk size, initialising the
+     * engine with the default number of priority levels.
+     *
+     * @param in        the stream to read commands from
+     * @param engine    the engine that commands are executed on
+     * @param chunkSize the number of bytes read from the stream at a time
+     */
+    public FastCommandReader(InputStream in, CommandTarget engine, int chunkSize) {
+        this(in, engine, chunkSize, Process.NUM_PRIORITY);
+    }
+
+    /**
+     * Constructor that reads with the given chunk size and number of
+     * priority levels.
+     *
+     * @param in          the stream to read commands from
+     * @param engine      the engine that commands are executed on
+     * @param chunkSize   the number of bytes read from the stream at a time
+     * @param numPriority the number of priority levels used on every init
+     */
+    public FastCommandReader(InputStream in, CommandTarget engine, int chunkSize,
+        int numPriority) {
+        this.in = in;
+        this.parser = new CommandParser(engine, numPriority);
+        this.buffer = new byte[chunkSize];
+        this.start = 0;
+        this.end = 0;
+    }
+
+    /**
+     * Read the entire stream and execute every line on the engine.
+     */
+    public void replay() {
+        ByteBuffer view = ByteBuffer.wrap(buffer);
+        int scanned = start;
+
+        while (true) {
+            /* Execute every complete line in the buffer */
+            for (int i = scanned; i < end; i++) {
+                byte b = buffer[i];
+                if (b == '\n' || b == '\r') {
+                    parser.executeLine(view, start, i);
+                    start = i + 1;
+                }
+            }
+
+            /* Keep the incomplete last line and read more after it */
+            compact();
+
+            /* Grow the buffer if a single line does not fit */
+            if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                view = ByteBuffer.wrap(buffer);
+            }
+
+            int read = read();
+            if (read < 0) {
+                break;
+            }
+
+            scanned = end;
+            end += read;
+        }
+
+        /* Last line of input without a line separator */
+        if (start < end) {
+            parser.executeLine(view, start, end);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void compact() {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+        }
+    }
+
+    private int read() {
+        try {
+            return in.read(buffer, end, buffer.length - end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
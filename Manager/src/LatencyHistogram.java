@@ -0,0 +1,110 @@
+/**
+ * Histogram of latencies in nanoseconds with a fixed memory footprint.
+ * Every power of two is split into SUB_BUCKETS buckets of equal width, so
+ * a value is only ever reported up to 1 / SUB_BUCKETS above what was
+ * recorded, whatever its magnitude. Recording is a couple of bit
+ * operations and an array increment.
+ */
+
+public class LatencyHistogram {
+
+    /**
+     * Number of buckets each power of two is split into, and its log
+     */
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Enough buckets for every non-negative long
+     */
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    private long[] counts = new long[NUM_BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Record a single latency. Negative values, from a clock going
+     * backwards, are recorded as 0.
+     *
+     * @param value the latency in nanoseconds
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the recorded
+     * latencies fall, rounded up to the end of its bucket.
+     *
+     * @param quantile the fraction, between 0 and 1
+     * @return the latency in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAt(double quantile) {
+        if (count == 0) {
+            return 0L;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                /* The last bucket ends at the largest long */
+                long end = i + 1 < NUM_BUCKETS ? lowestOf(i + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(end, max);
+            }
+        }
+        return max;
+    }
+
+    /* Getters Methods */
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0L : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMean() {
+        return count == 0 ? 0L : sum / count;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long lowestOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+
+        int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    }
+}
@@ -1,4 +1,17 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Test Driver for Simplified Process & Resource Manager
@@ -11,8 +24,8 @@ public class Main {
     /**
      * List of possible commands executed by user
      */
-    private enum CommandType {
-        INIT, CREATE, DELETE, REQUEST, RELEASE, TIME_OUT, ALL_PROCESS, ALL_RESOURCE, GET_PROCESS, GET_RESOURCE, INVALID
+    enum CommandType {
+        INIT, CREATE, DELETE, REQUEST, RELEASE, TIME_OUT, TICK, ALL_PROCESS, ALL_RESOURCE, GET_PROCESS, GET_RESOURCE, DEADLOCK, STATS, EVENTS, ACCOUNTING, SAVE, LOAD, INVALID
     }
 
 
@@ -20,22 +33,386 @@ public class Main {
 
     private static Scanner scanner = new Scanner(System.in);
 
+    /**
+     * Number of priority levels used on every init (--levels <n>)
+     */
+    private static int numPriority = Process.NUM_PRIORITY;
+
+    /**
+     * Resources created on every init (--resources <file or spec>)
+     */
+    private static ResourceCatalogue catalogue = ResourceCatalogue.STANDARD;
+
+    /**
+     * Whether test sequences are replayed in parallel (--parallel)
+     */
+    private static boolean isParallel = false;
+
+    /**
+     * Wake-up policy of resources without one in the catalogue (--wakeup <policy>)
+     * and bypass limit of BEST_FIT resources (--max-bypass <n>)
+     */
+    private static WakeUpPolicy defaultPolicy = WakeUpPolicy.FIFO;
+    private static int maxBypass = PREngine.DEFAULT_MAX_BYPASS;
+
+    /**
+     * Number of ticks a dispatched process runs before tick times it
+     * out (--quantum <n>)
+     */
+    private static int quantum = PREngine.DEFAULT_QUANTUM;
+
+    /**
+     * Whether every blocking request is checked for a deadlock (--deadlock)
+     */
+    private static boolean isDeadlockChecked = false;
+
+    /**
+     * Whether requests are only granted if the system stays safe, with
+     * claims declared on create (--avoidance)
+     */
+    private static boolean isAvoiding = false;
+
+    /**
+     * Whether kernel calls are measured (--metrics), and the file the
+     * measurements are written to as JSON at the end of the run
+     * (--metrics-dump <file>, implies --metrics)
+     */
+    private static boolean isMetricsRecorded = false;
+    private static String metricsFile = null;
+
+    /**
+     * Number of most recent scheduling events kept (--events <n>), and the
+     * file they are exported to at the end of the run (--events-dump <file>)
+     */
+    private static int eventCapacity = EventRecorder.DEFAULT_CAPACITY;
+    private static String eventFile = null;
+
+    /**
+     * Whether all output is discarded, e.g. for benchmarking (--no-output)
+     */
+    private static boolean isOutputDiscarded = false;
+
+    /**
+     * Whether input is parsed from raw bytes instead of Scanner (--fast)
+     */
+    private static boolean isFastInput = false;
+
+    /**
+     * Trace file that is memory-mapped instead of reading stdin (--mmap <file>)
+     */
+    private static String mappedFile = null;
+
+    /**
+     * Binary trace that is replayed instead of reading stdin (--replay <file>)
+     */
+    private static String traceFile = null;
+
+    /**
+     * Checkpoint the manager starts from instead of init (--restore <file>)
+     */
+    private static String checkpointFile = null;
+
+    /**
+     * Journal every kernel call is written to, and replayed from on
+     * start-up (--journal <file>), with the number of records per commit
+     * (--journal-batch <n>) and the longest a record waits for a commit
+     * (--journal-window <ms>)
+     */
+    private static String journalFile = null;
+    private static int journalBatch = CommandJournal.DEFAULT_BATCH_SIZE;
+    private static int journalWindow = CommandJournal.DEFAULT_WINDOW_MILLIS;
+
     public static void main(String[] args) {
-        /* Initialise the PRManager */
-        PRManager.init();
+        /* Read options given on the command line */
+        if (!parseOptions(args)) {
+            return;
+        }
+
+        PREngine engine = PRManager.getEngine();
+        engine.setMaxBypass(maxBypass);
+        engine.setQuantum(quantum);
+        engine.setDeadlockChecked(isDeadlockChecked);
+        engine.setAvoiding(isAvoiding);
+        engine.setMetrics(isMetricsRecorded ? new RecordingMetricsSink() : new DiscardMetricsSink());
+        engine.setEventRecorder(new EventRecorder(eventCapacity));
+        if (isOutputDiscarded) {
+            engine.setOutput(new DiscardOutputSink());
+        }
+
+        CommandTarget target = engine;
+        CommandJournal journal = null;
+        try {
+            if (isParallel) {
+                replayParallel(engine.getOutput());
+                return;
+            }
+
+            /* Initialise the PRManager */
+            if (checkpointFile != null) {
+                if (!restoreCheckpoint(engine)) {
+                    return;
+                }
+            } else {
+                PRManager.init(numPriority, catalogue);
+            }
+
+            /* Rebuild the state from the journal, then journal every call */
+            if (journalFile != null) {
+                journal = openJournal(engine);
+                if (journal == null) {
+                    return;
+                }
+                target = journal;
+            }
+
+            /* Read entire input file */
+            if (traceFile != null) {
+                replayTrace(target);
+                return;
+            }
+
+            if (mappedFile != null) {
+                new MappedCommandReader(Paths.get(mappedFile), target,
+                    MappedCommandReader.DEFAULT_WINDOW_SIZE, numPriority).replay();
+                return;
+            }
+
+            if (isFastInput) {
+                new FastCommandReader(System.in, target, FastCommandReader.DEFAULT_CHUNK_SIZE,
+                    numPriority).replay();
+                return;
+            }
+
+            while (scanner.hasNextLine()) {
+                handleUserCommand(target, promptInput());
+            }
+        } finally {
+            closeJournal(journal);
+            engine.getOutput().flush();
+            writeMetrics(engine);
+            writeEvents(engine);
+        }
+    }
+
+    /**
+     * Write the measurements of the engine as JSON to the file given by
+     * --metrics-dump, if any.
+     *
+     * @param engine the engine the measurements were taken on
+     */
+    private static void writeMetrics(PREngine engine) {
+        if (metricsFile == null) {
+            return;
+        }
+
+        try {
+            String metrics = engine.getMetrics().toJson(engine);
+            byte[] json = (metrics + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+            Files.write(Paths.get(metricsFile), json);
+        } catch (IOException e) {
+            System.err.println("cannot write " + metricsFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restore the engine from the checkpoint given by --restore.
+     *
+     * @param engine the engine to restore
+     * @return whether the checkpoint was restored
+     */
+    private static boolean restoreCheckpoint(PREngine engine) {
+        try (InputStream in = new FileInputStream(checkpointFile)) {
+            engine.readCheckpoint(in);
+            return true;
+        } catch (IOException e) {
+            System.err.println("cannot read " + checkpointFile + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println(checkpointFile + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Open the journal given by --journal and replay it on the engine,
+     * without printing or measuring anything.
+     *
+     * @param engine the engine to replay the journal on
+     * @return the journal, or null if it cannot be opened
+     */
+    private static CommandJournal openJournal(PREngine engine) {
+        OutputSink out = engine.getOutput();
+        MetricsSink metrics = engine.getMetrics();
+        engine.setOutput(new DiscardOutputSink());
+        engine.setMetrics(new DiscardMetricsSink());
+
+        try {
+            return CommandJournal.open(Paths.get(journalFile), engine, journalBatch, journalWindow);
+        } catch (IOException e) {
+            System.err.println("cannot open journal " + journalFile + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println(journalFile + ": " + e.getMessage());
+        } finally {
+            engine.setOutput(out);
+            engine.setMetrics(metrics);
+        }
+        return null;
+    }
+
+    /**
+     * Commit and close the journal, if any.
+     *
+     * @param journal the journal, or null
+     */
+    private static void closeJournal(CommandJournal journal) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            journal.close();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("cannot write journal " + journalFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Export the scheduling events kept by the engine to the file given
+     * by --events-dump, if any.
+     *
+     * @param engine the engine the events were recorded on
+     */
+    private static void writeEvents(PREngine engine) {
+        if (eventFile == null) {
+            return;
+        }
+
+        try (OutputStream out = Files.newOutputStream(Paths.get(eventFile))) {
+            engine.getEventRecorder().writeTo(out);
+        } catch (IOException e) {
+            System.err.println("cannot write " + eventFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replay the binary trace given by --replay, compiled by TraceCompiler,
+     * on the engine.
+     *
+     * @param engine the engine to execute the trace on
+     */
+    private static void replayTrace(CommandTarget engine) {
+        try (InputStream in = new FileInputStream(traceFile)) {
+            new TraceReplayer(in, engine).replay();
+        } catch (IOException e) {
+            System.err.println("cannot read " + traceFile + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println(traceFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the entire input, split it into independent test sequences at
+     * every init command and replay each sequence on its own engine in a
+     * fork-join pool. Output of each sequence is written in input order,
+     * so it is identical to a sequential replay.
+     *
+     * @param out the sink to write the output of all sequences to
+     */
+    private static void replayParallel(OutputSink out) {
+        List<ForkJoinTask<String>> tasks = new ArrayList<ForkJoinTask<String>>();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        /* The first sequence runs on the engine initialised at start-up */
+        List<String> sequence = new ArrayList<String>();
+        boolean isFirst = true;
 
-        /* Read entire input file */
         while (scanner.hasNextLine()) {
-            handleUserCommand();
+            String userInput = promptInput();
+
+            /* A new test sequence starts at every init command */
+            if (!userInput.trim().equals("") && getCommandType(userInput) == CommandType.INIT) {
+                tasks.add(pool.submit(createReplayTask(sequence, isFirst)));
+                sequence = new ArrayList<String>();
+                isFirst = false;
+            }
+
+            sequence.add(userInput);
+        }
+
+        tasks.add(pool.submit(createReplayTask(sequence, isFirst)));
+
+        /* Stitch the output back together in the original order */
+        for (ForkJoinTask<String> task : tasks) {
+            out.print(task.join());
         }
     }
 
     /**
-     * Handle user input and call the correct command to PRManager
+     * Create a task that replays a single test sequence on a new engine
+     * and returns everything the engine printed.
+     *
+     * @param sequence  the lines of the test sequence
+     * @param isStartUp whether the engine is initialised as done at start-up
+     * @return task that returns the output of the sequence
      */
-    private static void handleUserCommand() {
-        String userInput = promptInput();
+    private static ForkJoinTask<String> createReplayTask(final List<String> sequence,
+        final boolean isStartUp) {
+        return ForkJoinTask.adapt(new Callable<String>() {
+            @Override
+            public String call() {
+                CaptureOutputSink out = new CaptureOutputSink();
+                CommandTarget engine = createEngine(out);
+
+                if (isStartUp) {
+                    engine.init(numPriority);
+                }
+
+                for (String userInput : sequence) {
+                    handleUserCommand(engine, userInput);
+                }
 
+                return out.toString();
+            }
+        });
+    }
+
+    /**
+     * Create a new engine with the resource catalogue given on the
+     * command line.
+     * The engine must be initialised with init before use.
+     *
+     * @param out the sink to write all output to
+     * @return the new engine
+     */
+    private static CommandTarget createEngine(OutputSink out) {
+        PREngine engine = new PREngine(out);
+        engine.setCatalogue(catalogue);
+        engine.setMaxBypass(maxBypass);
+        engine.setQuantum(quantum);
+        engine.setDeadlockChecked(isDeadlockChecked);
+        engine.setAvoiding(isAvoiding);
+        engine.setEventRecorder(new EventRecorder(eventCapacity));
+        return engine;
+    }
+
+    /**
+     * Handle user input and call the correct command to the engine
+     *
+     * @param engine    the engine to execute the command on
+     * @param userInput the line of input from the user
+     */
+    static void handleUserCommand(CommandTarget engine, String userInput) {
+        handleUserCommand(engine, userInput, numPriority);
+    }
+
+    /**
+     * Handle user input and call the correct command to the engine,
+     * with the given number of priority levels used on init.
+     *
+     * @param engine      the engine to execute the command on
+     * @param userInput   the line of input from the user
+     * @param numPriority the number of priority levels used on init
+     */
+    static void handleUserCommand(CommandTarget engine, String userInput, int numPriority) {
         /* if input contains empty line, ignore and return to parent */
         if (userInput.trim().equals("")) {
             return;
@@ -44,76 +421,153 @@ public class Main {
         CommandType commandType = getCommandType(userInput);
         String[] arguments = splitArguments(removeFirstWord(userInput));
 
-        /* Based on user's command, execute correct method in PRManager */
+        /* Anything after the priority of a create is its claims */
+        String claims = null;
+        if (commandType == CommandType.CREATE && arguments.length == 2) {
+            String[] split = arguments[1].split("\\s+", 2);
+            if (split.length == 2) {
+                arguments[1] = split[0];
+                claims = split[1];
+            }
+        }
+
+        int unit = arguments.length == 2 ? stringToInt(arguments[1]) : INVALID_NUM;
+
+        executeCommand(engine, numPriority, commandType, arguments.length, arguments[0], unit,
+            claims);
+    }
+
+    /**
+     * Execute a parsed command on the engine. Only the first argument is
+     * kept as text, the second argument is always a number of units or a
+     * priority and is passed already converted.
+     *
+     * @param engine      the engine to execute the command on
+     * @param numPriority the number of priority levels used on init
+     * @param commandType the command given by the user
+     * @param argCount    the number of arguments given (1 or 2)
+     * @param argument    the first argument, empty if none given
+     * @param unit        the second argument as number, INVALID_NUM if not a number
+     * @param claims      the rest of the line after the priority of a create, null if none
+     */
+    static void executeCommand(CommandTarget engine, int numPriority, CommandType commandType,
+        int argCount, String argument, int unit, String claims) {
+        /* Based on user's command, execute correct method in the engine */
         switch (commandType) {
             case INIT:
                  /* create new line for new test sequence */
-                System.out.print("\r\n\r\n");
-                PRManager.init();
+                engine.printSequenceSeparator();
+                engine.init(numPriority);
                 break;
 
             case CREATE:
-                if (arguments.length != 2) {
-                    showError();
+                if (argCount != 2) {
+                    engine.showError();
+                } else if (claims != null) {
+                    engine.createProcess(argument, unit, claims);
                 } else {
-                    PRManager.createProcess(arguments[0], stringToInt(arguments[1]));
+                    engine.createProcess(argument, unit);
                 }
                 break;
 
             case DELETE:
-                if (arguments.length != 1) {
-                    showError();
+                if (argCount != 1) {
+                    engine.showError();
                 } else {
-                    PRManager.destroyProcess(arguments[0]);
+                    engine.destroyProcess(argument);
                 }
                 break;
 
             case REQUEST:
-                if (arguments.length != 2) {
-                    showError();
+                if (argCount != 2) {
+                    engine.showError();
                 } else {
-                    PRManager.requestResources(arguments[0], stringToInt(arguments[1]));
+                    engine.requestResources(argument, unit);
                 }
                 break;
 
             case RELEASE:
-                if (arguments.length != 2) {
-                    showError();
+                if (argCount != 2) {
+                    engine.showError();
                 } else {
-                    PRManager.releaseResources(arguments[0], stringToInt(arguments[1]));
+                    engine.releaseResources(argument, unit);
                 }
                 break;
 
             case TIME_OUT:
-                PRManager.timeOut();
+                engine.timeOut();
+                break;
+
+            case TICK:
+                if (argCount != 1) {
+                    engine.showError();
+                } else {
+                    engine.tick(stringToInt(argument));
+                }
                 break;
 
             case ALL_PROCESS:
-                PRManager.printAllProcess();
+                engine.printAllProcess();
                 break;
 
             case ALL_RESOURCE:
-                PRManager.printAllResource();
+                engine.printAllResource();
                 break;
 
             case GET_PROCESS:
-                if (arguments.length != 1) {
-                    showError();
+                if (argCount != 1) {
+                    engine.showError();
                 } else {
-                    PRManager.printProcess(arguments[0]);
+                    engine.printProcess(argument);
                 }
                 break;
 
             case GET_RESOURCE:
-                if (arguments.length != 1) {
-                    showError();
+                if (argCount != 1) {
+                    engine.showError();
+                } else {
+                    engine.printResource(argument);
+                }
+                break;
+
+            case DEADLOCK:
+                engine.printDeadlock();
+                break;
+
+            case STATS:
+                engine.printStats();
+                break;
+
+            case ACCOUNTING:
+                engine.printAccounting();
+                break;
+
+            case SAVE:
+                if (argCount != 1 || argument.isEmpty()) {
+                    engine.showError();
                 } else {
-                    PRManager.printResource(arguments[0]);
+                    engine.saveCheckpoint(argument);
+                }
+                break;
+
+            case LOAD:
+                if (argCount != 1 || argument.isEmpty()) {
+                    engine.showError();
+                } else {
+                    engine.loadCheckpoint(argument);
+                }
+                break;
+
+            case EVENTS:
+                if (argCount != 1) {
+                    engine.showError();
+                } else {
+                    engine.printEvents(stringToInt(argument));
                 }
                 break;
 
             case INVALID:
-                showError();
+                engine.showError();
                 break;
 
             default:
@@ -121,6 +575,174 @@ public class Main {
         }
     }
 
+    /**
+     * Method to read the options given to the driver. Unknown
+     * options are ignored.
+     *
+     * @param args the command line arguments
+     * @return whether all recognised options are valid
+     */
+    private static boolean parseOptions(String[] args) {
+        /* Reset options left over from an earlier run in the same JVM */
+        numPriority = Process.NUM_PRIORITY;
+        catalogue = ResourceCatalogue.STANDARD;
+        defaultPolicy = WakeUpPolicy.FIFO;
+        maxBypass = PREngine.DEFAULT_MAX_BYPASS;
+        quantum = PREngine.DEFAULT_QUANTUM;
+        isParallel = false;
+        isDeadlockChecked = false;
+        isAvoiding = false;
+        isMetricsRecorded = false;
+        metricsFile = null;
+        eventCapacity = EventRecorder.DEFAULT_CAPACITY;
+        eventFile = null;
+        isOutputDiscarded = false;
+        isFastInput = false;
+        mappedFile = null;
+        traceFile = null;
+        checkpointFile = null;
+        journalFile = null;
+        journalBatch = CommandJournal.DEFAULT_BATCH_SIZE;
+        journalWindow = CommandJournal.DEFAULT_WINDOW_MILLIS;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase("--levels") && i + 1 < args.length) {
+                numPriority = stringToInt(args[++i]);
+                if (numPriority <= Process.INIT || numPriority > ReadyQueue.MAX_LEVELS) {
+                    System.err.println("--levels must be between 1 and " + ReadyQueue.MAX_LEVELS);
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--resources") && i + 1 < args.length) {
+                catalogue = readCatalogue(args[++i]);
+                if (catalogue == null) {
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--wakeup") && i + 1 < args.length) {
+                try {
+                    defaultPolicy = WakeUpPolicy.parse(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("--wakeup " + e.getMessage());
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--max-bypass") && i + 1 < args.length) {
+                maxBypass = stringToInt(args[++i]);
+                if (maxBypass < 0) {
+                    System.err.println("--max-bypass must be at least 0");
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--quantum") && i + 1 < args.length) {
+                quantum = stringToInt(args[++i]);
+                if (quantum <= 0) {
+                    System.err.println("--quantum must be at least 1");
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--parallel")) {
+                isParallel = true;
+            } else if (args[i].equalsIgnoreCase("--deadlock")) {
+                isDeadlockChecked = true;
+            } else if (args[i].equalsIgnoreCase("--avoidance")) {
+                isAvoiding = true;
+            } else if (args[i].equalsIgnoreCase("--metrics")) {
+                isMetricsRecorded = true;
+            } else if (args[i].equalsIgnoreCase("--metrics-dump") && i + 1 < args.length) {
+                isMetricsRecorded = true;
+                metricsFile = args[++i];
+            } else if (args[i].equalsIgnoreCase("--events") && i + 1 < args.length) {
+                eventCapacity = stringToInt(args[++i]);
+                if (eventCapacity <= 0 || eventCapacity > 1 << 30) {
+                    System.err.println("--events must be between 1 and " + (1 << 30));
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--events-dump") && i + 1 < args.length) {
+                eventFile = args[++i];
+            } else if (args[i].equalsIgnoreCase("--no-output")) {
+                isOutputDiscarded = true;
+            } else if (args[i].equalsIgnoreCase("--fast")) {
+                isFastInput = true;
+            } else if (args[i].equalsIgnoreCase("--replay") && i + 1 < args.length) {
+                traceFile = args[++i];
+                if (!Files.isReadable(Paths.get(traceFile))) {
+                    System.err.println("--replay cannot read " + traceFile);
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--restore") && i + 1 < args.length) {
+                checkpointFile = args[++i];
+                if (!Files.isReadable(Paths.get(checkpointFile))) {
+                    System.err.println("--restore cannot read " + checkpointFile);
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--journal") && i + 1 < args.length) {
+                journalFile = args[++i];
+            } else if (args[i].equalsIgnoreCase("--journal-batch") && i + 1 < args.length) {
+                journalBatch = stringToInt(args[++i]);
+                if (journalBatch <= 0) {
+                    System.err.println("--journal-batch must be at least 1");
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--journal-window") && i + 1 < args.length) {
+                journalWindow = stringToInt(args[++i]);
+                if (journalWindow <= 0) {
+                    System.err.println("--journal-window must be at least 1");
+                    return false;
+                }
+            } else if (args[i].equalsIgnoreCase("--mmap") && i + 1 < args.length) {
+                mappedFile = args[++i];
+                if (!Files.isReadable(Paths.get(mappedFile))) {
+                    System.err.println("--mmap cannot read " + mappedFile);
+                    return false;
+                }
+            }
+        }
+
+        /* Resources without a policy of their own use the --wakeup policy */
+        catalogue = catalogue.withDefaultPolicy(defaultPolicy);
+        if (mappedFile != null && isParallel) {
+            System.err.println("--mmap is not supported with --parallel");
+            return false;
+        }
+        if (traceFile != null && isParallel) {
+            System.err.println("--replay is not supported with --parallel");
+            return false;
+        }
+        if (isMetricsRecorded && isParallel) {
+            System.err.println("--metrics is not supported with --parallel");
+            return false;
+        }
+        if (checkpointFile != null && isParallel) {
+            System.err.println("--restore is not supported with --parallel");
+            return false;
+        }
+        if (journalFile != null && isParallel) {
+            System.err.println("--journal is not supported with --parallel");
+            return false;
+        }
+        if (eventFile != null && isParallel) {
+            System.err.println("--events-dump is not supported with --parallel");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the resource catalogue given by --resources, either a
+     * catalogue file or a spec such as R1:1,R2:2.
+     *
+     * @param value the file or spec given on the command line
+     * @return the catalogue, or null if it is not valid
+     */
+    private static ResourceCatalogue readCatalogue(String value) {
+        try {
+            return ResourceCatalogue.read(value);
+        } catch (IOException e) {
+            System.err.println("--resources cannot read " + value + ": " + e.getMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            System.err.println("--resources " + value + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Method to return input from user
      *
@@ -151,6 +773,8 @@ public class Main {
             return CommandType.RELEASE;
         } else if (command.equalsIgnoreCase("to")) {
             return CommandType.TIME_OUT;
+        } else if (command.equalsIgnoreCase("tick")) {
+            return CommandType.TICK;
         } else if (command.equalsIgnoreCase("allp")) {
             return CommandType.ALL_PROCESS;
         } else if (command.equalsIgnoreCase("allr")) {
@@ -159,6 +783,18 @@ public class Main {
             return CommandType.GET_PROCESS;
         } else if (command.equalsIgnoreCase("getr")) {
             return CommandType.GET_RESOURCE;
+        } else if (command.equalsIgnoreCase("dl")) {
+            return CommandType.DEADLOCK;
+        } else if (command.equalsIgnoreCase("stats")) {
+            return CommandType.STATS;
+        } else if (command.equalsIgnoreCase("events")) {
+            return CommandType.EVENTS;
+        } else if (command.equalsIgnoreCase("acct")) {
+            return CommandType.ACCOUNTING;
+        } else if (command.equalsIgnoreCase("save")) {
+            return CommandType.SAVE;
+        } else if (command.equalsIgnoreCase("load")) {
+            return CommandType.LOAD;
         } else {
             return CommandType.INVALID;
         }
@@ -183,15 +819,11 @@ public class Main {
         return userInput.trim().split("\\s+", 2);
     }
 
-    private static int stringToInt(String s) {
+    static int stringToInt(String s) {
         try {
             return Integer.parseInt(s);
         } catch (NumberFormatException e) {
             return INVALID_NUM;
         }
     }
-
-    private static void showError() {
-        System.out.print("error ");
-    }
 }
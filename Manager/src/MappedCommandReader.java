@@ -0,0 +1,115 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader that maps a trace file into memory one window at a time and
+ * hands every line to a CommandParser straight out of the mapped buffer.
+ * A line that straddles the end of a window is parsed again from the
+ * start of the next window, which is mapped from the beginning of that
+ * line. Used by the driver when started with --mmap.
+ */
+
+public class MappedCommandReader {
+
+    /**
+     * Default number of bytes mapped at a time
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    private Path file;
+    private CommandParser parser;
+    private int windowSize;
+
+    /**
+     * Constructor that maps the file with the default window size.
+     *
+     * @param file   the trace file to read commands from
+     * @param engine the engine that commands are executed on
+     */
+    public MappedCommandReader(Path file, CommandTarget engine) {
+        this(file, engine, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructor that maps the file with the given window size,
+     * initialising the engine with the default number of priority levels.
+     *
+     * @param file       the trace file to read commands from
+     * @param engine     the engine that commands are executed on
+     * @param windowSize the number of bytes mapped at a time
+     */
+    public MappedCommandReader(Path file, CommandTarget engine, int windowSize) {
+        this(file, engine, windowSize, Process.NUM_PRIORITY);
+    }
+
+    /**
+     * Constructor that maps the file with the given window size and
+     * number of priority levels.
+     *
+     * @param file        the trace file to read commands from
+     * @param engine      the engine that commands are executed on
+     * @param windowSize  the number of bytes mapped at a time
+     * @param numPriority the number of priority levels used on every init
+     */
+    public MappedCommandReader(Path file, CommandTarget engine, int windowSize,
+        int numPriority) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("invalid window size: " + windowSize);
+        }
+
+        this.file = file;
+        this.parser = new CommandParser(engine, numPriority);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Map the entire file window by window and execute every line on the engine.
+     */
+    public void replay() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int mapSize = windowSize;
+
+            while (position < size) {
+                int length = (int) Math.min(mapSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean isLastWindow = position + length == size;
+
+                /* Execute every complete line in the window */
+                int start = 0;
+                for (int i = 0; i < length; i++) {
+                    byte b = window.get(i);
+                    if (b == '\n' || b == '\r') {
+                        parser.executeLine(window, start, i);
+                        start = i + 1;
+                    }
+                }
+
+                if (isLastWindow) {
+                    /* Last line of input without a line separator */
+                    if (start < length) {
+                        parser.executeLine(window, start, length);
+                    }
+                    break;
+                }
+
+                /* Map a larger window if a single line does not fit */
+                if (start == 0) {
+                    mapSize = (int) Math.min((long) mapSize * 2, Integer.MAX_VALUE);
+                } else {
+                    mapSize = windowSize;
+                }
+
+                /* Next window starts at the line that straddles this one */
+                position += start;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Destination for the measurements taken by PREngine on every kernel
+ * call: counters of scheduling events and errors, peak depths of the
+ * Ready List and Block Lists, and the latency of each operation.
+ *
+ * The engine always reports to a sink. Without --metrics it is a
+ * DiscardMetricsSink whose methods do nothing, which the JIT inlines
+ * away, so the engine pays nothing for the calls.
+ */
+
+public interface MetricsSink {
+
+    /**
+     * Kernel calls whose latency is measured
+     */
+    enum Operation {
+        CREATE, DESTROY, REQUEST, RELEASE, TIME_OUT, TICK
+    }
+
+    /**
+     * Reasons a command is rejected with an error
+     */
+    enum ErrorCause {
+        INVALID_COMMAND, INVALID_PRIORITY, INVALID_CLAIMS, DUPLICATE_PID, UNKNOWN_PROCESS,
+        UNKNOWN_RESOURCE, INIT_PROCESS, INVALID_UNITS, NOT_HELD, EXCEEDS_MAX, EXCEEDS_CLAIM,
+        INVALID_TICKS
+    }
+
+    /**
+     * Returns whether anything is recorded at all.
+     *
+     * @return false if every measurement is thrown away
+     */
+    boolean isEnabled();
+
+    /**
+     * Start timing an operation.
+     *
+     * @return the start time to pass to stopTimer
+     */
+    long startTimer();
+
+    /**
+     * Record the latency of an operation.
+     *
+     * @param operation the operation that has completed
+     * @param start     the time returned by startTimer
+     */
+    void stopTimer(Operation operation, long start);
+
+    /**
+     * Record that a different process has been dispatched.
+     *
+     * @param isPreemption whether the running process was preempted by it
+     */
+    void contextSwitch(boolean isPreemption);
+
+    /**
+     * Record a number of context switches at once, none of them a
+     * preemption, for the time slices a tick skipped over.
+     *
+     * @param count the number of context switches
+     */
+    void contextSwitches(long count);
+
+    /**
+     * Record that a process has blocked on a resource.
+     */
+    void block();
+
+    /**
+     * Record that a blocked process has been granted its request.
+     */
+    void unblock();
+
+    /**
+     * Record an error shown for a rejected command.
+     *
+     * @param cause the reason the command was rejected
+     */
+    void error(ErrorCause cause);
+
+    /**
+     * Record the depth of a priority level of the Ready List after a
+     * process was added to it.
+     *
+     * @param level the priority level
+     * @param depth the number of processes in the level
+     */
+    void readyDepth(int level, int depth);
+
+    /**
+     * Record the depth of the Block List of a resource after a process
+     * was added to it.
+     *
+     * @param index the index of the resource
+     * @param depth the number of processes in the Block List
+     */
+    void blockDepth(int index, int depth);
+
+    /**
+     * Print everything recorded so far, with the current depths of the
+     * lists of the engine, as lines of text.
+     *
+     * @param engine the engine the measurements were taken on
+     * @param out    the sink to print to
+     */
+    void printStats(PREngine engine, OutputSink out);
+
+    /**
+     * Returns everything recorded so far, with the current depths of the
+     * lists of the engine, as a JSON object.
+     *
+     * @param engine the engine the measurements were taken on
+     * @return the JSON text
+     */
+    String toJson(PREngine engine);
+}
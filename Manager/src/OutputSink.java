@@ -0,0 +1,33 @@
+/**
+ * Destination for everything the manager prints: scheduler output,
+ * errors and the results of print commands.
+ */
+
+public interface OutputSink {
+
+    /**
+     * Print the given text.
+     *
+     * @param s the text to print
+     */
+    void print(String s);
+
+    /**
+     * Print a single character.
+     *
+     * @param c the character to print
+     */
+    void print(char c);
+
+    /**
+     * Print the given text followed by the line separator.
+     *
+     * @param s the text to print
+     */
+    void println(String s);
+
+    /**
+     * Push everything printed so far to the underlying destination.
+     */
+    void flush();
+}
@@ -0,0 +1,1590 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+/**
+ * Core Process & Resource Manager for the project. Each engine owns its
+ * own Ready List, resources and processes, so many independent managers
+ * can be run side by side in the same JVM.
+ */
+
+public class PREngine implements CommandTarget {
+
+    /**
+     * Default number of times the longest waiting process of a BEST_FIT
+     * resource can be bypassed before it is woken up first.
+     */
+    public static final int DEFAULT_MAX_BYPASS = 16;
+
+    /**
+     * Default number of ticks a dispatched process runs before it is
+     * timed out.
+     */
+    public static final int DEFAULT_QUANTUM = 10;
+
+    /**
+     * The Ready List.
+     */
+    private ReadyQueue readyList = new ReadyQueue(Process.NUM_PRIORITY);
+
+    /**
+     * Resources created on every init, R1..R4 unless set otherwise.
+     */
+    private ResourceCatalogue catalogue = ResourceCatalogue.STANDARD;
+
+    /**
+     * Pointers to all resources in the system, in catalogue order.
+     */
+    private Resource[] resources = new Resource[0];
+
+    /**
+     * Pointers to all resources in the system, indexed by case-folded rid, see toKey.
+     */
+    private HashMap<String, Resource> resourceIndex = new HashMap<String, Resource>();
+
+    /**
+     * Pointers to all processes in the system, indexed by case-folded pid, see toKey.
+     * Insertion order is kept so that processes are listed in creation order.
+     */
+    private ProcessTable processes = new ProcessTable();
+
+    /**
+     * PCBs of destroyed processes, reused by later creates.
+     */
+    private ProcessPool pool = new ProcessPool();
+
+    /**
+     * Pointer to the running process in the system (Reference purposes).
+     */
+    private Process runningProcess;
+
+    /**
+     * Sink that scheduler, error and print output is written to.
+     */
+    private OutputSink out;
+
+    /**
+     * Number of blocking requests so far, giving the order of waiters
+     * across the buckets of a WaiterIndex.
+     */
+    private long blockSeq = 0;
+
+    /**
+     * Virtual clock in ticks, only advanced by tick, the number of ticks a
+     * dispatched process runs before it is timed out, and the tick the time
+     * slice of the running process ends at.
+     */
+    private long clock = 0;
+    private int quantum = DEFAULT_QUANTUM;
+    private long sliceEnd = DEFAULT_QUANTUM;
+
+    /**
+     * Bypass limit of BEST_FIT resources.
+     */
+    private int maxBypass = DEFAULT_MAX_BYPASS;
+
+    /**
+     * Detector over the wait-for graph, and whether every blocking
+     * request is checked for a deadlock.
+     */
+    private DeadlockDetector detector = new DeadlockDetector();
+    private boolean isDeadlockChecked = false;
+
+    /**
+     * Safety check of avoidance mode, whether requests are only granted
+     * if they leave the system safe, and the resources with a waiter held
+     * back by it.
+     */
+    private Banker banker = new Banker();
+    private boolean isAvoiding = false;
+    private ArrayList<Resource> stalled = new ArrayList<Resource>();
+    private ArrayList<Resource> retrying = new ArrayList<Resource>();
+
+    /**
+     * Measurements of every kernel call, thrown away unless set otherwise
+     */
+    private MetricsSink metrics = new DiscardMetricsSink();
+
+    /**
+     * Most recent scheduling events, always recorded
+     */
+    private EventRecorder events = new EventRecorder();
+
+    /**
+     * Virtual time accounting of the processes by priority level
+     */
+    private ProcessAccounting accounting = new ProcessAccounting();
+
+    /**
+     * Claims of the process being created, parsed before it is created
+     */
+    private ResourceHoldings claimSpec = new ResourceHoldings();
+
+    /**
+     * Reusable work lists for walking a sub-tree that is being destroyed
+     */
+    private ArrayList<Process> subtree = new ArrayList<Process>();
+    private ArrayDeque<Process> pending = new ArrayDeque<Process>();
+
+    /**
+     * Constructor that creates an engine writing its output to a buffered
+     * sink over System.out. The engine must be initialised with init
+     * before use.
+     */
+    public PREngine() {
+        this(new BufferedOutputSink(System.out));
+    }
+
+    /**
+     * Constructor that creates an engine writing its output to the
+     * given sink. The engine must be initialised with init before use.
+     *
+     * @param out the sink to write all output to
+     */
+    public PREngine(OutputSink out) {
+        this.out = out;
+    }
+
+    /**
+     * Initialisation method that is called explicitly or at the start of
+     * the test driver. Uses the default INIT / USER / SYSTEM priorities.
+     */
+    public void init() {
+        init(Process.NUM_PRIORITY);
+    }
+
+    /**
+     * Initialisation method that sets up the manager with the given
+     * number of priority levels and resource catalogue. The catalogue
+     * is kept for every later init.
+     *
+     * @param numPriority the number of priority levels in the Ready List
+     * @param catalogue   the resources to create
+     */
+    public void init(int numPriority, ResourceCatalogue catalogue) {
+        this.catalogue = catalogue;
+        init(numPriority);
+    }
+
+    /**
+     * Initialisation method that sets up the manager with the given
+     * number of priority levels. Level 0 is reserved for the init
+     * process and higher levels have higher priority. Resources are
+     * created from the current catalogue.
+     *
+     * @param numPriority the number of priority levels in the Ready List
+     */
+    @Override
+    public void init(int numPriority) {
+
+        /* Create a Ready List with a queue for each priority level */
+        readyList = new ReadyQueue(numPriority);
+
+        /* Create ProcessTable object to store all pointers of process in the manager */
+        processes = new ProcessTable();
+
+        /* Create new Resource object and store as pointers in the Array for Ref */
+        setResources(catalogue.createResources());
+        accounting.reset(numPriority, resources.length);
+
+        /* Reset pointer of runningProcess and the clock */
+        runningProcess = null;
+        clock = 0;
+
+        /* Create a 'init' process at the first process in the system */
+        claimSpec.clear();
+        createProcess("init", Process.INIT, claimSpec);
+    }
+
+    /**
+     * Private method that makes the given resources the resources of the
+     * engine, with no process holding or waiting on them.
+     *
+     * @param created the new resources, in catalogue order
+     */
+    private void setResources(Resource[] created) {
+        resources = created;
+
+        /* Index every resource by rid for constant time look up, also as
+           spelled in the catalogue so the usual spelling needs no lower-casing */
+        resourceIndex = new HashMap<String, Resource>(resources.length * 4);
+        for (Resource r : resources) {
+            resourceIndex.put(toKey(r.getRid()), r);
+            resourceIndex.put(r.getRid(), r);
+        }
+        detector.setResources(resources);
+        banker.setResources(resources);
+        stalled.clear();
+    }
+
+    /**
+     * Method called by the driver to save the whole state of the manager
+     * to a checkpoint file. Nothing is printed unless it fails.
+     *
+     * @param file the file to write, replaced if it exists
+     */
+    @Override
+    public void saveCheckpoint(String file) {
+        try (OutputStream stream = Files.newOutputStream(Paths.get(file))) {
+            writeCheckpoint(stream);
+        } catch (IOException | UncheckedIOException | InvalidPathException e) {
+            showError();
+        }
+    }
+
+    /**
+     * Method called by the driver to replace the whole state of the
+     * manager with the one saved in a checkpoint file. Nothing is printed
+     * unless it fails, in which case the state is left as it was.
+     *
+     * @param file the file to read
+     */
+    @Override
+    public void loadCheckpoint(String file) {
+        try (InputStream stream = Files.newInputStream(Paths.get(file))) {
+            readCheckpoint(stream);
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            showError();
+        }
+    }
+
+    /**
+     * Write the whole state of the manager as a checkpoint, in the format
+     * described by CheckpointFormat. The stream is not closed.
+     *
+     * @param stream the stream to write the checkpoint to
+     */
+    public void writeCheckpoint(OutputStream stream) {
+        CheckpointEncoder out = new CheckpointEncoder(stream);
+        out.writeVarint(readyList.getNumLevels());
+        out.writeVarlong(blockSeq);
+        out.writeVarlong(clock);
+
+        out.writeVarint(resources.length);
+        for (Resource r : resources) {
+            out.writeString(r.getRid());
+            out.writeVarint(r.getMaxUnits());
+            out.writeVarint(r.getPolicy().ordinal());
+            out.writeVarint(r.getFreeUnits());
+        }
+
+        /* Number the processes first, so that any process can be referred to */
+        int count = 0;
+        for (Process p = processes.getFirst(); p != null; p = p.getOrderNext()) {
+            p.setCheckpointIndex(++count);
+        }
+
+        out.writeVarint(count);
+        for (Process p = processes.getFirst(); p != null; p = p.getOrderNext()) {
+            out.writeString(p.getPid());
+            out.writeVarint(p.getPriority());
+            out.writeVarint(p.getType());
+            out.writeVarint(indexOf(p.getParent()));
+            out.writeVarint(p.getBlockedOn() == null ? 0 : p.getBlockedOn().getIndex() + 1);
+            out.writeVarint(p.getBlockedReqUnit());
+            out.writeVarlong(p.getBlockedSeq());
+            out.writeVarint(p.getBypassCount());
+            writeHoldings(out, p.getResources());
+            writeHoldings(out, p.getClaims());
+            out.writeVarlong(clock - p.getCreatedAt());
+            out.writeVarlong(clock - p.getStateSince());
+            out.writeVarlong(p.getRunTicks());
+            out.writeVarlong(p.getReadyTicks());
+            out.writeVarlong(p.getBlockedTicks());
+            out.writeVarlong(p.getDispatches());
+        }
+
+        /* Every list in its current order */
+        for (int level = 0; level < readyList.getNumLevels(); level++) {
+            writeList(out, readyList.getLevel(level));
+        }
+        for (Resource r : resources) {
+            writeList(out, r.getBlockList());
+
+            out.writeVarint(r.getHolderCount());
+            for (int i = 0; i < r.getHolderCount(); i++) {
+                out.writeVarint(r.getHolder(i).getCheckpointIndex());
+            }
+        }
+
+        out.writeVarint(indexOf(runningProcess));
+        out.writeVarlong(sliceEnd - clock);
+
+        out.writeVarint(stalled.size());
+        for (Resource r : stalled) {
+            out.writeVarint(r.getIndex());
+        }
+
+        out.writeVarint(banker.size());
+        for (Process p = banker.getFirst(); p != null; p = p.getClaimNext()) {
+            out.writeVarint(p.getCheckpointIndex());
+        }
+
+        accounting.write(out);
+        out.flush();
+    }
+
+    /**
+     * Replace the whole state of the manager with a checkpoint written by
+     * writeCheckpoint. Everything is read and rebuilt in a single pass
+     * over the stream, without replaying any command, and the state of the
+     * manager is only replaced once the whole checkpoint is valid. The
+     * stream is not closed.
+     *
+     * @param stream the stream to read the checkpoint from
+     * @throws IllegalArgumentException if the stream is not a valid checkpoint
+     */
+    public void readCheckpoint(InputStream stream) {
+        CheckpointDecoder in = new CheckpointDecoder(stream);
+        int numPriority = in.readVarint(1, ReadyQueue.MAX_LEVELS);
+        long restoredSeq = in.readVarlong();
+        long restoredClock = in.readVarlong();
+        if (restoredClock < 0) {
+            throw new IllegalArgumentException("invalid clock in checkpoint");
+        }
+
+        /* Resources, with the catalogue they are created from */
+        int resourceCount = in.readVarint(1, Integer.MAX_VALUE);
+        String[] rids = new String[resourceCount];
+        int[] units = new int[resourceCount];
+        WakeUpPolicy[] policies = new WakeUpPolicy[resourceCount];
+        int[] freeUnits = new int[resourceCount];
+        for (int i = 0; i < resourceCount; i++) {
+            rids[i] = in.readString();
+            units[i] = in.readVarint(1, ResourceCatalogue.MAX_UNITS);
+            policies[i] = WakeUpPolicy.values()[in.readVarint(0, WakeUpPolicy.values().length - 1)];
+            freeUnits[i] = in.readVarint(0, units[i]);
+        }
+
+        ResourceCatalogue restoredCatalogue = ResourceCatalogue.of(rids, units, policies);
+        Resource[] restored = restoredCatalogue.createResources();
+        for (int i = 0; i < resourceCount; i++) {
+            restored[i].setFreeUnits(freeUnits[i]);
+        }
+
+        /* Processes in creation order, parents always come before children */
+        int count = in.readVarint(0, Integer.MAX_VALUE);
+        Process[] byIndex = new Process[Math.min(count, 1 << 20) + 1];
+        ProcessTable table = new ProcessTable();
+        for (int i = 1; i <= count; i++) {
+            String pid = in.readString();
+            String key = toKey(pid);
+            if (table.get(key) != null) {
+                throw new IllegalArgumentException("duplicate pid in checkpoint: " + pid);
+            }
+
+            Process p = pool.acquire(pid, in.readVarint(0, numPriority - 1));
+            p.setType(in.readVarint(Process.RUNNING, Process.BLOCKED));
+            modifyTree(readProcess(in, byIndex, i - 1), p);
+            int blockedOn = in.readVarint(0, resourceCount);
+            p.setBlockedOn(blockedOn == 0 ? null : restored[blockedOn - 1]);
+            p.setBlockedReqUnit(in.readVarint(0, ResourceCatalogue.MAX_UNITS));
+            p.setBlockedSeq(in.readVarlong());
+            p.setBypassCount(in.readVarint(0, Integer.MAX_VALUE));
+            readHoldings(in, p.getResources(), in.readVarint(0, resourceCount), resourceCount);
+            int claimCount = in.readVarint(0, resourceCount);
+            if (claimCount > 0) {
+                p.setClaims(new ResourceHoldings());
+                readHoldings(in, p.getClaims(), claimCount, resourceCount);
+            }
+            readAccounting(in, p, restoredClock);
+
+            table.add(p, key);
+            if (i == byIndex.length) {
+                byIndex = Arrays.copyOf(byIndex, Math.min(count, byIndex.length * 2) + 1);
+            }
+            byIndex[i] = p;
+        }
+
+        /* Every list in its saved order */
+        ReadyQueue ready = new ReadyQueue(numPriority);
+        for (int level = 0; level < numPriority; level++) {
+            int size = in.readVarint(0, count);
+            for (int j = 0; j < size; j++) {
+                Process p = readProcess(in, byIndex, count);
+                if (p == null || p.getPriority() != level || p.getList() != null) {
+                    throw new IllegalArgumentException("invalid Ready List in checkpoint");
+                }
+                ready.add(p);
+            }
+        }
+
+        for (Resource r : restored) {
+            int size = in.readVarint(0, count);
+            for (int j = 0; j < size; j++) {
+                Process p = readProcess(in, byIndex, count);
+                if (p == null || p.getBlockedOn() != r || p.getList() != null) {
+                    throw new IllegalArgumentException("invalid Block List in checkpoint");
+                }
+
+                r.getBlockList().add(p);
+                if (r.getWaiters() != null) {
+                    r.getWaiters().add(p, p.getBlockedReqUnit());
+                }
+            }
+
+            size = in.readVarint(0, count);
+            for (int j = 0; j < size; j++) {
+                Process p = readProcess(in, byIndex, count);
+                if (p == null || p.getResources().get(r.getIndex()) == 0) {
+                    throw new IllegalArgumentException("invalid holder in checkpoint");
+                }
+                r.addHolder(p);
+            }
+        }
+
+        Process running = readProcess(in, byIndex, count);
+        long slice = in.readVarlong();
+        if (slice <= 0 || slice > Long.MAX_VALUE - restoredClock) {
+            throw new IllegalArgumentException("invalid time slice in checkpoint");
+        }
+
+        int stalledCount = in.readVarint(0, resourceCount);
+        int[] stalledIndex = new int[stalledCount];
+        for (int j = 0; j < stalledCount; j++) {
+            stalledIndex[j] = in.readVarint(0, resourceCount - 1);
+        }
+
+        int claimantCount = in.readVarint(0, count);
+        Process[] claimants = new Process[claimantCount];
+        for (int j = 0; j < claimantCount; j++) {
+            claimants[j] = readProcess(in, byIndex, count);
+            if (claimants[j] == null || claimants[j].getClaims() == null) {
+                throw new IllegalArgumentException("invalid claimant in checkpoint");
+            }
+        }
+        ProcessAccounting restoredAccounting = ProcessAccounting.read(in, numPriority, resourceCount);
+
+        /* Everything is valid, replace the state of the manager */
+        ProcessTable replaced = processes;
+        catalogue = restoredCatalogue;
+        setResources(restored);
+        readyList = ready;
+        processes = table;
+        runningProcess = running;
+        blockSeq = restoredSeq;
+        clock = restoredClock;
+        sliceEnd = restoredClock + slice;
+        accounting = restoredAccounting;
+
+        for (int index : stalledIndex) {
+            stall(resources[index]);
+        }
+        for (Process p : claimants) {
+            banker.add(p);
+        }
+
+        /* Keep the PCBs of the replaced processes for the next restore */
+        Process p = replaced.getFirst();
+        while (p != null) {
+            Process next = p.getOrderNext();
+            pool.release(p);
+            p = next;
+        }
+    }
+
+    /**
+     * Method called by the driver to execute a create process
+     * by the system's running process.
+     *
+     * @param pid      the new process id
+     * @param priority the new priority
+     */
+    @Override
+    public void createProcess(String pid, int priority) {
+        long start = metrics.startTimer();
+        claimSpec.clear();
+        createProcess(pid, priority, claimSpec);
+        metrics.stopTimer(MetricsSink.Operation.CREATE, start);
+    }
+
+    /**
+     * Method called by the driver to execute a create process with
+     * the maximum units of each resource it may hold, which is only
+     * accepted in avoidance mode.
+     *
+     * @param pid      the new process id
+     * @param priority the new priority
+     * @param claims   the claims, such as R1:1,R3:2
+     */
+    @Override
+    public void createProcess(String pid, int priority, String claims) {
+        long start = metrics.startTimer();
+
+        /* Claims are only declared in avoidance mode and must be valid */
+        if (!isAvoiding || !parseClaims(claims)) {
+            showError(MetricsSink.ErrorCause.INVALID_CLAIMS);
+        } else {
+            createProcess(pid, priority, claimSpec);
+        }
+
+        metrics.stopTimer(MetricsSink.Operation.CREATE, start);
+    }
+
+    /**
+     * Private method that creates a process with the given claims.
+     *
+     * @param pid      the new process id
+     * @param priority the new priority
+     * @param claims   the maximum units of each resource, empty if none
+     */
+    private void createProcess(String pid, int priority, ResourceHoldings claims) {
+        /* Priority should only be one of the levels in the Ready List */
+        if (priority >= readyList.getNumLevels() || priority < 0 || priority == Main.INVALID_NUM) {
+            showError(MetricsSink.ErrorCause.INVALID_PRIORITY);
+            return;
+        }
+
+        /* Priority should only be INIT if PID is init */
+        if (!(pid.equalsIgnoreCase("init")) && priority == Process.INIT) {
+            showError(MetricsSink.ErrorCause.INVALID_PRIORITY);
+            return;
+        }
+
+        /* pid should not exist in the system/manager */
+        String key = toKey(pid);
+        if (processes.get(key) != null) {
+            showError(MetricsSink.ErrorCause.DUPLICATE_PID);
+            return;
+        }
+
+        /* Create new PCB, or reuse a pooled one, and initialise with given parameters */
+        Process p = pool.acquire(pid, priority);
+        p.setCreatedAt(clock);
+        p.setStateSince(clock);
+
+        /* Add pointer to new process into the process table for Reference */
+        processes.add(p, key);
+
+        /* Declare the claims of the new process to the Banker */
+        if (!claims.isEmpty()) {
+            ResourceHoldings declared = new ResourceHoldings();
+            for (int i = 0; i < claims.size(); i++) {
+                declared.add(claims.getResourceAt(i), claims.getUnitsAt(i));
+            }
+            p.setClaims(declared);
+            banker.add(p);
+        }
+
+        /* Add pointer to new process into ReadyList */
+        addToRL(p);
+
+        /* Update creation tree based on current running process and new process */
+        modifyTree(runningProcess, p);
+
+        /* Call scheduler at the end of every kernel call */
+        scheduler();
+    }
+
+    /**
+     * Method called by the driver to destroy the provided
+     * valid process and killing the sub-tree.
+     *
+     * @param pid pid of the process to be destroyed
+     */
+    @Override
+    public void destroyProcess(String pid) {
+        long start = metrics.startTimer();
+
+        /* Search for process given pid */
+        Process p = getProcess(pid);
+
+        /* If no such process or init process, show error */
+        if (p == null) {
+            showError(MetricsSink.ErrorCause.UNKNOWN_PROCESS);
+        } else if (p.getPid().equalsIgnoreCase("init")) {
+            showError(MetricsSink.ErrorCause.INIT_PROCESS);
+        } else {
+            /* Kill the process subtree with p as the root of tree */
+            killProcessTree(p);
+
+            /* Released units may let held back waiters through */
+            retryStalled();
+
+            /* Call scheduler at the end of every kernel call */
+            scheduler();
+        }
+
+        metrics.stopTimer(MetricsSink.Operation.DESTROY, start);
+    }
+
+    /**
+     * Private method that removes each process of the sub-tree from
+     * resources, running process pointer (if applicable),
+     * all ReadyList & BlockList. Lastly, release all resources
+     * used by the process.
+     *
+     * The sub-tree is walked iteratively and processes are killed
+     * children first, in creation order, exactly as a recursive kill
+     * would, so that released units wake up blocked processes in the
+     * same order. Only the root has to be detached from its parent.
+     *
+     * @param root root of process sub-tree
+     */
+    private void killProcessTree(Process root) {
+        /* Collect the whole sub-tree, children before their parent */
+        collectSubtree(root);
+
+        /* Remove pointer from parent, the rest of the tree goes with it */
+        root.getParent().removeChild(root);
+
+        for (int i = 0; i < subtree.size(); i++) {
+            Process p = subtree.get(i);
+            events.destroy(p);
+
+            /* In avoidance mode, leave the Block List first so that the process
+               is not woken up by its own release and takes the units with it */
+            if (isAvoiding) {
+                removeFromList(p);
+            }
+
+            /* Release resource(s) units of the current process */
+            ResourceHoldings pResources = p.getResources();
+            for (int j = 0; j < pResources.size(); j++) {
+                releaseResources(resources[pResources.getResourceAt(j)],
+                    pResources.getUnitsAt(j), p, false);
+            }
+
+            /* The process no longer takes part in safety checks */
+            banker.remove(p);
+
+            /* Remove all resource pointers in the process */
+            for (int j = 0; j < pResources.size(); j++) {
+                resources[pResources.getResourceAt(j)].removeHolder(p);
+            }
+            pResources.clear();
+
+            /* Remove from Blocked List or Ready List */
+            if (!isAvoiding) {
+                removeFromList(p);
+            }
+
+            /* Remove from the process table, adding its figures to the totals */
+            processes.remove(p);
+            p.account(clock);
+            accounting.destroy(p, clock);
+
+            /* If current process is running, remove from runningProcess pointer */
+            if (p.getType() == Process.RUNNING) {
+                runningProcess = null;
+            }
+        }
+
+        /* Keep the PCBs for reuse by later creates */
+        for (int i = 0; i < subtree.size(); i++) {
+            pool.release(subtree.get(i));
+        }
+        subtree.clear();
+    }
+
+    /**
+     * Private method that fills the subtree list with every process
+     * of the sub-tree in post-order, children in creation order.
+     * This is the reverse of a pre-order walk that visits the last
+     * child first.
+     *
+     * @param root root of process sub-tree
+     */
+    private void collectSubtree(Process root) {
+        subtree.clear();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            Process p = pending.pop();
+            subtree.add(p);
+
+            /* Pushed first to last, so the last child is visited next */
+            for (Process c = p.getFirstChild(); c != null; c = c.getNextSibling()) {
+                pending.push(c);
+            }
+        }
+
+        Collections.reverse(subtree);
+    }
+
+    /**
+     * Method that returns pointer of process if found
+     * given the requested pid.
+     *
+     * The PCB is reused for another process once this one is destroyed.
+     *
+     * @param pid the pid of the requested process
+     * @return pointer of the requested process
+     */
+    public Process getProcess(String pid) {
+        /* Returns null if no such process with given pid in system */
+        return processes.get(toKey(pid));
+    }
+
+    /**
+     * Method that returns pointer of resource if found
+     * given the requested rid.
+     *
+     * @param rid the rid of the requested resource
+     * @return pointer of requested resource
+     */
+    public Resource getResource(String rid) {
+        Resource r = resourceIndex.get(rid);
+        if (r != null) {
+            return r;
+        }
+
+        /* Returns null if no such resource with given rid in system */
+        return resourceIndex.get(toKey(rid));
+    }
+
+    /**
+     * Scheduler method that is called at the end of every kernel call.
+     * Based on certain criteria, the scheduler can choose to swap
+     * the running process with another.
+     */
+    private void scheduler() {
+        dispatch();
+
+        /* At end of scheduler call, print running process */
+        out.print(runningProcess.getPid());
+        out.print(' ');
+    }
+
+    /**
+     * Private method that swaps the running process with the highest
+     * priority process if it fulfils any of the 3 criteria, starting a new
+     * time slice for it.
+     */
+    private void dispatch() {
+        /* Grab the highest priority process in the system (first in queue) */
+        Process p = readyList.getHighest();
+
+        /* If highest priority process is fulfils any of the 3 criteria */
+        if (p != null && (runningProcess == null || p.getPriority() > runningProcess.getPriority()
+            || runningProcess.getType() != Process.RUNNING)) {
+
+            /* Proceed to swap p with runningProcess */
+            /* If there is a running process and it is running, set to ready */
+            boolean isPreemption = false;
+            if (runningProcess != null && runningProcess.getType() == Process.RUNNING) {
+                changeType(runningProcess, Process.READY);
+                isPreemption = true;
+            }
+
+            /* Dispatching the same process again is not a context switch */
+            if (p != runningProcess) {
+                metrics.contextSwitch(isPreemption);
+                events.contextSwitch(p, runningProcess, isPreemption);
+                p.setDispatches(p.getDispatches() + 1);
+            }
+
+            /* Swap p with running process */
+            runningProcess = p;
+            changeType(p, Process.RUNNING);
+            sliceEnd = clock + quantum;
+        }
+    }
+
+    /**
+     * Public helper method that driver executes command with
+     * reference to current running process to release resources.
+     *
+     * @param rid  the rid of the requested resource
+     * @param unit the number of requested units
+     */
+    @Override
+    public void releaseResources(String rid, int unit) {
+        long start = metrics.startTimer();
+        Resource r = getResource(rid);
+
+        /* If pointer is null, there is no such resource with the given rid */
+        if (r == null) {
+            showError(MetricsSink.ErrorCause.UNKNOWN_RESOURCE);
+        } else if (releaseResources(r, unit, runningProcess, true)) {
+            /* Call scheduler at the end of every kernel call */
+            retryStalled();
+            scheduler();
+        }
+
+        metrics.stopTimer(MetricsSink.Operation.RELEASE, start);
+    }
+
+    /**
+     * Private method that releases the requested resource units
+     * held by the given process and update the hash table of
+     * the process and process the block list of Resource to allocate
+     * the next one if possible.
+     *
+     * @param resource the pointer of requested resource
+     * @param unit     the number of requested units to release
+     * @param p        the process making the release
+     * @param isRemove it is false if it is part of a destroy operation
+     * @return whether release operation is successful
+     */
+    private boolean releaseResources(Resource resource, int unit, Process p,
+        boolean isRemove) {
+        /* If request process is init, deny and return */
+        if (p.getPid().equalsIgnoreCase("init")) {
+            showError(MetricsSink.ErrorCause.INIT_PROCESS);
+            return false;
+        }
+
+        /* Get the number of units held by resource */
+        int usedUnits = p.getResources().get(resource.getIndex());
+
+        /* If resource to be released is not held by process p, show error */
+        if (usedUnits == 0) {
+            showError(MetricsSink.ErrorCause.NOT_HELD);
+            return false;
+        }
+
+        /* If its not all the units held by process, just minus from total */
+        if (unit < usedUnits && unit > 0) {
+            p.getResources().set(resource.getIndex(), usedUnits - unit);
+        } else if (unit == usedUnits) { /* if all the units, remove from table */
+            if (isRemove) {
+                resource.removeHolder(p);
+                p.getResources().remove(resource.getIndex());
+            } else { /* kept in place for the destroy, but no longer held for the Banker */
+                p.getResources().set(resource.getIndex(), 0);
+            }
+        } else { /* if not a valid unit to release, show error and return */
+            /* If unit == 0, just release no resource & return true */
+            if (unit == 0) {
+                return true;
+            } else {
+                showError(MetricsSink.ErrorCause.INVALID_UNITS);
+                return false;
+            }
+        }
+
+        /* Update the number of free units the resource have */
+        resource.setFreeUnits(resource.getFreeUnits() + unit);
+
+        /* Proceed to process block list of resource for possible allocation */
+        wakeUp(resource);
+
+        /* Release operation successfully completed */
+        return true;
+    }
+
+    /**
+     * Private method that wakes up blocked processes of the resource
+     * while their requests can be granted.
+     *
+     * @param resource the pointer of the resource with free units
+     */
+    private void wakeUp(Resource resource) {
+        for (Process successP = nextToWake(resource); successP != null;
+            successP = nextToWake(resource)) {
+            Process head = resource.getBlockList().getFirst();
+
+            /* In avoidance mode, an unsafe grant waits for units to come back */
+            if (isAvoiding && !banker.isSafe(successP, resource, successP.getBlockedReqUnit())) {
+                stall(resource);
+                return;
+            }
+
+            /* Release requested units from resource */
+            resource.setFreeUnits(resource.getFreeUnits() - successP.getBlockedReqUnit());
+
+            /* Add resource units to the resource list in Process p */
+            if (successP.getResources().add(resource.getIndex(), successP.getBlockedReqUnit())) {
+                resource.addHolder(successP);
+            }
+
+            /* A head passed over by a granted best fit has been bypassed once more */
+            if (resource.getPolicy() == WakeUpPolicy.BEST_FIT && successP != head) {
+                head.setBypassCount(head.getBypassCount() + 1);
+            }
+
+            /* Remove from Blocked List */
+            events.unblock(successP, resource, successP.getBlockedReqUnit());
+            removeFromBL(successP);
+
+            /* Add to Ready List */
+            addToRL(successP);
+            metrics.unblock();
+        }
+    }
+
+    /**
+     * Private method that retries the resources with a waiter held back
+     * by the Banker, after units have come back.
+     */
+    private void retryStalled() {
+        if (stalled.isEmpty()) {
+            return;
+        }
+
+        /* Resources still unsafe are stalled again on a fresh list */
+        ArrayList<Resource> retry = stalled;
+        stalled = retrying;
+        retrying = retry;
+
+        for (int i = 0; i < retry.size(); i++) {
+            retry.get(i).setStalled(false);
+            wakeUp(retry.get(i));
+        }
+        retry.clear();
+    }
+
+    /**
+     * Private method that chooses the next blocked process to wake up
+     * with the free units of the resource, following its wake-up policy.
+     *
+     * @param resource the pointer of the resource with free units
+     * @return the process to wake up, or null if no request can be granted
+     */
+    private Process nextToWake(Resource resource) {
+        Process head = resource.getBlockList().getFirst();
+        int freeUnits = resource.getFreeUnits();
+
+        /* Nothing to wake up if no process is blocked */
+        if (head == null) {
+            return null;
+        }
+
+        switch (resource.getPolicy()) {
+            case FIRST_FIT:
+                return resource.getWaiters().getFirstFit(freeUnits);
+
+            case BEST_FIT:
+                /* Bypassed too often, the head is served first like FIFO */
+                if (head.getBypassCount() >= maxBypass) {
+                    break;
+                }
+
+                /* The head is only counted as bypassed once the grant is made */
+                return resource.getWaiters().getBestFit(freeUnits);
+
+            default:
+                break;
+        }
+
+        /* FIFO: only the head of the block list, while its request fits */
+        return head.getBlockedReqUnit() <= freeUnits ? head : null;
+    }
+
+    /**
+     * Public helper method that driver executes command with
+     * reference to the current running process to request resource.
+     *
+     * @param rid  the rid of the requested resource
+     * @param unit the number of requested units to request
+     */
+    @Override
+    public void requestResources(String rid, int unit) {
+        long start = metrics.startTimer();
+        Resource r = getResource(rid);
+
+        /* If pointer is null, there is no such resource with the given rid */
+        if (r == null) {
+            showError(MetricsSink.ErrorCause.UNKNOWN_RESOURCE);
+        } else {
+            requestResources(r, unit, runningProcess);
+        }
+
+        metrics.stopTimer(MetricsSink.Operation.REQUEST, start);
+    }
+
+    /**
+     * Private method that request the specified units by
+     * provided process pointer to the provided resource pointer.
+     *
+     * @param resource the pointer of requested resource
+     * @param unit     the number of requested units to request
+     * @param p        the process making the request
+     */
+    private void requestResources(Resource resource, int unit, Process p) {
+        /* If request process is init, deny and return */
+        if (p.getPid().equalsIgnoreCase("init")) {
+            showError(MetricsSink.ErrorCause.INIT_PROCESS);
+            return;
+        }
+
+        /* If the requested unit is not valid, show error and return */
+        if (unit > resource.getMaxUnits() || unit <= 0) {
+            /* If unit == 0, just allocate no resource & run scheduler */
+            if (unit == 0) {
+                scheduler();
+            } else { /* Else just show error */
+                showError(MetricsSink.ErrorCause.INVALID_UNITS);
+            }
+
+            return;
+        }
+
+        /* If request process already contain the resource, the total requested must not be max units */
+        if (p.getResources().get(resource.getIndex()) + unit > resource.getMaxUnits()) {
+            showError(MetricsSink.ErrorCause.EXCEEDS_MAX);
+            return;
+        }
+
+        /* In avoidance mode, the total requested must not be more than claimed */
+        if (isAvoiding && p.getResources().get(resource.getIndex()) + unit
+            > p.getClaim(resource.getIndex())) {
+            showError(MetricsSink.ErrorCause.EXCEEDS_CLAIM);
+            return;
+        }
+
+        /* If the resource have enough free units for allocation, that are safe to grant */
+        boolean isFree = resource.getFreeUnits() >= unit;
+        if (isFree && (!isAvoiding || banker.isSafe(p, resource, unit))) {
+            /* Release requested units from resource */
+            resource.setFreeUnits(resource.getFreeUnits() - unit);
+
+            /* Add resource units to the resource list in Process p */
+            if (p.getResources().add(resource.getIndex(), unit)) {
+                resource.addHolder(p);
+            }
+
+        } else { /* If there is not enough units for allocation, add to BL */
+            /* Remove from Ready List & Add to back of Resource's Block List,
+               which sets the process status to BLOCKED */
+            removeFromRL(p);
+            addToBL(resource, p, unit);
+            metrics.block();
+            events.block(p, resource, unit);
+
+            /* Held back by the Banker, retried once units come back */
+            if (isFree) {
+                stall(resource);
+            }
+
+            /* Only a new wait edge can close a cycle, report it at once */
+            if (isDeadlockChecked) {
+                printCycle(detector.findCycle(p));
+            }
+        }
+
+        /* Call scheduler at the end of every kernel call */
+        scheduler();
+    }
+
+    /**
+     * Method called by driver to simulate RR time-sharing
+     * by changing the process state to ready and add to the back
+     * of the ready list.
+     */
+    @Override
+    public void timeOut() {
+        long start = metrics.startTimer();
+        rotate();
+
+        /* Call scheduler at the end of every kernel call */
+        scheduler();
+
+        metrics.stopTimer(MetricsSink.Operation.TIME_OUT, start);
+    }
+
+    /**
+     * Method called by driver to advance the virtual clock by the given
+     * number of ticks. Every time the slice of the running process ends
+     * within them, it is timed out as with timeOut, and the next process
+     * runs for a slice of its own. Time runs from one slice end to the next,
+     * whole rounds of the k processes at the level of the running process
+     * are skipped at once and at most k slices are left to run one by one,
+     * so the cost is O(k) and does not depend on the number of ticks.
+     *
+     * @param ticks the number of ticks to advance the clock by
+     */
+    @Override
+    public void tick(int ticks) {
+        long start = metrics.startTimer();
+
+        if (ticks < 0) {
+            showError(MetricsSink.ErrorCause.INVALID_TICKS);
+        } else {
+            long end = clock + ticks;
+
+            while (sliceEnd <= end) {
+                clock = sliceEnd;
+
+                /* A time-out would only dispatch it again, so skip its slices */
+                ProcessList level = readyList.getLevel(runningProcess.getPriority());
+                if (level.size() == 1) {
+                    sliceEnd += (end - sliceEnd) / quantum * quantum + quantum;
+                    break;
+                }
+
+                /* Every whole round leaves the level as it was, so skip them */
+                long rounds = (end - clock) / ((long) level.size() * quantum);
+                if (rounds > 0) {
+                    skipRounds(level, rounds);
+                    continue;
+                }
+
+                rotate();
+                dispatch();
+            }
+            clock = end;
+
+            /* Call scheduler at the end of every kernel call */
+            scheduler();
+        }
+
+        metrics.stopTimer(MetricsSink.Operation.TICK, start);
+    }
+
+    /**
+     * Private method that skips whole rounds of the level of the running
+     * process, at the end of its slice. In a round every process of the
+     * level runs one slice and waits ready for the others, and the level
+     * ends up in the same order with the same process running, so only the
+     * ticks and dispatches of each process change, and the state they are
+     * in started that many rounds later. The slices skipped are not
+     * recorded as events.
+     *
+     * @param level  the level of the running process, of at least 2 processes
+     * @param rounds the number of rounds to skip
+     */
+    private void skipRounds(ProcessList level, long rounds) {
+        long round = (long) level.size() * quantum;
+
+        for (Process p = level.getFirst(); p != null; p = p.getNext()) {
+            p.setRunTicks(p.getRunTicks() + rounds * quantum);
+            p.setReadyTicks(p.getReadyTicks() + rounds * (round - quantum));
+            p.setDispatches(p.getDispatches() + rounds);
+            p.setStateSince(p.getStateSince() + rounds * round);
+        }
+
+        metrics.contextSwitches(rounds * level.size());
+        metrics.readyDepth(runningProcess.getPriority(), level.size());
+        sliceEnd += rounds * round;
+    }
+
+    /**
+     * Private method that times out the running process by changing its
+     * state to ready and adding it to the back of its level of the Ready
+     * List, for the scheduler to dispatch the next one.
+     */
+    private void rotate() {
+        events.timeOut(runningProcess);
+
+        /* Remove process from its current position in the Ready List */
+        removeFromRL(runningProcess);
+
+        /* Set the process to READY */
+        changeType(runningProcess, Process.READY);
+
+        /* Add to back of Ready List */
+        addToRL(runningProcess);
+    }
+
+    /**
+     * Print all processes and some of its information in the manager.
+     */
+    @Override
+    public void printAllProcess() {
+        /* if no processes, return */
+        if (processes.isEmpty()) {
+            return;
+        }
+
+        for (Process p = processes.getFirst(); p != null; p = p.getOrderNext()) {
+            printProcess(p.getPid());
+        }
+    }
+
+    /**
+     * Print all resources and some of its information in the manager.
+     */
+    @Override
+    public void printAllResource() {
+        for (Resource r : resources) {
+            printResource(r.getRid());
+        }
+    }
+
+    /**
+     * Print a single process and its relevant information
+     *
+     * @param argument pid of the argument
+     */
+    @Override
+    public void printProcess(String argument) {
+        Process p = getProcess(argument);
+
+        /* if no process exist, return */
+        if (p == null) {
+            return;
+        }
+
+        out.println(p.getPid() + " " + p.getPriority() + " " + p.getType());
+    }
+
+    /**
+     * Print a single resource and its relevant information
+     *
+     * @param argument rid of the resource
+     */
+    @Override
+    public void printResource(String argument) {
+        Resource r = getResource(argument);
+
+        /* if no resource exist, return */
+        if (r == null) {
+            return;
+        }
+
+        out.println(
+            r.getRid() + " " + r.getFreeUnits() + "/" + r.getMaxUnits() + " " + r
+                .getBlockList().size());
+    }
+
+    /**
+     * Print every cycle of deadlocked processes in the manager, one per
+     * line, and nothing if there is no deadlock.
+     */
+    @Override
+    public void printDeadlock() {
+        for (ArrayList<Process> cycle : detector.findAllCycles(processes.getFirst())) {
+            printCycle(cycle);
+        }
+    }
+
+    /**
+     * Print a cycle of deadlocked processes, each followed by the
+     * resource it is blocked on, which is held by the next one.
+     *
+     * @param cycle the processes of the cycle, or null if no deadlock
+     */
+    private void printCycle(ArrayList<Process> cycle) {
+        if (cycle == null) {
+            return;
+        }
+
+        StringBuilder line = new StringBuilder("deadlock");
+        for (int i = 0; i < cycle.size(); i++) {
+            Process p = cycle.get(i);
+            line.append(' ').append(p.getPid()).append(' ').append(p.getBlockedOn().getRid());
+        }
+        out.println(line.toString());
+    }
+
+    /**
+     * Print the most recent scheduling events, oldest first.
+     *
+     * @param count the number of events to print, at least 0
+     */
+    @Override
+    public void printEvents(int count) {
+        if (count < 0) {
+            showError();
+            return;
+        }
+
+        events.printLast(count, out);
+    }
+
+    /**
+     * Print the ticks every live process spent running, ready and blocked,
+     * its dispatches and age, then the totals of every priority level, as
+     * described by ProcessAccounting.
+     */
+    @Override
+    public void printAccounting() {
+        accounting.print(processes.getFirst(), resources, clock, out);
+    }
+
+    /**
+     * Print the counters, list depths and operation latencies recorded
+     * so far, or an error if nothing is recorded.
+     */
+    @Override
+    public void printStats() {
+        if (!metrics.isEnabled()) {
+            showError();
+            return;
+        }
+
+        metrics.printStats(this, out);
+    }
+
+    /**
+     * Print the error message for an invalid command.
+     */
+    @Override
+    public void showError() {
+        showError(MetricsSink.ErrorCause.INVALID_COMMAND);
+    }
+
+    /**
+     * Private method that prints the error message for a command
+     * rejected for the given reason.
+     *
+     * @param cause the reason the command is rejected
+     */
+    private void showError(MetricsSink.ErrorCause cause) {
+        metrics.error(cause);
+        out.print("error ");
+    }
+
+    /**
+     * Print the separator written before every new test sequence.
+     * Output of the previous sequence is flushed before the separator.
+     */
+    @Override
+    public void printSequenceSeparator() {
+        out.flush();
+        out.print("\r\n\r\n");
+    }
+
+    /* Getters & Setters Methods */
+
+    public Process getRunningProcess() {
+        return runningProcess;
+    }
+
+    public Resource[] getResources() {
+        return resources;
+    }
+
+    public int getMaxBypass() {
+        return maxBypass;
+    }
+
+    public void setMaxBypass(int maxBypass) {
+        this.maxBypass = maxBypass;
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    public int getQuantum() {
+        return quantum;
+    }
+
+    public void setQuantum(int quantum) {
+        this.quantum = quantum;
+    }
+
+    public boolean isDeadlockChecked() {
+        return isDeadlockChecked;
+    }
+
+    public void setDeadlockChecked(boolean isDeadlockChecked) {
+        this.isDeadlockChecked = isDeadlockChecked;
+    }
+
+    public boolean isAvoiding() {
+        return isAvoiding;
+    }
+
+    public void setAvoiding(boolean isAvoiding) {
+        this.isAvoiding = isAvoiding;
+    }
+
+    public Banker getBanker() {
+        return banker;
+    }
+
+    public long getPoolHits() {
+        return pool.getHits();
+    }
+
+    public long getPoolMisses() {
+        return pool.getMisses();
+    }
+
+    public ResourceCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    public void setCatalogue(ResourceCatalogue catalogue) {
+        this.catalogue = catalogue;
+    }
+
+    public int getNumPriority() {
+        return readyList.getNumLevels();
+    }
+
+    public int getReadyCount(int level) {
+        return readyList.getLevel(level).size();
+    }
+
+    public EventRecorder getEventRecorder() {
+        return events;
+    }
+
+    public void setEventRecorder(EventRecorder events) {
+        this.events = events;
+    }
+
+    public MetricsSink getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(MetricsSink metrics) {
+        this.metrics = metrics;
+    }
+
+    public OutputSink getOutput() {
+        return out;
+    }
+
+    public void setOutput(OutputSink out) {
+        this.out = out;
+    }
+
+    /**
+     * Returns the key a pid or rid is indexed by. Every char is folded the
+     * way equalsIgnoreCase compares them, so two ids have the same key
+     * exactly when they are equal ignoring case, as with the lookups of
+     * the original manager. Unlike toLowerCase, this keeps e.g. U+0130
+     * matching 'i'.
+     *
+     * @param id the pid or rid
+     * @return the case-folded id
+     */
+    public static String toKey(String id) {
+        char[] folded = null;
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            char fold = Character.toLowerCase(Character.toUpperCase(c));
+            if (fold != c) {
+                if (folded == null) {
+                    folded = id.toCharArray();
+                }
+                folded[i] = fold;
+            }
+        }
+        return folded == null ? id : new String(folded);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void removeFromList(Process p) {
+        if (p.getType() == Process.BLOCKED) {
+            removeFromBL(p);
+        } else {
+            removeFromRL(p);
+        }
+    }
+
+    private void addToRL(Process p) {
+        readyList.add(p);
+        changeType(p, Process.READY);
+        metrics.readyDepth(p.getPriority(), readyList.getLevel(p.getPriority()).size());
+    }
+
+    private void changeType(Process p, int type) {
+        p.account(clock);
+        p.setType(type);
+    }
+
+    private void removeFromRL(Process p) {
+        readyList.remove(p);
+    }
+
+    private void addToBL(Resource r, Process p, int unit) {
+        r.getBlockList().add(p);
+        p.setBlockedReqUnit(unit);
+        changeType(p, Process.BLOCKED);
+        p.setBlockedSeq(++blockSeq);
+        p.setBypassCount(0);
+        p.setBlockedOn(r);
+
+        if (r.getWaiters() != null) {
+            r.getWaiters().add(p, unit);
+        }
+        metrics.blockDepth(r.getIndex(), r.getBlockList().size());
+    }
+
+    private void removeFromBL(Process p) {
+        accounting.endWait(p, clock);
+        p.account(clock);
+        p.getList().remove(p);
+        WaiterIndex.remove(p);
+        p.setBlockedReqUnit(0);
+        p.setBlockedOn(null);
+    }
+
+    private int indexOf(Process p) {
+        return p == null ? 0 : p.getCheckpointIndex();
+    }
+
+    private void writeHoldings(CheckpointEncoder out, ResourceHoldings holdings) {
+        int size = holdings == null ? 0 : holdings.size();
+        out.writeVarint(size);
+        for (int i = 0; i < size; i++) {
+            out.writeVarint(holdings.getResourceAt(i));
+            out.writeVarint(holdings.getUnitsAt(i));
+        }
+    }
+
+    private void writeList(CheckpointEncoder out, ProcessList list) {
+        out.writeVarint(list.size());
+        for (Process p = list.getFirst(); p != null; p = p.getNext()) {
+            out.writeVarint(p.getCheckpointIndex());
+        }
+    }
+
+    private void readAccounting(CheckpointDecoder in, Process p, long now) {
+        long age = in.readVarlong();
+        long inState = in.readVarlong();
+        if (age < 0 || age > now || inState < 0 || inState > age) {
+            throw new IllegalArgumentException("invalid accounting in checkpoint");
+        }
+
+        p.setCreatedAt(now - age);
+        p.setStateSince(now - inState);
+        p.setRunTicks(ProcessAccounting.readTicks(in));
+        p.setReadyTicks(ProcessAccounting.readTicks(in));
+        p.setBlockedTicks(ProcessAccounting.readTicks(in));
+        p.setDispatches(ProcessAccounting.readTicks(in));
+    }
+
+    private void readHoldings(CheckpointDecoder in, ResourceHoldings holdings, int size,
+        int resourceCount) {
+        for (int i = 0; i < size; i++) {
+            int index = in.readVarint(0, resourceCount - 1);
+            if (holdings.contains(index)) {
+                throw new IllegalArgumentException("duplicate holding in checkpoint");
+            }
+            holdings.add(index, in.readVarint(1, ResourceCatalogue.MAX_UNITS));
+        }
+    }
+
+    private Process readProcess(CheckpointDecoder in, Process[] byIndex, int count) {
+        return byIndex[in.readVarint(0, count)];
+    }
+
+    private void stall(Resource r) {
+        if (!r.isStalled()) {
+            r.setStalled(true);
+            stalled.add(r);
+        }
+    }
+
+    private boolean parseClaims(String spec) {
+        claimSpec.clear();
+        for (String entry : spec.trim().split("[,\\s]+")) {
+            String[] parts = entry.split(":", -1);
+            Resource r = parts.length == 2 ? getResource(parts[0]) : null;
+            int unit = parts.length == 2 ? Main.stringToInt(parts[1]) : Main.INVALID_NUM;
+
+            /* Every claim is on a known resource, once, within its units */
+            if (r == null || claimSpec.contains(r.getIndex()) || unit <= 0
+                || unit > r.getMaxUnits()) {
+                return false;
+            }
+            claimSpec.add(r.getIndex(), unit);
+        }
+        return true;
+    }
+
+    private void modifyTree(Process parent, Process child) {
+        if (parent != null && child != null) {
+            parent.addChild(child);
+            child.setParent(parent);
+        }
+    }
+}
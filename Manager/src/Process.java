@@ -1,6 +1,3 @@
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-
 /**
  * Class that represent a single process in the system.
  *
@@ -10,7 +7,7 @@ import java.util.LinkedList;
 public class Process {
 
     /**
-     * The number of types of priorities for processes
+     * The default number of types of priorities for processes
      */
     public static final int NUM_PRIORITY = 3;
 
@@ -33,13 +30,78 @@ public class Process {
      */
     private String pid;
     private int priority;
-    private LinkedHashMap<Resource, Integer> other_resources;
+    private ResourceHoldings other_resources;
     private int status_type;
-    private LinkedList<Process> status_list;
+    private ProcessList status_list;
+    private Process prev;
+    private Process next;
     private Process parent;
-    private LinkedList<Process> child;
     private int blockedReqUnit;
 
+    /**
+     * Creation tree children, linked through their sibling pointers
+     * so that a child is detached from its parent in constant time
+     */
+    private Process firstChild;
+    private Process lastChild;
+    private Process prevSibling;
+    private Process nextSibling;
+    private int childCount;
+
+    /**
+     * Order of blocking, times bypassed by a wake-up while at the head of
+     * its Block List, and links of its WaiterIndex bucket
+     */
+    private long blockedSeq;
+    private int bypassCount;
+    private WaiterIndex.Bucket bucket;
+    private Process bucketPrev;
+    private Process bucketNext;
+
+    /**
+     * Resource the process is blocked on, its wait edge in the wait-for
+     * graph
+     */
+    private Resource blockedOn;
+
+    /**
+     * Maximum units of each resource the process may hold, declared on
+     * creation in avoidance mode and null if none were declared, and its
+     * links in the safe sequence kept by the Banker
+     */
+    private ResourceHoldings claims;
+    private Process claimPrev;
+    private Process claimNext;
+
+    /**
+     * Virtual time accounting: the tick the process was created at, the
+     * tick it entered its current state at, the ticks it spent running,
+     * ready and blocked before that, and the number of times it was
+     * dispatched in place of another process
+     */
+    private long createdAt;
+    private long stateSince;
+    private long runTicks;
+    private long readyTicks;
+    private long blockedTicks;
+    private long dispatches;
+
+    /**
+     * Number of the process in creation order, from 1, while a checkpoint
+     * of the engine is written
+     */
+    private int checkpointIndex;
+
+    /**
+     * Lower-cased pid, creation order links and slot used by the
+     * ProcessTable. The slot is a small number unique among the processes
+     * of the table, which indexes state kept outside the process.
+     */
+    private String key;
+    private int slot;
+    private Process orderPrev;
+    private Process orderNext;
+
     /**
      * Sole constructor that requires two input
      * for creation of object. All new processes
@@ -50,14 +112,71 @@ public class Process {
      * @param priority any priority listed above
      */
     public Process(String pid, int priority) {
+        this.other_resources = new ResourceHoldings();
+        reset(pid, priority);
+    }
+
+    /**
+     * Reset every state & pointer of the PCB as if it was just
+     * constructed, so that a recycled PCB can be used for a new process.
+     * The resource holdings keep their storage.
+     *
+     * @param pid      process identification tag
+     * @param priority any priority listed above
+     */
+    public void reset(String pid, int priority) {
         this.pid = pid;
         this.priority = priority;
-        this.other_resources = new LinkedHashMap<Resource, Integer>();
+        this.other_resources.clear();
         this.status_type = Process.READY;
         this.status_list = null;
+        this.prev = null;
+        this.next = null;
         this.parent = null;
-        this.child = new LinkedList<Process>();
         this.blockedReqUnit = 0;
+        this.firstChild = null;
+        this.lastChild = null;
+        this.prevSibling = null;
+        this.nextSibling = null;
+        this.childCount = 0;
+        this.blockedSeq = 0;
+        this.bypassCount = 0;
+        this.bucket = null;
+        this.bucketPrev = null;
+        this.bucketNext = null;
+        this.blockedOn = null;
+        this.claims = null;
+        this.claimPrev = null;
+        this.claimNext = null;
+        this.createdAt = 0;
+        this.stateSince = 0;
+        this.runTicks = 0;
+        this.readyTicks = 0;
+        this.blockedTicks = 0;
+        this.dispatches = 0;
+        this.checkpointIndex = 0;
+        this.key = null;
+        this.slot = 0;
+        this.orderPrev = null;
+        this.orderNext = null;
+    }
+
+    /**
+     * Charge the ticks since the last state change to the current state
+     * of the process, before it changes state at the given tick.
+     *
+     * @param now the current tick of the virtual clock
+     */
+    public void account(long now) {
+        long elapsed = now - stateSince;
+        if (status_type == Process.RUNNING) {
+            runTicks += elapsed;
+        } else if (status_type == Process.READY) {
+            readyTicks += elapsed;
+        } else {
+            blockedTicks += elapsed;
+        }
+        stateSince = now;
     }
 
     /* Getters & Setters Methods */
@@ -70,10 +189,94 @@ public class Process {
         return priority;
     }
 
-    public LinkedHashMap<Resource, Integer> getResources() {
+    public ResourceHoldings getResources() {
         return other_resources;
     }
 
+    public ResourceHoldings getClaims() {
+        return claims;
+    }
+
+    public void setClaims(ResourceHoldings claims) {
+        this.claims = claims;
+    }
+
+    public int getClaim(int resource) {
+        return claims == null ? 0 : claims.get(resource);
+    }
+
+    public Process getClaimPrev() {
+        return claimPrev;
+    }
+
+    public void setClaimPrev(Process claimPrev) {
+        this.claimPrev = claimPrev;
+    }
+
+    public Process getClaimNext() {
+        return claimNext;
+    }
+
+    public void setClaimNext(Process claimNext) {
+        this.claimNext = claimNext;
+    }
+
+    public int getCheckpointIndex() {
+        return checkpointIndex;
+    }
+
+    public void setCheckpointIndex(int checkpointIndex) {
+        this.checkpointIndex = checkpointIndex;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getStateSince() {
+        return stateSince;
+    }
+
+    public void setStateSince(long stateSince) {
+        this.stateSince = stateSince;
+    }
+
+    public long getRunTicks() {
+        return runTicks;
+    }
+
+    public void setRunTicks(long runTicks) {
+        this.runTicks = runTicks;
+    }
+
+    public long getReadyTicks() {
+        return readyTicks;
+    }
+
+    public void setReadyTicks(long readyTicks) {
+        this.readyTicks = readyTicks;
+    }
+
+    public long getBlockedTicks() {
+        return blockedTicks;
+    }
+
+    public void setBlockedTicks(long blockedTicks) {
+        this.blockedTicks = blockedTicks;
+    }
+
+    public long getDispatches() {
+        return dispatches;
+    }
+
+    public void setDispatches(long dispatches) {
+        this.dispatches = dispatches;
+    }
+
     public int getType() {
         return status_type;
     }
@@ -82,14 +285,30 @@ public class Process {
         this.status_type = status_type;
     }
 
-    public LinkedList<Process> getList() {
+    public ProcessList getList() {
         return status_list;
     }
 
-    public void setList(LinkedList<Process> status_list) {
+    public void setList(ProcessList status_list) {
         this.status_list = status_list;
     }
 
+    public Process getPrev() {
+        return prev;
+    }
+
+    public void setPrev(Process prev) {
+        this.prev = prev;
+    }
+
+    public Process getNext() {
+        return next;
+    }
+
+    public void setNext(Process next) {
+        this.next = next;
+    }
+
     public Process getParent() {
         return parent;
     }
@@ -98,12 +317,128 @@ public class Process {
         this.parent = parent;
     }
 
-    public LinkedList<Process> getChild() {
-        return child;
+    public Process getFirstChild() {
+        return firstChild;
+    }
+
+    public Process getNextSibling() {
+        return nextSibling;
+    }
+
+    public int getChildCount() {
+        return childCount;
     }
 
     public void addChild(Process c) {
-        this.child.add(c);
+        c.prevSibling = lastChild;
+        c.nextSibling = null;
+
+        if (lastChild == null) {
+            firstChild = c;
+        } else {
+            lastChild.nextSibling = c;
+        }
+
+        lastChild = c;
+        childCount++;
+    }
+
+    public void removeChild(Process c) {
+        if (c.prevSibling == null) {
+            firstChild = c.nextSibling;
+        } else {
+            c.prevSibling.nextSibling = c.nextSibling;
+        }
+
+        if (c.nextSibling == null) {
+            lastChild = c.prevSibling;
+        } else {
+            c.nextSibling.prevSibling = c.prevSibling;
+        }
+
+        c.prevSibling = null;
+        c.nextSibling = null;
+        childCount--;
+    }
+
+    public long getBlockedSeq() {
+        return blockedSeq;
+    }
+
+    public void setBlockedSeq(long blockedSeq) {
+        this.blockedSeq = blockedSeq;
+    }
+
+    public int getBypassCount() {
+        return bypassCount;
+    }
+
+    public void setBypassCount(int bypassCount) {
+        this.bypassCount = bypassCount;
+    }
+
+    public WaiterIndex.Bucket getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(WaiterIndex.Bucket bucket) {
+        this.bucket = bucket;
+    }
+
+    public Process getBucketPrev() {
+        return bucketPrev;
+    }
+
+    public void setBucketPrev(Process bucketPrev) {
+        this.bucketPrev = bucketPrev;
+    }
+
+    public Process getBucketNext() {
+        return bucketNext;
+    }
+
+    public void setBucketNext(Process bucketNext) {
+        this.bucketNext = bucketNext;
+    }
+
+    public Resource getBlockedOn() {
+        return blockedOn;
+    }
+
+    public void setBlockedOn(Resource blockedOn) {
+        this.blockedOn = blockedOn;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public Process getOrderPrev() {
+        return orderPrev;
+    }
+
+    public void setOrderPrev(Process orderPrev) {
+        this.orderPrev = orderPrev;
+    }
+
+    public Process getOrderNext() {
+        return orderNext;
+    }
+
+    public void setOrderNext(Process orderNext) {
+        this.orderNext = orderNext;
     }
 
     public int getBlockedReqUnit() {
@@ -0,0 +1,202 @@
+/**
+ * Virtual time accounting of the processes of a PREngine, by priority
+ * level. Every process keeps its own ticks running, ready and blocked and
+ * its number of dispatches, charged by the engine at each state change.
+ * This keeps the totals of the destroyed processes of each level, with
+ * their turnaround from creation to destruction, and the ticks the
+ * processes of each level waited on each resource. Figures of live
+ * processes are added when they are reported, so every update is O(1).
+ */
+
+public class ProcessAccounting {
+
+    /**
+     * Totals of the destroyed processes of each level
+     */
+    private long[] destroyed = new long[0];
+    private long[] turnaround = new long[0];
+    private long[] runTicks = new long[0];
+    private long[] readyTicks = new long[0];
+    private long[] blockedTicks = new long[0];
+    private long[] dispatches = new long[0];
+
+    /**
+     * Ticks waited by the processes of each level on each resource, the
+     * resources of a level being next to each other, for waits that ended
+     */
+    private int numResources;
+    private long[] waitTicks = new long[0];
+
+    /**
+     * Forget everything, after every init.
+     *
+     * @param numPriority  the number of priority levels
+     * @param numResources the number of resources
+     */
+    public void reset(int numPriority, int numResources) {
+        this.numResources = numResources;
+        destroyed = new long[numPriority];
+        turnaround = new long[numPriority];
+        runTicks = new long[numPriority];
+        readyTicks = new long[numPriority];
+        blockedTicks = new long[numPriority];
+        dispatches = new long[numPriority];
+        waitTicks = new long[numPriority * numResources];
+    }
+
+    /**
+     * Record the end of a wait of a blocked process on the resource it is
+     * blocked on, before it leaves the Block List.
+     *
+     * @param p   the blocked process
+     * @param now the current tick of the virtual clock
+     */
+    public void endWait(Process p, long now) {
+        waitTicks[p.getPriority() * numResources + p.getBlockedOn().getIndex()]
+            += now - p.getStateSince();
+    }
+
+    /**
+     * Add the figures of a process that is being destroyed to the totals
+     * of its level. The process must be charged up to now.
+     *
+     * @param p   the destroyed process
+     * @param now the current tick of the virtual clock
+     */
+    public void destroy(Process p, long now) {
+        int level = p.getPriority();
+        destroyed[level]++;
+        turnaround[level] += now - p.getCreatedAt();
+        runTicks[level] += p.getRunTicks();
+        readyTicks[level] += p.getReadyTicks();
+        blockedTicks[level] += p.getBlockedTicks();
+        dispatches[level] += p.getDispatches();
+    }
+
+    /**
+     * Print the figures of every live process in creation order, then the
+     * totals of every level over its live and destroyed processes, e.g.
+     *
+     * init 0 1 run 0 ready 25 blocked 0 dispatches 1 age 25
+     * x 1 0 run 25 ready 0 blocked 0 dispatches 2 age 25
+     * y 1 2 run 0 ready 0 blocked 25 dispatches 1 age 25
+     * level 0 processes 1 destroyed 0 run 0 ready 25 blocked 0 dispatches 1 turnaround 0 wait R1:0 R2:0
+     * level 1 processes 2 destroyed 0 run 25 ready 0 blocked 25 dispatches 3 turnaround 0 wait R1:0 R2:25
+     *
+     * The turnaround is the total over the destroyed processes only.
+     *
+     * @param first     the first live process in creation order
+     * @param resources the resources, in catalogue order
+     * @param now       the current tick of the virtual clock
+     * @param out       the sink to print to
+     */
+    public void print(Process first, Resource[] resources, long now, OutputSink out) {
+        int numPriority = destroyed.length;
+        long[] live = new long[numPriority];
+        long[] run = runTicks.clone();
+        long[] ready = readyTicks.clone();
+        long[] blocked = blockedTicks.clone();
+        long[] dispatched = dispatches.clone();
+        long[] waits = waitTicks.clone();
+
+        for (Process p = first; p != null; p = p.getOrderNext()) {
+            long pRun = getTicks(p, Process.RUNNING, p.getRunTicks(), now);
+            long pReady = getTicks(p, Process.READY, p.getReadyTicks(), now);
+            long pBlocked = getTicks(p, Process.BLOCKED, p.getBlockedTicks(), now);
+
+            out.println(p.getPid() + " " + p.getPriority() + " " + p.getType()
+                + " run " + pRun + " ready " + pReady + " blocked " + pBlocked
+                + " dispatches " + p.getDispatches() + " age " + (now - p.getCreatedAt()));
+
+            int level = p.getPriority();
+            live[level]++;
+            run[level] += pRun;
+            ready[level] += pReady;
+            blocked[level] += pBlocked;
+            dispatched[level] += p.getDispatches();
+
+            /* The current wait of a blocked process has not ended yet */
+            if (p.getType() == Process.BLOCKED) {
+                waits[level * numResources + p.getBlockedOn().getIndex()]
+                    += now - p.getStateSince();
+            }
+        }
+
+        for (int level = 0; level < numPriority; level++) {
+            StringBuilder line = new StringBuilder("level ").append(level)
+                .append(" processes ").append(live[level])
+                .append(" destroyed ").append(destroyed[level])
+                .append(" run ").append(run[level])
+                .append(" ready ").append(ready[level])
+                .append(" blocked ").append(blocked[level])
+                .append(" dispatches ").append(dispatched[level])
+                .append(" turnaround ").append(turnaround[level])
+                .append(" wait");
+            for (Resource r : resources) {
+                line.append(' ').append(r.getRid()).append(':')
+                    .append(waits[level * numResources + r.getIndex()]);
+            }
+            out.println(line.toString());
+        }
+    }
+
+    /**
+     * Write every total to a checkpoint, level by level.
+     *
+     * @param out the checkpoint to write to
+     */
+    public void write(CheckpointEncoder out) {
+        for (int level = 0; level < destroyed.length; level++) {
+            out.writeVarlong(destroyed[level]);
+            out.writeVarlong(turnaround[level]);
+            out.writeVarlong(runTicks[level]);
+            out.writeVarlong(readyTicks[level]);
+            out.writeVarlong(blockedTicks[level]);
+            out.writeVarlong(dispatches[level]);
+            for (int r = 0; r < numResources; r++) {
+                out.writeVarlong(waitTicks[level * numResources + r]);
+            }
+        }
+    }
+
+    /**
+     * Read the totals written by write to a checkpoint.
+     *
+     * @param in           the checkpoint to read from
+     * @param numPriority  the number of priority levels
+     * @param numResources the number of resources
+     * @return the accounting read
+     * @throws IllegalArgumentException if a total is not valid
+     */
+    public static ProcessAccounting read(CheckpointDecoder in, int numPriority, int numResources) {
+        ProcessAccounting accounting = new ProcessAccounting();
+        accounting.reset(numPriority, numResources);
+
+        for (int level = 0; level < numPriority; level++) {
+            accounting.destroyed[level] = readTicks(in);
+            accounting.turnaround[level] = readTicks(in);
+            accounting.runTicks[level] = readTicks(in);
+            accounting.readyTicks[level] = readTicks(in);
+            accounting.blockedTicks[level] = readTicks(in);
+            accounting.dispatches[level] = readTicks(in);
+            for (int r = 0; r < numResources; r++) {
+                accounting.waitTicks[level * numResources + r] = readTicks(in);
+            }
+        }
+        return accounting;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static long getTicks(Process p, int type, long charged, long now) {
+        return p.getType() == type ? charged + now - p.getStateSince() : charged;
+    }
+
+    public static long readTicks(CheckpointDecoder in) {
+        long value = in.readVarlong();
+        if (value < 0) {
+            throw new IllegalArgumentException("invalid accounting in checkpoint");
+        }
+        return value;
+    }
+}
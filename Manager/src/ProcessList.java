@@ -0,0 +1,84 @@
+/**
+ * Intrusive doubly-linked FIFO list of processes used for the Ready List
+ * levels and the Block List of each resource. The links are stored in
+ * the process itself, so a process can only be in one list at a time
+ * and removal from anywhere in the list takes constant time.
+ */
+
+public class ProcessList {
+
+    /**
+     * Both ends of the list and its current length
+     */
+    private Process head;
+    private Process tail;
+    private int size;
+
+    /**
+     * Add the process to the back of the list.
+     *
+     * @param p the process to be added, must not be in any list
+     */
+    public void add(Process p) {
+        p.setPrev(tail);
+        p.setNext(null);
+
+        if (tail == null) {
+            head = p;
+        } else {
+            tail.setNext(p);
+        }
+
+        tail = p;
+        p.setList(this);
+        size++;
+    }
+
+    /**
+     * Remove the process from the list. Nothing happens if
+     * the process is not in this list.
+     *
+     * @param p the process to be removed
+     * @return whether the process was removed
+     */
+    public boolean remove(Process p) {
+        if (p.getList() != this) {
+            return false;
+        }
+
+        Process prev = p.getPrev();
+        Process next = p.getNext();
+
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.setNext(next);
+        }
+
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.setPrev(prev);
+        }
+
+        p.setPrev(null);
+        p.setNext(null);
+        p.setList(null);
+        size--;
+        return true;
+    }
+
+    /* Getters Methods */
+
+    public Process getFirst() {
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Pool of PCBs of destroyed processes, reused by later creates so that a
+ * steady create / destroy loop does not allocate a new Process and its
+ * resource holdings every time. Pooled processes are linked through their
+ * next pointer, which is free once a process is out of every list.
+ *
+ * A Process object handed out by the engine must not be kept after the
+ * process is destroyed, as it will be reused for another process.
+ */
+
+public class ProcessPool {
+
+    /**
+     * Default largest number of PCBs kept for reuse
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private int capacity;
+    private Process head;
+    private int size;
+
+    /**
+     * Number of creates served from the pool and by a new PCB
+     */
+    private long hits;
+    private long misses;
+
+    /**
+     * Constructor that keeps up to DEFAULT_CAPACITY PCBs.
+     */
+    public ProcessPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor that keeps up to the given number of PCBs.
+     *
+     * @param capacity the largest number of PCBs kept, 0 to disable pooling
+     */
+    public ProcessPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("invalid pool capacity: " + capacity);
+        }
+
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns a READY PCB for a new process, reusing a pooled one if any.
+     *
+     * @param pid      process identification tag
+     * @param priority priority of the process
+     * @return the PCB
+     */
+    public Process acquire(String pid, int priority) {
+        Process p = head;
+        if (p == null) {
+            misses++;
+            return new Process(pid, priority);
+        }
+
+        head = p.getNext();
+        size--;
+        hits++;
+
+        p.reset(pid, priority);
+        return p;
+    }
+
+    /**
+     * Keep the PCB of a destroyed process for reuse, unless the pool is full.
+     *
+     * @param p the PCB, must be out of every list and table
+     */
+    public void release(Process p) {
+        if (size == capacity) {
+            return;
+        }
+
+        /* Drop the pointers so the pool does not keep them reachable */
+        p.reset(null, Process.INIT);
+        p.setNext(head);
+        head = p;
+        size++;
+    }
+
+    /* Getters Methods */
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,162 @@
+import java.util.Arrays;
+
+/**
+ * Process table of PREngine, indexed by case-folded pid. Processes are
+ * kept in an open-addressed array and linked in creation order through
+ * the process itself, so adding and removing a process allocates nothing,
+ * unlike the entries of a LinkedHashMap.
+ *
+ * Every process is also given a slot, a number no other process of the
+ * table uses. Slots of removed processes are handed out again first, so
+ * state kept outside the processes can live in arrays indexed by slot
+ * that are no longer than the table has ever been.
+ */
+
+public class ProcessTable {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    /**
+     * Open-addressed table, null if empty
+     */
+    private Process[] table = new Process[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Both ends of the creation order
+     */
+    private Process head;
+    private Process tail;
+
+    /**
+     * Slots given back by removed processes, and the number of slots
+     * handed out so far
+     */
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeSlotCount;
+    private int slotCount;
+
+    /**
+     * Returns the process with the given key.
+     *
+     * @param key case-folded pid
+     * @return the process, or null if no such process
+     */
+    public Process get(String key) {
+        int mask = table.length - 1;
+        for (int i = hash(key) & mask; table[i] != null; i = (i + 1) & mask) {
+            if (table[i].getKey().equals(key)) {
+                return table[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add the process after every other process in creation order,
+     * giving it a free slot.
+     *
+     * @param p   the process to be added
+     * @param key case-folded pid of the process, must not be in the table
+     */
+    public void add(Process p, String key) {
+        p.setKey(key);
+        p.setSlot(freeSlotCount > 0 ? freeSlots[--freeSlotCount] : slotCount++);
+
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(p);
+
+        p.setOrderPrev(tail);
+        p.setOrderNext(null);
+        if (tail == null) {
+            head = p;
+        } else {
+            tail.setOrderNext(p);
+        }
+        tail = p;
+    }
+
+    /**
+     * Remove the process from the table.
+     *
+     * @param p the process to be removed, must be in the table
+     */
+    public void remove(Process p) {
+        int mask = table.length - 1;
+        int i = hash(p.getKey()) & mask;
+        while (table[i] != p) {
+            i = (i + 1) & mask;
+        }
+
+        /* Shift back later entries of the probe run into the hole */
+        for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+            int home = hash(table[j].getKey()) & mask;
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = null;
+        size--;
+
+        Process prev = p.getOrderPrev();
+        Process next = p.getOrderNext();
+        if (prev == null) {
+            head = next;
+        } else {
+            prev.setOrderNext(next);
+        }
+        if (next == null) {
+            tail = prev;
+        } else {
+            next.setOrderPrev(prev);
+        }
+        p.setOrderPrev(null);
+        p.setOrderNext(null);
+
+        if (freeSlotCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeSlotCount++] = p.getSlot();
+    }
+
+    /* Getters Methods */
+
+    public Process getFirst() {
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private void insert(Process p) {
+        int mask = table.length - 1;
+        int i = hash(p.getKey()) & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = p;
+    }
+
+    private void rehash(int length) {
+        table = new Process[length];
+        for (Process p = head; p != null; p = p.getOrderNext()) {
+            insert(p);
+        }
+    }
+}
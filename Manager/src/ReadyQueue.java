@@ -0,0 +1,128 @@
+/**
+ * Multi-level Ready List of the system. Each priority level has its own
+ * FIFO queue and an occupancy bitmap is kept over all levels so that the
+ * highest non-empty level is found with a couple of bit operations
+ * instead of walking every level.
+ */
+
+public class ReadyQueue {
+
+    /**
+     * Maximum number of priority levels supported (64 words of 64 bits).
+     */
+    public static final int MAX_LEVELS = Long.SIZE * Long.SIZE;
+
+    /**
+     * FIFO queue of ready processes for each priority level.
+     */
+    private ProcessList[] levels;
+
+    /**
+     * Bit i of word w is set when level (w * 64 + i) is non-empty.
+     */
+    private long[] occupancy;
+
+    /**
+     * Bit w is set when occupancy[w] has at least one bit set.
+     */
+    private long summary;
+
+    /**
+     * Sole constructor that creates an empty queue for
+     * the given number of priority levels.
+     *
+     * @param numLevels the number of priority levels, between 1 and MAX_LEVELS
+     */
+    public ReadyQueue(int numLevels) {
+        if (numLevels <= 0 || numLevels > MAX_LEVELS) {
+            throw new IllegalArgumentException("invalid number of priority levels: " + numLevels);
+        }
+
+        levels = new ProcessList[numLevels];
+        for (int i = 0; i < numLevels; i++) {
+            levels[i] = new ProcessList();
+        }
+
+        occupancy = new long[(numLevels + Long.SIZE - 1) / Long.SIZE];
+        summary = 0L;
+    }
+
+    /**
+     * Add the process to the back of the queue of its priority level.
+     *
+     * @param p the process to be added
+     */
+    public void add(Process p) {
+        int level = p.getPriority();
+        levels[level].add(p);
+        markOccupied(level);
+    }
+
+    /**
+     * Remove the process from the queue of its priority level.
+     *
+     * @param p the process to be removed
+     */
+    public void remove(Process p) {
+        int level = p.getPriority();
+        levels[level].remove(p);
+        if (levels[level].isEmpty()) {
+            markEmpty(level);
+        }
+    }
+
+    /**
+     * Returns the first process of the highest non-empty priority level.
+     *
+     * @return the highest priority ready process, or null if queue is empty
+     */
+    public Process getHighest() {
+        int level = getHighestLevel();
+        if (level < 0) {
+            return null;
+        }
+
+        return levels[level].getFirst();
+    }
+
+    /**
+     * Returns the highest non-empty priority level.
+     *
+     * @return the highest non-empty level, or -1 if queue is empty
+     */
+    public int getHighestLevel() {
+        if (summary == 0L) {
+            return -1;
+        }
+
+        int word = Long.SIZE - 1 - Long.numberOfLeadingZeros(summary);
+        int bit = Long.SIZE - 1 - Long.numberOfLeadingZeros(occupancy[word]);
+        return word * Long.SIZE + bit;
+    }
+
+    /* Getters Methods */
+
+    public int getNumLevels() {
+        return levels.length;
+    }
+
+    public ProcessList getLevel(int level) {
+        return levels[level];
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void markOccupied(int level) {
+        int word = level / Long.SIZE;
+        occupancy[word] |= 1L << (level % Long.SIZE);
+        summary |= 1L << word;
+    }
+
+    private void markEmpty(int level) {
+        int word = level / Long.SIZE;
+        occupancy[word] &= ~(1L << (level % Long.SIZE));
+        if (occupancy[word] == 0L) {
+            summary &= ~(1L << word);
+        }
+    }
+}
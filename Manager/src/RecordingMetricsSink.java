@@ -0,0 +1,299 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Metrics sink that keeps every measurement in plain counters and
+ * arrays, used by the driver when started with --metrics. Everything is
+ * kept for the whole run, across init commands. Not thread-safe, each
+ * engine needs its own sink.
+ */
+
+public class RecordingMetricsSink implements MetricsSink {
+
+    /**
+     * Quantiles reported for every operation, and their names
+     */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * Counters of scheduling events
+     */
+    private long contextSwitches;
+    private long preemptions;
+    private long blocks;
+    private long unblocks;
+
+    /**
+     * Number of errors by cause, indexed by ordinal
+     */
+    private long[] errors = new long[ErrorCause.values().length];
+
+    /**
+     * Deepest each priority level and each Block List has been, indexed
+     * by level and by resource index, grown as needed
+     */
+    private int[] readyPeaks = new int[0];
+    private int[] blockPeaks = new int[0];
+
+    /**
+     * Latency of each operation, indexed by ordinal
+     */
+    private LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+
+    /**
+     * Constructor that creates a sink with nothing recorded.
+     */
+    public RecordingMetricsSink() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public long startTimer() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void stopTimer(Operation operation, long start) {
+        latencies[operation.ordinal()].record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void contextSwitch(boolean isPreemption) {
+        contextSwitches++;
+        if (isPreemption) {
+            preemptions++;
+        }
+    }
+
+    @Override
+    public void contextSwitches(long count) {
+        contextSwitches += count;
+    }
+
+    @Override
+    public void block() {
+        blocks++;
+    }
+
+    @Override
+    public void unblock() {
+        unblocks++;
+    }
+
+    @Override
+    public void error(ErrorCause cause) {
+        errors[cause.ordinal()]++;
+    }
+
+    @Override
+    public void readyDepth(int level, int depth) {
+        if (level >= readyPeaks.length) {
+            readyPeaks = Arrays.copyOf(readyPeaks, level + 1);
+        }
+        readyPeaks[level] = Math.max(readyPeaks[level], depth);
+    }
+
+    @Override
+    public void blockDepth(int index, int depth) {
+        if (index >= blockPeaks.length) {
+            blockPeaks = Arrays.copyOf(blockPeaks, index + 1);
+        }
+        blockPeaks[index] = Math.max(blockPeaks[index], depth);
+    }
+
+    /**
+     * Print the counters, the errors by cause, the current and peak depth
+     * of every list as depth/peak, and the count and quantiles of each
+     * operation in nanoseconds, e.g.
+     *
+     * switches 5 preemptions 2 blocks 1 unblocks 1 pool_hits 2 pool_misses 4
+     * errors 1 unknown_process 1
+     * ready 0:1/1 1:2/3 2:0/1
+     * blocked R1:0/1 R2:0/0 R3:0/0 R4:0/0
+     * request 3 p50 1023 p90 2047 p99 2047 p999 2047 max 1900
+     *
+     * @param engine the engine the measurements were taken on
+     * @param out    the sink to print to
+     */
+    @Override
+    public void printStats(PREngine engine, OutputSink out) {
+        out.println("switches " + contextSwitches + " preemptions " + preemptions
+            + " blocks " + blocks + " unblocks " + unblocks
+            + " pool_hits " + engine.getPoolHits() + " pool_misses " + engine.getPoolMisses());
+
+        /* Only the causes that occurred */
+        StringBuilder line = new StringBuilder("errors ").append(getErrorCount());
+        for (ErrorCause cause : ErrorCause.values()) {
+            if (errors[cause.ordinal()] > 0) {
+                line.append(' ').append(toName(cause)).append(' ').append(errors[cause.ordinal()]);
+            }
+        }
+        out.println(line.toString());
+
+        line = new StringBuilder("ready");
+        for (int level = 0; level < engine.getNumPriority(); level++) {
+            line.append(' ').append(level).append(':').append(engine.getReadyCount(level))
+                .append('/').append(getPeak(readyPeaks, level));
+        }
+        out.println(line.toString());
+
+        line = new StringBuilder("blocked");
+        for (Resource r : engine.getResources()) {
+            line.append(' ').append(r.getRid()).append(':').append(r.getBlockList().size())
+                .append('/').append(getPeak(blockPeaks, r.getIndex()));
+        }
+        out.println(line.toString());
+
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = latencies[operation.ordinal()];
+            line = new StringBuilder(toName(operation)).append(' ').append(h.getCount());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                line.append(' ').append(QUANTILE_NAMES[i]).append(' ')
+                    .append(h.getValueAt(QUANTILES[i]));
+            }
+            line.append(" max ").append(h.getMax());
+            out.println(line.toString());
+        }
+    }
+
+    /**
+     * Returns everything as a single JSON object of the form
+     *
+     * {"counters": {"context_switches": 5, ...},
+     *  "errors": {"invalid_command": 0, ...},
+     *  "ready_list": [{"level": 0, "depth": 1, "peak": 1}, ...],
+     *  "block_list": [{"rid": "R1", "depth": 0, "peak": 1}, ...],
+     *  "latency_ns": {"create": {"count": 3, "min": ..., "mean": ..., "p50": ...,
+     *                 "p90": ..., "p99": ..., "p999": ..., "max": ...}, ...}}
+     *
+     * Every cause and operation is listed, even if it never occurred.
+     *
+     * @param engine the engine the measurements were taken on
+     * @return the JSON text, on a single line
+     */
+    @Override
+    public String toJson(PREngine engine) {
+        StringBuilder json = new StringBuilder("{\"counters\": {");
+        json.append("\"context_switches\": ").append(contextSwitches);
+        json.append(", \"preemptions\": ").append(preemptions);
+        json.append(", \"blocks\": ").append(blocks);
+        json.append(", \"unblocks\": ").append(unblocks);
+        json.append(", \"pool_hits\": ").append(engine.getPoolHits());
+        json.append(", \"pool_misses\": ").append(engine.getPoolMisses());
+
+        json.append("}, \"errors\": {");
+        for (ErrorCause cause : ErrorCause.values()) {
+            separate(json, cause.ordinal());
+            json.append('"').append(toName(cause)).append("\": ").append(errors[cause.ordinal()]);
+        }
+
+        json.append("}, \"ready_list\": [");
+        for (int level = 0; level < engine.getNumPriority(); level++) {
+            separate(json, level);
+            json.append("{\"level\": ").append(level);
+            json.append(", \"depth\": ").append(engine.getReadyCount(level));
+            json.append(", \"peak\": ").append(getPeak(readyPeaks, level)).append('}');
+        }
+
+        json.append("], \"block_list\": [");
+        Resource[] resources = engine.getResources();
+        for (int i = 0; i < resources.length; i++) {
+            separate(json, i);
+            json.append("{\"rid\": ");
+            appendString(json, resources[i].getRid());
+            json.append(", \"depth\": ").append(resources[i].getBlockList().size());
+            json.append(", \"peak\": ").append(getPeak(blockPeaks, resources[i].getIndex()))
+                .append('}');
+        }
+
+        json.append("], \"latency_ns\": {");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = latencies[operation.ordinal()];
+            separate(json, operation.ordinal());
+            json.append('"').append(toName(operation)).append("\": {");
+            json.append("\"count\": ").append(h.getCount());
+            json.append(", \"min\": ").append(h.getMin());
+            json.append(", \"mean\": ").append(h.getMean());
+            for (int i = 0; i < QUANTILES.length; i++) {
+                json.append(", \"").append(QUANTILE_NAMES[i]).append("\": ")
+                    .append(h.getValueAt(QUANTILES[i]));
+            }
+            json.append(", \"max\": ").append(h.getMax()).append('}');
+        }
+
+        return json.append("}}").toString();
+    }
+
+    /* Getters Methods */
+
+    public long getContextSwitches() {
+        return contextSwitches;
+    }
+
+    public long getPreemptions() {
+        return preemptions;
+    }
+
+    public long getBlocks() {
+        return blocks;
+    }
+
+    public long getUnblocks() {
+        return unblocks;
+    }
+
+    public long getErrors(ErrorCause cause) {
+        return errors[cause.ordinal()];
+    }
+
+    public long getErrorCount() {
+        long total = 0;
+        for (long n : errors) {
+            total += n;
+        }
+        return total;
+    }
+
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static int getPeak(int[] peaks, int index) {
+        return index < peaks.length ? peaks[index] : 0;
+    }
+
+    private static String toName(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void separate(StringBuilder json, int index) {
+        if (index > 0) {
+            json.append(", ");
+        }
+    }
+
+    private static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -1,4 +1,4 @@
-import java.util.LinkedList;
+import java.util.Arrays;
 
 /**
  * Class that represent a single resource in the system.
@@ -14,20 +14,93 @@ public class Resource {
     private String rid;
     private int maxUnits;
     private int freeUnits;
-    private LinkedList<Process> blockList;
+    private ProcessList blockList;
 
     /**
-     * Sole constructor of this class that requires
-     * two input.
+     * Position of the resource in its catalogue, unique within an engine
+     */
+    private int index;
+
+    /**
+     * Order blocked processes are woken up in, and the index over
+     * their requests for policies other than FIFO
+     */
+    private WakeUpPolicy policy;
+    private WaiterIndex waiters;
+
+    /**
+     * Processes holding units of the resource in no particular order,
+     * the request edges of the wait-for graph seen from the resource
+     */
+    private Process[] holders = new Process[2];
+    private int holderCount;
+
+    /**
+     * Whether a waiter that fits in the free units is held back by the
+     * Banker, so the resource is retried once units come back elsewhere
+     */
+    private boolean stalled;
+
+    /**
+     * Constructor of a resource that wakes up blocked processes
+     * in FIFO order.
+     *
+     * @param rid   identification of resource
+     * @param unit  the number units the resource have
+     * @param index position of the resource in its catalogue
+     */
+    public Resource(String rid, int unit, int index) {
+        this(rid, unit, index, WakeUpPolicy.FIFO);
+    }
+
+    /**
+     * Constructor of a resource with the given wake-up policy.
      *
-     * @param rid  identification of resource
-     * @param unit the number units the resource have
+     * @param rid    identification of resource
+     * @param unit   the number units the resource have
+     * @param index  position of the resource in its catalogue
+     * @param policy order blocked processes are woken up in
      */
-    public Resource(String rid, int unit) {
+    public Resource(String rid, int unit, int index, WakeUpPolicy policy) {
         this.rid = rid;
+        this.index = index;
+        this.policy = policy;
+        this.waiters = policy == WakeUpPolicy.FIFO ? null : new WaiterIndex();
         maxUnits = unit;
         freeUnits = maxUnits;
-        blockList = new LinkedList<Process>();
+        blockList = new ProcessList();
+    }
+
+    /**
+     * Add a process that now holds units of the resource, recording
+     * its position in the holdings of the process.
+     *
+     * @param p the process, must not hold the resource yet
+     */
+    public void addHolder(Process p) {
+        if (holderCount == holders.length) {
+            holders = Arrays.copyOf(holders, holderCount * 2);
+        }
+
+        p.getResources().setHolderPosition(index, holderCount);
+        holders[holderCount++] = p;
+    }
+
+    /**
+     * Remove a process that no longer holds units of the resource,
+     * moving the last holder into its place.
+     *
+     * @param p the process, must be a holder still holding the resource
+     */
+    public void removeHolder(Process p) {
+        int position = p.getResources().getHolderPosition(index);
+        Process last = holders[--holderCount];
+
+        holders[position] = last;
+        holders[holderCount] = null;
+        if (last != p) {
+            last.getResources().setHolderPosition(index, position);
+        }
     }
 
     /* Getters & Setters Methods */
@@ -48,7 +121,35 @@ public class Resource {
         this.freeUnits = freeUnits;
     }
 
-    public LinkedList<Process> getBlockList() {
+    public ProcessList getBlockList() {
         return blockList;
     }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public WakeUpPolicy getPolicy() {
+        return policy;
+    }
+
+    public WaiterIndex getWaiters() {
+        return waiters;
+    }
+
+    public int getHolderCount() {
+        return holderCount;
+    }
+
+    public Process getHolder(int position) {
+        return holders[position];
+    }
+
+    public boolean isStalled() {
+        return stalled;
+    }
+
+    public void setStalled(boolean stalled) {
+        this.stalled = stalled;
+    }
 }
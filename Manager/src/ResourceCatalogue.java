@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Ordered list of the resources that every init creates, with the number
+ * of units of each. The default catalogue is R1..R4 with 1..4 units.
+ *
+ * A catalogue file has one resource per line, its rid followed by its
+ * units and optionally its wake-up policy. Blank lines and lines starting
+ * with '#' are ignored.
+ *
+ *     # rid units [policy]
+ *     R1 1
+ *     disk 1000000 best-fit
+ *
+ * A catalogue spec given on the command line is a comma separated list of
+ * rid:units or rid:units:policy entries. An entry with a numbered range of
+ * rids, such as R1..R5000:10, stands for R1, R2, ... R5000 with 10 units
+ * each. Resources without a policy use the default policy, FIFO unless
+ * set with withDefaultPolicy.
+ *
+ * Rids are unique ignoring case, as they are looked up ignoring case.
+ */
+
+public class ResourceCatalogue {
+
+    /**
+     * Largest number of units of a single resource, so that units held
+     * plus units requested can never overflow an int
+     */
+    public static final int MAX_UNITS = Integer.MAX_VALUE / 2;
+
+    /**
+     * The default catalogue of the project, R1..R4 with 1..4 units
+     */
+    public static final ResourceCatalogue STANDARD =
+        parse("R1:1,R2:2,R3:3,R4:4");
+
+    /**
+     * Rids and units of every resource, in catalogue order
+     */
+    private String[] rids;
+    private int[] units;
+
+    /**
+     * Wake-up policy of every resource, null where the default is used
+     */
+    private WakeUpPolicy[] policies;
+    private WakeUpPolicy defaultPolicy;
+
+    /**
+     * Constructor used by the factory methods once every entry is valid.
+     *
+     * @param rids          the rid of every resource
+     * @param units         the units of every resource
+     * @param policies      the wake-up policy of every resource, null for default
+     * @param defaultPolicy the wake-up policy of resources without one
+     */
+    private ResourceCatalogue(String[] rids, int[] units, WakeUpPolicy[] policies,
+        WakeUpPolicy defaultPolicy) {
+        this.rids = rids;
+        this.units = units;
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * Read a catalogue given on the command line, which is the name of a
+     * catalogue file if such a file exists and a catalogue spec otherwise.
+     *
+     * @param value the file or spec
+     * @return the catalogue
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a resource is not valid
+     */
+    public static ResourceCatalogue read(String value) throws IOException {
+        if (isRegularFile(value)) {
+            return load(Paths.get(value));
+        }
+        return parse(value);
+    }
+
+    /**
+     * Read a catalogue file.
+     *
+     * @param file the catalogue file, see class description
+     * @return the catalogue
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a line is not a valid resource
+     */
+    public static ResourceCatalogue load(Path file) throws IOException {
+        Builder builder = new Builder();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+
+            /* Skip blank lines and comments */
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\\s+");
+            if (fields.length != 2 && fields.length != 3) {
+                throw new IllegalArgumentException(
+                    "line " + (i + 1) + ": expected <rid> <units> [policy] but was " + line);
+            }
+
+            builder.add(fields[0], parseUnits(fields[1]),
+                fields.length == 3 ? WakeUpPolicy.parse(fields[2]) : null);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Read a catalogue spec such as R1:1,R2:2 or R1..R5000:10:best-fit.
+     *
+     * @param spec the catalogue spec, see class description
+     * @return the catalogue
+     * @throws IllegalArgumentException if an entry is not a valid resource
+     */
+    public static ResourceCatalogue parse(String spec) {
+        Builder builder = new Builder();
+
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+
+            String[] fields = entry.split(":", -1);
+            if (fields.length != 2 && fields.length != 3) {
+                throw new IllegalArgumentException(
+                    "expected <rid>:<units>[:policy] but was " + entry);
+            }
+
+            String rid = fields[0].trim();
+            int unit = parseUnits(fields[1].trim());
+            WakeUpPolicy policy = fields.length == 3 ? WakeUpPolicy.parse(fields[2]) : null;
+
+            int range = rid.indexOf("..");
+            if (range < 0) {
+                builder.add(rid, unit, policy);
+            } else {
+                addRange(builder, rid.substring(0, range), rid.substring(range + 2), unit,
+                    policy);
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Create a catalogue of the given resources, each with its own wake-up
+     * policy, such as the resources restored from a checkpoint.
+     *
+     * @param rids     the rid of every resource
+     * @param units    the units of every resource
+     * @param policies the wake-up policy of every resource
+     * @return the catalogue
+     * @throws IllegalArgumentException if a resource is not valid
+     */
+    public static ResourceCatalogue of(String[] rids, int[] units, WakeUpPolicy[] policies) {
+        Builder builder = new Builder();
+        for (int i = 0; i < rids.length; i++) {
+            builder.add(rids[i], parseUnits(Integer.toString(units[i])), policies[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a copy of this catalogue where resources without a wake-up
+     * policy of their own use the given policy.
+     *
+     * @param policy the wake-up policy of resources without one
+     * @return the new catalogue
+     */
+    public ResourceCatalogue withDefaultPolicy(WakeUpPolicy policy) {
+        return new ResourceCatalogue(rids, units, policies, policy);
+    }
+
+    /**
+     * Returns whether every resource is woken up in FIFO order.
+     *
+     * @return true if no resource uses another policy
+     */
+    public boolean isAllFifo() {
+        for (int i = 0; i < rids.length; i++) {
+            if (getPolicy(i) != WakeUpPolicy.FIFO) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a new resource for every entry of the catalogue, with its
+     * position in the catalogue as its index.
+     *
+     * @return the new resources, in catalogue order
+     */
+    public Resource[] createResources() {
+        Resource[] resources = new Resource[rids.length];
+        for (int i = 0; i < rids.length; i++) {
+            resources[i] = new Resource(rids[i], units[i], i, getPolicy(i));
+        }
+        return resources;
+    }
+
+    /* Getters & Setters Methods */
+
+    public int size() {
+        return rids.length;
+    }
+
+    public String getRid(int index) {
+        return rids[index];
+    }
+
+    public int getUnits(int index) {
+        return units[index];
+    }
+
+    public WakeUpPolicy getPolicy(int index) {
+        return policies[index] == null ? defaultPolicy : policies[index];
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static boolean isRegularFile(String name) {
+        try {
+            return Files.isRegularFile(Paths.get(name));
+        } catch (InvalidPathException e) {
+            return false;
+        }
+    }
+
+    private static void addRange(Builder builder, String first, String last, int unit,
+        WakeUpPolicy policy) {
+        String prefix = stripNumber(first);
+        if (!prefix.equals(stripNumber(last)) || prefix.length() == first.length()
+            || prefix.length() == last.length()) {
+            throw new IllegalArgumentException("invalid rid range " + first + ".." + last);
+        }
+
+        int from = parseNumber(first.substring(prefix.length()));
+        int to = parseNumber(last.substring(prefix.length()));
+        if (from > to) {
+            throw new IllegalArgumentException("invalid rid range " + first + ".." + last);
+        }
+
+        for (int i = from; i <= to; i++) {
+            builder.add(prefix + i, unit, policy);
+        }
+    }
+
+    private static String stripNumber(String rid) {
+        int end = rid.length();
+        while (end > 0 && Character.isDigit(rid.charAt(end - 1))) {
+            end--;
+        }
+        return rid.substring(0, end);
+    }
+
+    private static int parseNumber(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + s);
+        }
+    }
+
+    private static int parseUnits(String s) {
+        int unit = parseNumber(s);
+        if (unit <= 0 || unit > MAX_UNITS) {
+            throw new IllegalArgumentException("units must be between 1 and " + MAX_UNITS
+                + " but was " + s);
+        }
+        return unit;
+    }
+
+    /**
+     * Collects and validates the entries of a catalogue being read.
+     */
+    private static class Builder {
+
+        private ArrayList<String> rids = new ArrayList<String>();
+        private int[] units = new int[16];
+        private ArrayList<WakeUpPolicy> policies = new ArrayList<WakeUpPolicy>();
+        private HashSet<String> keys = new HashSet<String>();
+
+        /**
+         * Append a resource to the catalogue.
+         *
+         * @param rid    the rid of the resource
+         * @param unit   the units of the resource
+         * @param policy the wake-up policy of the resource, null for default
+         * @throws IllegalArgumentException if the rid is not valid or already used
+         */
+        private void add(String rid, int unit, WakeUpPolicy policy) {
+            if (rid.isEmpty() || !rid.equals(rid.trim()) || rid.split("\\s+").length != 1) {
+                throw new IllegalArgumentException("invalid rid '" + rid + "'");
+            }
+
+            if (!keys.add(PREngine.toKey(rid))) {
+                throw new IllegalArgumentException("duplicate rid " + rid);
+            }
+
+            if (rids.size() == units.length) {
+                units = Arrays.copyOf(units, units.length * 2);
+            }
+
+            units[rids.size()] = unit;
+            rids.add(rid);
+            policies.add(policy);
+        }
+
+        /**
+         * Create the catalogue of every resource added.
+         *
+         * @return the catalogue
+         * @throws IllegalArgumentException if no resource was added
+         */
+        private ResourceCatalogue build() {
+            if (rids.isEmpty()) {
+                throw new IllegalArgumentException("catalogue has no resources");
+            }
+
+            return new ResourceCatalogue(rids.toArray(new String[rids.size()]),
+                Arrays.copyOf(units, rids.size()),
+                policies.toArray(new WakeUpPolicy[policies.size()]), WakeUpPolicy.FIFO);
+        }
+    }
+}
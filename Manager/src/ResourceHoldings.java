@@ -0,0 +1,156 @@
+import java.util.Arrays;
+
+/**
+ * Units of each resource held by a single process, keyed by the dense
+ * index of the resource. Entries are packed as (index, units, position)
+ * triples in a single int array in the order the resources were first
+ * acquired, which is also the order they are released in when the process
+ * is destroyed. The position is where the process sits in the holders of
+ * the resource, so that it can be dropped from them in constant time.
+ *
+ * A process only holds a handful of resources at a time, so a linear
+ * scan of the packed array beats hashing and nothing is ever boxed.
+ * Processes that hold nothing share an empty array.
+ */
+
+public class ResourceHoldings {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Packed entries, resource index at 3 * i, units at 3 * i + 1
+     * and position among the holders of the resource at 3 * i + 2
+     */
+    private int[] entries = EMPTY;
+    private int size;
+
+    /**
+     * Returns the number of units held of the resource.
+     *
+     * @param resource the index of the resource
+     * @return the units held, 0 if none
+     */
+    public int get(int resource) {
+        int i = indexOf(resource);
+        return i < 0 ? 0 : entries[i + 1];
+    }
+
+    /**
+     * Returns whether any units of the resource are held.
+     *
+     * @param resource the index of the resource
+     * @return true if the resource is held
+     */
+    public boolean contains(int resource) {
+        return indexOf(resource) >= 0;
+    }
+
+    /**
+     * Add units of the resource, after all other resources held if it
+     * is not held yet.
+     *
+     * @param resource the index of the resource
+     * @param unit     the units acquired
+     * @return true if the resource was not held before
+     */
+    public boolean add(int resource, int unit) {
+        int i = indexOf(resource);
+        if (i >= 0) {
+            entries[i + 1] += unit;
+            return false;
+        }
+
+        if (3 * size == entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(6, entries.length * 2));
+        }
+
+        entries[3 * size] = resource;
+        entries[3 * size + 1] = unit;
+        entries[3 * size + 2] = -1;
+        size++;
+        return true;
+    }
+
+    /**
+     * Set the units held of a resource that is already held.
+     *
+     * @param resource the index of the resource
+     * @param unit     the units now held
+     */
+    public void set(int resource, int unit) {
+        entries[indexOf(resource) + 1] = unit;
+    }
+
+    /**
+     * Remove the resource, keeping the order of the rest.
+     *
+     * @param resource the index of the resource
+     */
+    public void remove(int resource) {
+        int i = indexOf(resource);
+        if (i < 0) {
+            return;
+        }
+
+        System.arraycopy(entries, i + 3, entries, i, 3 * size - i - 3);
+        size--;
+    }
+
+    /**
+     * Returns the position of the process among the holders of a
+     * resource that is held.
+     *
+     * @param resource the index of the resource
+     * @return the position
+     */
+    public int getHolderPosition(int resource) {
+        return entries[indexOf(resource) + 2];
+    }
+
+    /**
+     * Set the position of the process among the holders of a resource
+     * that is held.
+     *
+     * @param resource the index of the resource
+     * @param position the position
+     */
+    public void setHolderPosition(int resource, int position) {
+        entries[indexOf(resource) + 2] = position;
+    }
+
+    /**
+     * Remove every resource.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /* Getters & Setters Methods */
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getResourceAt(int position) {
+        return entries[3 * position];
+    }
+
+    public int getUnitsAt(int position) {
+        return entries[3 * position + 1];
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private int indexOf(int resource) {
+        for (int i = 0; i < 3 * size; i += 3) {
+            if (entries[i] == resource) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
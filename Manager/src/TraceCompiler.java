@@ -0,0 +1,68 @@
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compiler that turns a text script of driver commands into the compact
+ * binary trace format, to be replayed later with "Main --replay <file>".
+ * Lines are parsed exactly like the driver does, so invalid commands are
+ * recorded as the errors they would print.
+ *
+ * Usage: java TraceCompiler <script> <trace> [--levels <n>]
+ */
+
+public class TraceCompiler {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: java TraceCompiler <script> <trace> [--levels <n>]");
+            return;
+        }
+
+        /* Levels are needed as init records carry the number of levels */
+        int numPriority = Process.NUM_PRIORITY;
+        if (args.length == 4 && args[2].equalsIgnoreCase("--levels")) {
+            numPriority = Main.stringToInt(args[3]);
+            if (numPriority <= Process.INIT || numPriority > ReadyQueue.MAX_LEVELS) {
+                System.err.println("--levels must be between 1 and " + ReadyQueue.MAX_LEVELS);
+                return;
+            }
+        } else if (args.length != 2) {
+            System.err.println("usage: java TraceCompiler <script> <trace> [--levels <n>]");
+            return;
+        }
+
+        try {
+            compile(new FileInputStream(args[0]), new FileOutputStream(args[1]), numPriority);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("cannot compile " + args[0] + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compile the text script into a binary trace. Both streams are closed.
+     *
+     * @param script      the text script of driver commands
+     * @param trace       the stream to write the binary trace to
+     * @param numPriority the number of priority levels used on every init
+     * @throws IOException if the script cannot be read or the trace written
+     * @throws IllegalArgumentException if the number of levels is invalid, or a
+     *                                  name is too long for the trace
+     */
+    public static void compile(InputStream script, OutputStream trace, int numPriority)
+        throws IOException {
+        try (InputStream in = script; OutputStream out = new BufferedOutputStream(trace)) {
+            if (numPriority <= Process.INIT || numPriority > ReadyQueue.MAX_LEVELS) {
+                throw new IllegalArgumentException("invalid number of levels: " + numPriority);
+            }
+
+            TraceWriter writer = new TraceWriter(out);
+            new FastCommandReader(in, writer, FastCommandReader.DEFAULT_CHUNK_SIZE, numPriority)
+                .replay();
+            writer.flush();
+        }
+    }
+}
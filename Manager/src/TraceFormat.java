@@ -0,0 +1,70 @@
+/**
+ * Constants of the compact binary trace format shared by TraceWriter
+ * and TraceReplayer.
+ *
+ * A trace starts with the 4 byte MAGIC and a VERSION byte, followed by
+ * one record per kernel call. Every record is an opcode byte followed by
+ * its operands as varints. Pids and rids are interned: the first time a
+ * name is used it is defined by a DEFINE_PID / DEFINE_RID record holding
+ * its UTF-8 bytes, and later records refer to it by its index in the
+ * order of definition, until a RESET_NAMES record starts over. Priorities
+ * and units are zigzag encoded so that invalid negative values keep their
+ * meaning. The VERSION is raised whenever a record is added, so that an
+ * older replayer rejects the trace instead of failing on its opcode.
+ */
+
+public class TraceFormat {
+
+    public static final byte[] MAGIC = {'P', 'R', 'T', 'B'};
+    public static final int VERSION = 2;
+
+    /**
+     * Longest name in UTF-8 bytes, so that a corrupt length is rejected
+     * before anything is allocated for it
+     */
+    public static final int MAX_NAME_LENGTH = 1 << 24;
+
+    /**
+     * Name table records: length, bytes
+     */
+    public static final int DEFINE_PID = 1;
+    public static final int DEFINE_RID = 2;
+
+    /**
+     * Kernel call records with their operands
+     */
+    public static final int INIT = 3;           // levels
+    public static final int CREATE = 4;         // pid, priority
+    public static final int DELETE = 5;         // pid
+    public static final int REQUEST = 6;        // rid, unit
+    public static final int RELEASE = 7;        // rid, unit
+    public static final int TIME_OUT = 8;
+    public static final int ALL_PROCESS = 9;
+    public static final int ALL_RESOURCE = 10;
+    public static final int GET_PROCESS = 11;   // pid
+    public static final int GET_RESOURCE = 12;  // rid
+    public static final int ERROR = 13;
+    public static final int SEPARATOR = 14;
+    public static final int DEADLOCK = 15;
+    public static final int CREATE_CLAIMS = 16; // pid, priority, claims as length, bytes
+    public static final int STATS = 17;
+    public static final int EVENTS = 18;        // count
+    public static final int SAVE = 19;          // file as length, bytes
+    public static final int LOAD = 20;          // file as length, bytes
+    public static final int RESET_NAMES = 21;   // forget every pid and rid defined so far
+    public static final int TICK = 22;          // ticks
+    public static final int ACCOUNTING = 23;
+
+    private TraceFormat() {
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    public static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    public static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,239 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Replayer that executes a binary trace written by TraceWriter directly
+ * on a command target, without any text parsing.
+ */
+
+public class TraceReplayer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Interned pid and rid tables in the order of definition
+     */
+    private ArrayList<String> pids = new ArrayList<String>();
+    private ArrayList<String> rids = new ArrayList<String>();
+
+    /**
+     * Source of the trace and the buffer of bytes not yet decoded
+     */
+    private InputStream in;
+    private CommandTarget engine;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    /**
+     * Sole constructor of this class.
+     *
+     * @param in     the stream to read the binary trace from
+     * @param engine the engine that kernel calls are executed on
+     */
+    public TraceReplayer(InputStream in, CommandTarget engine) {
+        this.in = in;
+        this.engine = engine;
+    }
+
+    /**
+     * Read the entire trace and execute every record on the engine.
+     *
+     * @throws IllegalArgumentException if the stream is not a valid trace
+     */
+    public void replay() {
+        readHeader();
+
+        int op;
+        while ((op = readByte()) >= 0) {
+            switch (op) {
+                case TraceFormat.DEFINE_PID:
+                    pids.add(readName());
+                    break;
+
+                case TraceFormat.DEFINE_RID:
+                    rids.add(readName());
+                    break;
+
+                case TraceFormat.RESET_NAMES:
+                    pids.clear();
+                    rids.clear();
+                    break;
+
+                case TraceFormat.INIT:
+                    engine.init(readVarint());
+                    break;
+
+                case TraceFormat.CREATE:
+                    engine.createProcess(readPid(), TraceFormat.unzigzag(readVarint()));
+                    break;
+
+                case TraceFormat.CREATE_CLAIMS:
+                    engine.createProcess(readPid(), TraceFormat.unzigzag(readVarint()),
+                        readName());
+                    break;
+
+                case TraceFormat.DELETE:
+                    engine.destroyProcess(readPid());
+                    break;
+
+                case TraceFormat.REQUEST:
+                    engine.requestResources(readRid(), TraceFormat.unzigzag(readVarint()));
+                    break;
+
+                case TraceFormat.RELEASE:
+                    engine.releaseResources(readRid(), TraceFormat.unzigzag(readVarint()));
+                    break;
+
+                case TraceFormat.TIME_OUT:
+                    engine.timeOut();
+                    break;
+
+                case TraceFormat.TICK:
+                    engine.tick(TraceFormat.unzigzag(readVarint()));
+                    break;
+
+                case TraceFormat.ALL_PROCESS:
+                    engine.printAllProcess();
+                    break;
+
+                case TraceFormat.ALL_RESOURCE:
+                    engine.printAllResource();
+                    break;
+
+                case TraceFormat.GET_PROCESS:
+                    engine.printProcess(readPid());
+                    break;
+
+                case TraceFormat.GET_RESOURCE:
+                    engine.printResource(readRid());
+                    break;
+
+                case TraceFormat.DEADLOCK:
+                    engine.printDeadlock();
+                    break;
+
+                case TraceFormat.STATS:
+                    engine.printStats();
+                    break;
+
+                case TraceFormat.EVENTS:
+                    engine.printEvents(TraceFormat.unzigzag(readVarint()));
+                    break;
+
+                case TraceFormat.ACCOUNTING:
+                    engine.printAccounting();
+                    break;
+
+                case TraceFormat.SAVE:
+                    engine.saveCheckpoint(readName());
+                    break;
+
+                case TraceFormat.LOAD:
+                    engine.loadCheckpoint(readName());
+                    break;
+
+                case TraceFormat.ERROR:
+                    engine.showError();
+                    break;
+
+                case TraceFormat.SEPARATOR:
+                    engine.printSequenceSeparator();
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("unknown opcode in trace: " + op);
+            }
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private void readHeader() {
+        for (byte b : TraceFormat.MAGIC) {
+            if (readByte() != b) {
+                throw new IllegalArgumentException("not a binary trace");
+            }
+        }
+
+        int version = readByte();
+        if (version != TraceFormat.VERSION) {
+            throw new IllegalArgumentException("unsupported trace version: " + version);
+        }
+    }
+
+    private String readPid() {
+        return readDefined(pids);
+    }
+
+    private String readRid() {
+        return readDefined(rids);
+    }
+
+    private String readDefined(ArrayList<String> names) {
+        int index = readVarint();
+        if (index < 0 || index >= names.size()) {
+            throw new IllegalArgumentException("undefined name in trace");
+        }
+        return names.get(index);
+    }
+
+    private String readName() {
+        int length = readVarint();
+        if (length < 0 || length > TraceFormat.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("malformed name in trace");
+        }
+
+        /* Grown as bytes arrive, so a truncated trace never allocates its whole length */
+        byte[] bytes = new byte[Math.min(length, limit - position)];
+        for (int i = 0; i < length; i++) {
+            if (i == bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(length, Math.max(i * 2, BUFFER_SIZE)));
+            }
+            bytes[i] = (byte) readRequiredByte();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = readRequiredByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint in trace");
+    }
+
+    private int readRequiredByte() {
+        int b = readByte();
+        if (b < 0) {
+            throw new IllegalArgumentException("truncated trace");
+        }
+        return b;
+    }
+
+    private int readByte() {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private boolean fill() {
+        try {
+            int read = in.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
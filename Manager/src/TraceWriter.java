@@ -0,0 +1,250 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Command target that records every kernel call into the compact binary
+ * trace format described in TraceFormat instead of executing it. Names
+ * longer than TraceFormat.MAX_NAME_LENGTH bytes cannot be replayed, so
+ * they are rejected with an IllegalArgumentException.
+ */
+
+public class TraceWriter implements CommandTarget {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Interned pid and rid tables, mapping each name to its index
+     */
+    private HashMap<String, Integer> pids = new HashMap<String, Integer>();
+    private HashMap<String, Integer> rids = new HashMap<String, Integer>();
+
+    /**
+     * Destination of the trace and the buffer of encoded records
+     */
+    private OutputStream out;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    /**
+     * Sole constructor that writes the trace header straight away.
+     *
+     * @param out the stream to write the trace to
+     */
+    public TraceWriter(OutputStream out) {
+        this.out = out;
+        for (byte b : TraceFormat.MAGIC) {
+            writeByte(b);
+        }
+        writeByte(TraceFormat.VERSION);
+    }
+
+    @Override
+    public void init(int numPriority) {
+        writeByte(TraceFormat.INIT);
+        writeVarint(numPriority);
+    }
+
+    @Override
+    public void createProcess(String pid, int priority) {
+        int index = internPid(pid);
+        writeByte(TraceFormat.CREATE);
+        writeVarint(index);
+        writeVarint(TraceFormat.zigzag(priority));
+    }
+
+    @Override
+    public void createProcess(String pid, int priority, String claims) {
+        int index = internPid(pid);
+        writeByte(TraceFormat.CREATE_CLAIMS);
+        writeVarint(index);
+        writeVarint(TraceFormat.zigzag(priority));
+        writeString(claims);
+    }
+
+    @Override
+    public void destroyProcess(String pid) {
+        int index = internPid(pid);
+        writeByte(TraceFormat.DELETE);
+        writeVarint(index);
+    }
+
+    @Override
+    public void requestResources(String rid, int unit) {
+        int index = internRid(rid);
+        writeByte(TraceFormat.REQUEST);
+        writeVarint(index);
+        writeVarint(TraceFormat.zigzag(unit));
+    }
+
+    @Override
+    public void releaseResources(String rid, int unit) {
+        int index = internRid(rid);
+        writeByte(TraceFormat.RELEASE);
+        writeVarint(index);
+        writeVarint(TraceFormat.zigzag(unit));
+    }
+
+    @Override
+    public void timeOut() {
+        writeByte(TraceFormat.TIME_OUT);
+    }
+
+    @Override
+    public void tick(int ticks) {
+        writeByte(TraceFormat.TICK);
+        writeVarint(TraceFormat.zigzag(ticks));
+    }
+
+    @Override
+    public void printAllProcess() {
+        writeByte(TraceFormat.ALL_PROCESS);
+    }
+
+    @Override
+    public void printAllResource() {
+        writeByte(TraceFormat.ALL_RESOURCE);
+    }
+
+    @Override
+    public void printProcess(String argument) {
+        int index = internPid(argument);
+        writeByte(TraceFormat.GET_PROCESS);
+        writeVarint(index);
+    }
+
+    @Override
+    public void printResource(String argument) {
+        int index = internRid(argument);
+        writeByte(TraceFormat.GET_RESOURCE);
+        writeVarint(index);
+    }
+
+    @Override
+    public void printDeadlock() {
+        writeByte(TraceFormat.DEADLOCK);
+    }
+
+    @Override
+    public void printStats() {
+        writeByte(TraceFormat.STATS);
+    }
+
+    @Override
+    public void printEvents(int count) {
+        writeByte(TraceFormat.EVENTS);
+        writeVarint(TraceFormat.zigzag(count));
+    }
+
+    @Override
+    public void printAccounting() {
+        writeByte(TraceFormat.ACCOUNTING);
+    }
+
+    @Override
+    public void saveCheckpoint(String file) {
+        writeByte(TraceFormat.SAVE);
+        writeString(file);
+    }
+
+    @Override
+    public void loadCheckpoint(String file) {
+        writeByte(TraceFormat.LOAD);
+        writeString(file);
+    }
+
+    @Override
+    public void showError() {
+        writeByte(TraceFormat.ERROR);
+    }
+
+    @Override
+    public void printSequenceSeparator() {
+        writeByte(TraceFormat.SEPARATOR);
+    }
+
+    /**
+     * Forget every pid and rid defined so far, so that the records that
+     * follow can be read without the ones before them.
+     */
+    public void resetNames() {
+        writeByte(TraceFormat.RESET_NAMES);
+        pids.clear();
+        rids.clear();
+    }
+
+    /**
+     * Write all buffered records to the stream and flush it.
+     */
+    public void flush() {
+        drain();
+
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private int internPid(String pid) {
+        return intern(pids, pid, TraceFormat.DEFINE_PID);
+    }
+
+    private int internRid(String rid) {
+        return intern(rids, rid, TraceFormat.DEFINE_RID);
+    }
+
+    private int intern(HashMap<String, Integer> table, String name, int defineOp) {
+        Integer index = table.get(name);
+        if (index != null) {
+            return index;
+        }
+
+        /* Define the name before its first use */
+        writeByte(defineOp);
+        writeString(name);
+
+        table.put(name, table.size());
+        return table.size() - 1;
+    }
+
+    private void writeString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > TraceFormat.MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("name too long for trace: " + bytes.length
+                + " bytes");
+        }
+        writeVarint(bytes.length);
+        for (byte b : bytes) {
+            writeByte(b);
+        }
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        writeByte(value);
+    }
+
+    private void writeByte(int b) {
+        if (count == buffer.length) {
+            drain();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    private void drain() {
+        try {
+            out.write(buffer, 0, count);
+            count = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
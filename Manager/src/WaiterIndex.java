@@ -0,0 +1,335 @@
+/**
+ * Index over the blocked requests of a resource by requested units, used
+ * by the FIRST_FIT and BEST_FIT wake-up policies. Waiters of the same size
+ * share a bucket in the order they blocked, linked through their bucket
+ * pointers, so a wake-up pass only looks at the head of each bucket that
+ * fits instead of the whole Block List.
+ *
+ * The buckets with waiters form a treap ordered by requested units, with
+ * a fixed pseudo-random weight per size. Every bucket also keeps the
+ * bucket of its subtree whose head blocked first, so the longest waiting
+ * request that fits is found along a single path, in time logarithmic in
+ * the number of distinct sizes rather than linear.
+ */
+
+public class WaiterIndex {
+
+    /**
+     * Root of the treap of buckets, null if nothing is blocked
+     */
+    private Bucket root;
+
+    /**
+     * Add the process to the back of the bucket of its requested units.
+     *
+     * @param p    the blocked process
+     * @param unit the units it requested
+     */
+    public void add(Process p, int unit) {
+        Bucket bucket = find(unit);
+        if (bucket != null) {
+            /* The head stays the same, so the treap needs no update */
+            bucket.add(p);
+            return;
+        }
+
+        bucket = new Bucket(this, unit);
+        bucket.add(p);
+        root = insert(root, bucket);
+    }
+
+    /**
+     * Returns the longest waiting process whose request fits.
+     *
+     * @param freeUnits the free units of the resource
+     * @return the process, or null if no request fits
+     */
+    public Process getFirstFit(int freeUnits) {
+        Bucket first = null;
+
+        /* Every bucket left of the path fits, the rest of the path decides */
+        for (Bucket b = root; b != null; ) {
+            if (b.unit <= freeUnits) {
+                first = earlier(first, earlier(b.left == null ? null : b.left.first, b));
+                b = b.right;
+            } else {
+                b = b.left;
+            }
+        }
+
+        return first == null ? null : first.head;
+    }
+
+    /**
+     * Returns the longest waiting process with the largest request that fits.
+     *
+     * @param freeUnits the free units of the resource
+     * @return the process, or null if no request fits
+     */
+    public Process getBestFit(int freeUnits) {
+        Bucket best = null;
+        for (Bucket b = root; b != null; ) {
+            if (b.unit <= freeUnits) {
+                best = b;
+                b = b.right;
+            } else {
+                b = b.left;
+            }
+        }
+
+        return best == null ? null : best.head;
+    }
+
+    /**
+     * Remove the process from its bucket. Nothing happens if the process
+     * is not in any bucket.
+     *
+     * @param p the process to be removed
+     */
+    public static void remove(Process p) {
+        Bucket bucket = p.getBucket();
+        if (bucket == null) {
+            return;
+        }
+
+        boolean isHead = bucket.head == p;
+        bucket.remove(p);
+
+        WaiterIndex owner = bucket.owner;
+        if (bucket.head == null) {
+            owner.root = delete(owner.root, bucket.unit);
+        } else if (isHead) {
+            refresh(owner.root, bucket.unit);
+        }
+    }
+
+    /**
+     * Private method that returns the bucket of the given size.
+     *
+     * @param unit the requested units
+     * @return the bucket, or null if no waiter requested that many units
+     */
+    private Bucket find(int unit) {
+        Bucket b = root;
+        while (b != null && b.unit != unit) {
+            b = unit < b.unit ? b.left : b.right;
+        }
+        return b;
+    }
+
+    /**
+     * Private method that inserts a new bucket into a subtree.
+     *
+     * @param node   the root of the subtree
+     * @param bucket the bucket, of a size not in the subtree
+     * @return the new root of the subtree
+     */
+    private static Bucket insert(Bucket node, Bucket bucket) {
+        if (node == null) {
+            update(bucket);
+            return bucket;
+        }
+
+        if (bucket.unit < node.unit) {
+            node.left = insert(node.left, bucket);
+            if (node.left.weight > node.weight) {
+                return rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, bucket);
+            if (node.right.weight > node.weight) {
+                return rotateLeft(node);
+            }
+        }
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Private method that deletes the bucket of the given size from a
+     * subtree.
+     *
+     * @param node the root of the subtree
+     * @param unit the size of the bucket, must be in the subtree
+     * @return the new root of the subtree
+     */
+    private static Bucket delete(Bucket node, int unit) {
+        if (unit < node.unit) {
+            node.left = delete(node.left, unit);
+        } else if (unit > node.unit) {
+            node.right = delete(node.right, unit);
+        } else {
+            Bucket merged = merge(node.left, node.right);
+            node.left = null;
+            node.right = null;
+            return merged;
+        }
+
+        update(node);
+        return node;
+    }
+
+    /**
+     * Private method that joins two subtrees, every size in the first
+     * being smaller than every size in the second.
+     *
+     * @param a the subtree of smaller sizes
+     * @param b the subtree of larger sizes
+     * @return the root of the joined subtree
+     */
+    private static Bucket merge(Bucket a, Bucket b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+
+        if (a.weight > b.weight) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    /**
+     * Private method that updates the earliest buckets on the path to the
+     * bucket of the given size, after its head has changed.
+     *
+     * @param node the root of the subtree
+     * @param unit the size of the bucket, must be in the subtree
+     */
+    private static void refresh(Bucket node, int unit) {
+        if (unit < node.unit) {
+            refresh(node.left, unit);
+        } else if (unit > node.unit) {
+            refresh(node.right, unit);
+        }
+        update(node);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static Bucket rotateRight(Bucket node) {
+        Bucket left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Bucket rotateLeft(Bucket node) {
+        Bucket right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Bucket node) {
+        Bucket first = node;
+        if (node.left != null) {
+            first = earlier(node.left.first, first);
+        }
+        if (node.right != null) {
+            first = earlier(node.right.first, first);
+        }
+        node.first = first;
+    }
+
+    private static Bucket earlier(Bucket a, Bucket b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+        return a.head.getBlockedSeq() < b.head.getBlockedSeq() ? a : b;
+    }
+
+    /**
+     * Waiters of a single requested size, in the order they blocked, and
+     * its node in the treap of the index.
+     */
+    public static class Bucket {
+
+        private WaiterIndex owner;
+        private int unit;
+        private Process head;
+        private Process tail;
+
+        /**
+         * Children in the treap, the weight that orders the treap as a
+         * heap, and the bucket of the subtree whose head blocked first
+         */
+        private Bucket left;
+        private Bucket right;
+        private int weight;
+        private Bucket first;
+
+        /**
+         * Sole constructor that creates an empty bucket.
+         *
+         * @param owner the index the bucket belongs to
+         * @param unit  the requested units of every waiter in the bucket
+         */
+        private Bucket(WaiterIndex owner, int unit) {
+            this.owner = owner;
+            this.unit = unit;
+
+            /* Scrambled size, so sizes requested in order still give a balanced treap */
+            int h = unit * 0x9E3779B9;
+            this.weight = h ^ (h >>> 16);
+        }
+
+        /**
+         * Add the process to the back of the bucket.
+         *
+         * @param p the process to be added
+         */
+        private void add(Process p) {
+            p.setBucketPrev(tail);
+            p.setBucketNext(null);
+
+            if (tail == null) {
+                head = p;
+            } else {
+                tail.setBucketNext(p);
+            }
+
+            tail = p;
+            p.setBucket(this);
+        }
+
+        /**
+         * Remove the process from the bucket.
+         *
+         * @param p the process to be removed, must be in the bucket
+         */
+        private void remove(Process p) {
+            Process prev = p.getBucketPrev();
+            Process next = p.getBucketNext();
+
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.setBucketNext(next);
+            }
+
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.setBucketPrev(prev);
+            }
+
+            p.setBucketPrev(null);
+            p.setBucketNext(null);
+            p.setBucket(null);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import java.util.Locale;
+
+/**
+ * Order in which blocked processes are woken up when units of a resource
+ * are released.
+ *
+ * - FIFO      (only the head of the Block List, while its request fits)
+ * - FIRST_FIT (the longest waiting process whose request fits)
+ * - BEST_FIT  (the largest request that fits, longest waiting first)
+ *
+ * Under BEST_FIT the longest waiting process can only be bypassed a
+ * bounded number of times, after which the resource falls back to FIFO
+ * until it is woken up, so large requests are not starved.
+ */
+
+public enum WakeUpPolicy {
+    FIFO, FIRST_FIT, BEST_FIT;
+
+    /**
+     * Returns the policy of the given name, ignoring case, such as
+     * fifo, first-fit or best_fit.
+     *
+     * @param name the name of the policy
+     * @return the policy
+     * @throws IllegalArgumentException if there is no such policy
+     */
+    public static WakeUpPolicy parse(String name) {
+        String constant = name.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        for (WakeUpPolicy policy : values()) {
+            if (policy.name().equals(constant)) {
+                return policy;
+            }
+        }
+
+        throw new IllegalArgumentException("unknown wake-up policy " + name);
+    }
+}
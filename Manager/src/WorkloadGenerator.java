@@ -0,0 +1,368 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Seeded generator of valid cr / de / req / rel / to scripts for stress
+ * testing the manager at scale. The generator drives its own PREngine
+ * while it writes, so it always knows which process is running and what
+ * it holds, and only emits commands that the manager accepts. The same
+ * seed and options always give the same script.
+ *
+ * Usage: java WorkloadGenerator [options] > script.txt
+ *
+ * List of options
+ * -------------------------
+ * - --seed <n>          (seed of the random generator, default 1)
+ * - --commands <n>      (number of commands to emit, default 1000000)
+ * - --fanout <n>        (maximum children per process, default 8)
+ * - --depth <n>         (maximum depth of the creation tree, default 6)
+ * - --system <f>        (fraction of processes created as SYSTEM, default 0.3)
+ * - --resources <cat>   (resource catalogue file or spec, default R1:1,R2:2,R3:3,R4:4)
+ * - --contention <list> (comma separated weight of each resource, default 1 each)
+ * - --create <f>        (fraction of commands that are cr, default 0.2)
+ * - --timeout <f>       (fraction of commands that are to, default 0.2)
+ * - --destroy <f>       (fraction of commands that are de, default 0.05)
+ * - --sequence <n>      (commands between init, 0 for a single sequence, default 0)
+ * - --out <file>        (write to file instead of stdout)
+ *
+ * Requests and releases share what is left after creates, time-outs and
+ * destroys. A command that is not valid for the running process, such as
+ * a create beyond the fan-out, falls back to a request or release. When
+ * only init can run and its tree is full a process is destroyed instead,
+ * otherwise the fallback is a time-out.
+ */
+
+public class WorkloadGenerator {
+
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * Options of the generated workload
+     */
+    private long seed = 1;
+    private long numCommands = 1000000;
+    private int fanOut = 8;
+    private int maxDepth = 6;
+    private double systemRate = 0.3;
+    private ResourceCatalogue catalogue = ResourceCatalogue.STANDARD;
+    private double[] contention = {};
+    private double createRate = 0.2;
+    private double timeOutRate = 0.2;
+    private double destroyRate = 0.05;
+    private long sequenceLength = 0;
+
+    /**
+     * Engine that mirrors the state of the script being written
+     */
+    private PREngine engine = new PREngine(new DiscardOutputSink());
+
+    /**
+     * Pids that may still be alive, purged lazily after destroys
+     */
+    private ArrayList<String> livePids = new ArrayList<String>();
+
+    private Random random;
+    private long nextPid = 0;
+
+    public static void main(String[] args) {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        String outFile = null;
+
+        try {
+            outFile = generator.configure(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+
+        try (OutputStream out = outFile == null ? System.out : new FileOutputStream(outFile)) {
+            generator.generate(out);
+        } catch (IOException e) {
+            System.err.println("cannot write workload: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a script with the given options to the stream, as if given
+     * on the command line. The --out option is ignored.
+     *
+     * @param out  the stream to write the script to
+     * @param args the options of the workload, see class description
+     */
+    public static void generate(OutputStream out, String... args) {
+        WorkloadGenerator generator = new WorkloadGenerator();
+        generator.configure(args);
+
+        try {
+            generator.generate(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method to read the options of the workload.
+     *
+     * @param args the options, see class description
+     * @return the file given by --out, or null if none
+     * @throws IllegalArgumentException if an option is unknown or not a number
+     */
+    private String configure(String[] args) {
+        String outFile = null;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+
+            if (args[i].equalsIgnoreCase("--seed")) {
+                seed = Long.parseLong(value);
+            } else if (args[i].equalsIgnoreCase("--commands")) {
+                numCommands = Long.parseLong(value);
+            } else if (args[i].equalsIgnoreCase("--fanout")) {
+                fanOut = Integer.parseInt(value);
+            } else if (args[i].equalsIgnoreCase("--depth")) {
+                maxDepth = Integer.parseInt(value);
+            } else if (args[i].equalsIgnoreCase("--system")) {
+                systemRate = Double.parseDouble(value);
+            } else if (args[i].equalsIgnoreCase("--resources")) {
+                catalogue = readCatalogue(value);
+            } else if (args[i].equalsIgnoreCase("--contention")) {
+                contention = parseWeights(value);
+            } else if (args[i].equalsIgnoreCase("--create")) {
+                createRate = Double.parseDouble(value);
+            } else if (args[i].equalsIgnoreCase("--timeout")) {
+                timeOutRate = Double.parseDouble(value);
+            } else if (args[i].equalsIgnoreCase("--destroy")) {
+                destroyRate = Double.parseDouble(value);
+            } else if (args[i].equalsIgnoreCase("--sequence")) {
+                sequenceLength = Long.parseLong(value);
+            } else if (args[i].equalsIgnoreCase("--out")) {
+                outFile = value;
+            } else {
+                throw new IllegalArgumentException("unknown option " + args[i]);
+            }
+        }
+
+        return outFile;
+    }
+
+    /**
+     * Write the whole script to the stream. The stream is flushed but not closed.
+     *
+     * @param out the stream to write the script to
+     * @throws IOException if the script cannot be written
+     */
+    public void generate(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.US_ASCII),
+            1 << 16);
+
+        random = new Random(seed);
+        engine.init(Process.NUM_PRIORITY, catalogue);
+
+        for (long i = 0; i < numCommands; i++) {
+            if (sequenceLength > 0 && i > 0 && i % sequenceLength == 0) {
+                engine.init();
+                livePids.clear();
+                writer.write("init" + LINE_SEPARATOR);
+            } else {
+                writer.write(nextCommand() + LINE_SEPARATOR);
+            }
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Choose the next valid command, execute it on the engine and return it.
+     *
+     * @return the command as written in the script
+     */
+    private String nextCommand() {
+        Process running = engine.getRunningProcess();
+        double kind = random.nextDouble();
+
+        if (kind < timeOutRate) {
+            engine.timeOut();
+            return "to";
+        }
+        kind -= timeOutRate;
+
+        if (kind < destroyRate) {
+            String pid = pickLivePid();
+            if (pid != null) {
+                engine.destroyProcess(pid);
+                return "de " + pid;
+            }
+        }
+        kind -= destroyRate;
+
+        /* init cannot request or release, so it can only create */
+        boolean isInit = running.getPriority() == Process.INIT;
+        if (kind < createRate || isInit) {
+            String command = nextCreate(running);
+            if (command != null) {
+                return command;
+            }
+        }
+
+        if (!isInit) {
+            String command = random.nextBoolean() ? nextRequest(running) : nextRelease(running);
+            if (command == null) {
+                command = nextRequest(running);
+            }
+            if (command != null) {
+                return command;
+            }
+        }
+
+        /* Only init is left running with its tree full, free up the system */
+        if (isInit) {
+            String pid = pickLivePid();
+            if (pid != null) {
+                engine.destroyProcess(pid);
+                return "de " + pid;
+            }
+        }
+
+        /* Nothing valid left for the running process, let another run */
+        engine.timeOut();
+        return "to";
+    }
+
+    /**
+     * Create a child of the running process if the tree limits allow it.
+     *
+     * @param running the running process
+     * @return the command, or null if the running process cannot create
+     */
+    private String nextCreate(Process running) {
+        if (running.getChildCount() >= fanOut || depthOf(running) >= maxDepth) {
+            return null;
+        }
+
+        String pid = "p" + nextPid++;
+        int priority = random.nextDouble() < systemRate ? Process.SYSTEM : Process.USER;
+
+        engine.createProcess(pid, priority);
+        livePids.add(pid);
+        return "cr " + pid + " " + priority;
+    }
+
+    /**
+     * Request units of a resource picked by contention weight, never more
+     * than the running process can still hold.
+     *
+     * @param running the running process
+     * @return the command, or null if it already holds all units of it
+     */
+    private String nextRequest(Process running) {
+        Resource r = pickResource();
+        int available = r.getMaxUnits() - running.getResources().get(r.getIndex());
+
+        if (available <= 0) {
+            return null;
+        }
+
+        int unit = 1 + random.nextInt(available);
+        engine.requestResources(r.getRid(), unit);
+        return "req " + r.getRid() + " " + unit;
+    }
+
+    /**
+     * Release some of the units of a resource held by the running process.
+     *
+     * @param running the running process
+     * @return the command, or null if the running process holds nothing
+     */
+    private String nextRelease(Process running) {
+        if (running.getResources().isEmpty()) {
+            return null;
+        }
+
+        /* Release from a random resource held by the running process */
+        ResourceHoldings held = running.getResources();
+        int index = random.nextInt(held.size());
+        String rid = engine.getResources()[held.getResourceAt(index)].getRid();
+        int unit = 1 + random.nextInt(held.getUnitsAt(index));
+
+        engine.releaseResources(rid, unit);
+        return "rel " + rid + " " + unit;
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private String pickLivePid() {
+        while (!livePids.isEmpty()) {
+            int index = random.nextInt(livePids.size());
+            String pid = livePids.get(index);
+
+            if (engine.getProcess(pid) != null) {
+                return pid;
+            }
+
+            /* Destroyed with an ancestor, swap remove it */
+            livePids.set(index, livePids.get(livePids.size() - 1));
+            livePids.remove(livePids.size() - 1);
+        }
+
+        return null;
+    }
+
+    private Resource pickResource() {
+        Resource[] resources = engine.getResources();
+        double total = 0;
+        for (int i = 0; i < resources.length; i++) {
+            total += weightOf(i);
+        }
+
+        double pick = random.nextDouble() * total;
+        for (int i = 0; i < resources.length; i++) {
+            pick -= weightOf(i);
+            if (pick < 0) {
+                return resources[i];
+            }
+        }
+
+        return resources[resources.length - 1];
+    }
+
+    private double weightOf(int index) {
+        return index < contention.length ? contention[index] : 1;
+    }
+
+    private static int depthOf(Process p) {
+        int depth = 0;
+        while (p.getParent() != null) {
+            p = p.getParent();
+            depth++;
+        }
+        return depth;
+    }
+
+    private static ResourceCatalogue readCatalogue(String value) {
+        try {
+            return ResourceCatalogue.read(value);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read " + value + ": " + e.getMessage());
+        }
+    }
+
+    private static double[] parseWeights(String value) {
+        String[] parts = value.split(",");
+        double[] weights = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Double.parseDouble(parts[i].trim());
+        }
+        return weights;
+    }
+}
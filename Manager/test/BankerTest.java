@@ -0,0 +1,194 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the safety check of Banker against the textbook check, which
+ * runs every claimant against every resource from scratch on each request.
+ * Only safe requests are granted, so the state stays safe throughout as
+ * it does in PREngine.
+ */
+public class BankerTest {
+
+    private static final int[] UNITS = {1, 2, 3, 4};
+
+    @Test
+    public void unsafeRequest() {
+        Resource[] resources = createResources(new int[]{2});
+        Banker banker = new Banker();
+        banker.setResources(resources);
+
+        Process a = createClaimant("a", new int[]{2}, banker);
+        Process b = createClaimant("b", new int[]{2}, banker);
+        grant(a, resources[0], 1);
+
+        /* Either may finish with the last unit, but not both with one each */
+        assertFalse("Last unit to b leaves no one able to finish",
+            banker.isSafe(b, resources[0], 1));
+        assertTrue("Last unit to a lets it finish", banker.isSafe(a, resources[0], 1));
+    }
+
+    @Test
+    public void claimsOnlyWhenDeclared() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        engine.setAvoiding(true);
+        engine.init();
+        engine.createProcess("a", 1, "R1:1");
+        engine.destroyProcess("a");
+        engine.createProcess("b", 1);
+
+        assertNull("init declares no claims", engine.getProcess("init").getClaims());
+        assertNull("b reuses the PCB of a without its claims", engine.getProcess("b").getClaims());
+    }
+
+    @Test
+    public void randomAgainstTextbook() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            Resource[] resources = createResources(UNITS);
+            Banker banker = new Banker();
+            banker.setResources(resources);
+
+            ArrayList<Process> claimants = new ArrayList<Process>();
+            for (int i = 0; i < 6; i++) {
+                claimants.add(createClaimant("p" + i, randomClaims(random), banker));
+            }
+
+            for (int i = 0; i < 5000; i++) {
+                Process p = claimants.get(random.nextInt(claimants.size()));
+                Resource r = resources[random.nextInt(resources.length)];
+                int held = p.getResources().get(r.getIndex());
+                int need = p.getClaims().get(r.getIndex()) - held;
+
+                int kind = random.nextInt(10);
+                if (kind < 6 && need > 0 && r.getFreeUnits() > 0) {
+                    int unit = 1 + random.nextInt(Math.min(need, r.getFreeUnits()));
+                    boolean isSafe = isSafeTextbook(claimants, resources, p, r, unit);
+
+                    assertEquals("Banker must agree with the textbook check, seed " + seed
+                        + " step " + i, isSafe, banker.isSafe(p, r, unit));
+                    if (isSafe) {
+                        grant(p, r, unit);
+                    }
+                } else if (kind < 9 && held > 0) {
+                    grant(p, r, -(1 + random.nextInt(held)));
+                } else if (kind == 9) {
+                    /* Destroy the claimant, giving everything back, and create another */
+                    for (Resource resource : resources) {
+                        grant(p, resource, -p.getResources().get(resource.getIndex()));
+                    }
+                    banker.remove(p);
+                    claimants.remove(p);
+                    claimants.add(createClaimant("q" + i, randomClaims(random), banker));
+                }
+            }
+
+            assertEquals("Every claimant must be in the sequence", claimants.size(),
+                banker.size());
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static Resource[] createResources(int[] units) {
+        Resource[] resources = new Resource[units.length];
+        for (int i = 0; i < units.length; i++) {
+            resources[i] = new Resource("R" + (i + 1), units[i], i);
+        }
+        return resources;
+    }
+
+    private static int[] randomClaims(Random random) {
+        int[] claims = new int[UNITS.length];
+        for (int i = 0; i < UNITS.length; i++) {
+            claims[i] = random.nextInt(UNITS[i] + 1);
+        }
+        return claims;
+    }
+
+    private static Process createClaimant(String pid, int[] claims, Banker banker) {
+        Process p = new Process(pid, 1);
+        p.setClaims(new ResourceHoldings());
+        for (int i = 0; i < claims.length; i++) {
+            if (claims[i] > 0) {
+                p.getClaims().add(i, claims[i]);
+            }
+        }
+        banker.add(p);
+        return p;
+    }
+
+    private static void grant(Process p, Resource r, int unit) {
+        if (unit == 0) {
+            return;
+        }
+
+        if (p.getResources().get(r.getIndex()) + unit == 0) {
+            p.getResources().remove(r.getIndex());
+        } else {
+            p.getResources().add(r.getIndex(), unit);
+        }
+        r.setFreeUnits(r.getFreeUnits() - unit);
+    }
+
+    private static boolean isSafeTextbook(ArrayList<Process> claimants, Resource[] resources,
+        Process requester, Resource requested, int unit) {
+        int n = claimants.size();
+        int[] work = new int[resources.length];
+        int[][] allocation = new int[n][resources.length];
+        int[][] need = new int[n][resources.length];
+
+        for (int r = 0; r < resources.length; r++) {
+            work[r] = resources[r].getFreeUnits();
+        }
+        work[requested.getIndex()] -= unit;
+
+        for (int i = 0; i < n; i++) {
+            Process p = claimants.get(i);
+            for (int r = 0; r < resources.length; r++) {
+                allocation[i][r] = p.getResources().get(r);
+                if (p == requester && r == requested.getIndex()) {
+                    allocation[i][r] += unit;
+                }
+                need[i][r] = p.getClaim(r) - allocation[i][r];
+            }
+        }
+
+        boolean[] finished = new boolean[n];
+        boolean isProgress = true;
+        while (isProgress) {
+            isProgress = false;
+            for (int i = 0; i < n; i++) {
+                if (!finished[i] && fits(need[i], work)) {
+                    for (int r = 0; r < resources.length; r++) {
+                        work[r] += allocation[i][r];
+                    }
+                    finished[i] = true;
+                    isProgress = true;
+                }
+            }
+        }
+
+        for (boolean isFinished : finished) {
+            if (!isFinished) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean fits(int[] need, int[] work) {
+        for (int r = 0; r < need.length; r++) {
+            if (need[r] > work[r]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of PREngine checkpoints: a restored engine must hold the same
+ * state as the one saved and behave like it from then on, and a
+ * checkpoint that is cut short or damaged must be rejected without
+ * touching the state of the engine.
+ */
+public class CheckpointTest {
+
+    @Test
+    public void roundTrip() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            boolean isAvoiding = seed % 2 == 0;
+
+            CaptureOutputSink savedOut = new CaptureOutputSink();
+            PREngine saved = createEngine(savedOut, isAvoiding);
+            run(saved, random, isAvoiding, 400);
+            byte[] checkpoint = checkpoint(saved);
+
+            /* Restore over an unrelated state, with the same settings */
+            CaptureOutputSink restoredOut = new CaptureOutputSink();
+            PREngine restored = createEngine(restoredOut, isAvoiding);
+            run(restored, new Random(-seed), isAvoiding, 50);
+            restored.readCheckpoint(new ByteArrayInputStream(checkpoint));
+
+            assertArrayEquals("Checkpoint of restored engine must be the same", checkpoint,
+                checkpoint(restored));
+            assertEquals("Restored state must be the same", printState(saved),
+                printState(restored));
+
+            /* Both must behave the same from now on */
+            savedOut.clear();
+            restoredOut.clear();
+            long next = random.nextLong();
+            run(saved, new Random(next), isAvoiding, 400);
+            run(restored, new Random(next), isAvoiding, 400);
+            assertEquals("Restored engine must behave the same", savedOut.toString(),
+                restoredOut.toString());
+        }
+    }
+
+    @Test
+    public void rejectTruncated() {
+        PREngine saved = createEngine(new CaptureOutputSink(), true);
+        run(saved, new Random(2106), true, 400);
+        byte[] checkpoint = checkpoint(saved);
+
+        PREngine engine = createEngine(new CaptureOutputSink(), false);
+        run(engine, new Random(7), false, 100);
+        byte[] before = checkpoint(engine);
+
+        for (int length = 0; length < checkpoint.length; length++) {
+            assertRejected(engine, Arrays.copyOf(checkpoint, length));
+            assertArrayEquals("Rejected checkpoint must not change the state", before,
+                checkpoint(engine));
+        }
+    }
+
+    @Test
+    public void rejectCorrupt() {
+        PREngine saved = createEngine(new CaptureOutputSink(), false);
+        run(saved, new Random(2106), false, 400);
+        byte[] checkpoint = checkpoint(saved);
+
+        byte[] badMagic = checkpoint.clone();
+        badMagic[0] = 'X';
+        PREngine engine = createEngine(new CaptureOutputSink(), false);
+        byte[] before = checkpoint(engine);
+        assertRejected(engine, badMagic);
+
+        byte[] badVersion = checkpoint.clone();
+        badVersion[CheckpointFormat.MAGIC.length] = (byte) (CheckpointFormat.VERSION + 1);
+        assertRejected(engine, badVersion);
+
+        /* Any other damage is either rejected or read as some valid state */
+        Random random = new Random(2106);
+        for (int i = 0; i < 2000; i++) {
+            byte[] damaged = checkpoint.clone();
+            damaged[CheckpointFormat.MAGIC.length + 1
+                + random.nextInt(damaged.length - CheckpointFormat.MAGIC.length - 1)]
+                ^= (byte) (1 << random.nextInt(8));
+            try {
+                engine.readCheckpoint(new ByteArrayInputStream(damaged));
+                engine = createEngine(new CaptureOutputSink(), false);
+            } catch (IllegalArgumentException e) {
+                assertArrayEquals("Rejected checkpoint must not change the state", before,
+                    checkpoint(engine));
+            }
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static PREngine createEngine(CaptureOutputSink out, boolean isAvoiding) {
+        PREngine engine = new PREngine(out);
+        engine.setAvoiding(isAvoiding);
+        engine.setDeadlockChecked(true);
+        engine.setQuantum(3);
+        engine.init(Process.NUM_PRIORITY);
+        return engine;
+    }
+
+    private static void run(PREngine engine, Random random, boolean isAvoiding, int count) {
+        for (int i = 0; i < count; i++) {
+            Main.handleUserCommand(engine, Scripts.nextCommand(random, isAvoiding));
+        }
+    }
+
+    private static byte[] checkpoint(PREngine engine) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        engine.writeCheckpoint(out);
+        return out.toByteArray();
+    }
+
+    private static String printState(PREngine engine) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        OutputSink previous = engine.getOutput();
+        engine.setOutput(out);
+        engine.printAllProcess();
+        engine.printAllResource();
+        engine.printAccounting();
+        engine.setOutput(previous);
+        return out.toString();
+    }
+
+    private static void assertRejected(PREngine engine, byte[] checkpoint) {
+        try {
+            engine.readCheckpoint(new ByteArrayInputStream(checkpoint));
+            fail("Checkpoint of " + checkpoint.length + " bytes must be rejected");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+    }
+}
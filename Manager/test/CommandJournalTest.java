@@ -0,0 +1,140 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of recovery from a CommandJournal: a last block cut short or
+ * damaged by a crash ends the journal, the state is rebuilt from the
+ * blocks before it, and the damaged block is cut off so that what is
+ * journaled next can be recovered too.
+ */
+public class CommandJournalTest {
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("journal", ".bin");
+        Files.delete(file);
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void recoverAll() throws IOException {
+        journal("x", "y");
+        assertEquals("Every call must be recovered", expectedState("x", "y"), recover());
+    }
+
+    @Test
+    public void recoverTruncatedBlock() throws IOException {
+        long committed = journal("x", "y").length;
+        byte[] journaled = journal("z");
+
+        /* Cut the last block anywhere, down to the middle of its header */
+        for (long length = committed + 1; length < journaled.length; length++) {
+            Files.write(file, Arrays.copyOf(journaled, (int) length));
+            assertEquals("Truncated block must be dropped", expectedState("x", "y"), recover());
+            assertEquals("Truncated block must be cut off", committed, Files.size(file));
+        }
+    }
+
+    @Test
+    public void recoverBadChecksum() throws IOException {
+        long committed = journal("x", "y").length;
+        byte[] journaled = journal("z");
+
+        /* Damage the last record of the last block */
+        journaled[journaled.length - 1] ^= 1;
+        Files.write(file, journaled);
+        assertEquals("Damaged block must be dropped", expectedState("x", "y"), recover());
+        assertEquals("Damaged block must be cut off", committed, Files.size(file));
+    }
+
+    @Test
+    public void appendAfterRecovery() throws IOException {
+        journal("x");
+        byte[] journaled = journal("y");
+        Files.write(file, Arrays.copyOf(journaled, journaled.length - 1));
+
+        /* Opening recovers x and cuts off y before z is appended */
+        journal("z");
+        assertEquals("Calls after recovery must be recovered", expectedState("x", "z"),
+            recover());
+    }
+
+    @Test
+    public void rejectLoad() throws IOException {
+        Path checkpoint = Files.createTempFile("checkpoint", ".bin");
+        try {
+            PREngine saved = createEngine();
+            saved.createProcess("w", 1);
+            saved.saveCheckpoint(checkpoint.toString());
+
+            CaptureOutputSink out = new CaptureOutputSink();
+            PREngine engine = createEngine();
+            engine.setOutput(out);
+            CommandJournal journal = CommandJournal.open(file, engine, 1,
+                CommandJournal.DEFAULT_WINDOW_MILLIS);
+            journal.createProcess("x", 1);
+            journal.loadCheckpoint(checkpoint.toString());
+            journal.close();
+
+            assertEquals("Load must be rejected", "x error ", out.toString());
+            assertEquals("Load must not be journaled", expectedState("x"), recover());
+        } finally {
+            Files.delete(checkpoint);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private byte[] journal(String... pids) throws IOException {
+        PREngine engine = createEngine();
+        CommandJournal journal = CommandJournal.open(file, engine, 1,
+            CommandJournal.DEFAULT_WINDOW_MILLIS);
+        for (String pid : pids) {
+            journal.createProcess(pid, 1);
+        }
+        journal.close();
+        return Files.readAllBytes(file);
+    }
+
+    private String recover() throws IOException {
+        PREngine engine = createEngine();
+        CommandJournal.open(file, engine, 1, CommandJournal.DEFAULT_WINDOW_MILLIS).close();
+        return printState(engine);
+    }
+
+    private static String expectedState(String... pids) {
+        PREngine engine = createEngine();
+        for (String pid : pids) {
+            engine.createProcess(pid, 1);
+        }
+        return printState(engine);
+    }
+
+    private static PREngine createEngine() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        engine.init(Process.NUM_PRIORITY);
+        return engine;
+    }
+
+    private static String printState(PREngine engine) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        engine.setOutput(out);
+        engine.printAllProcess();
+        engine.printAllResource();
+        return out.toString();
+    }
+}
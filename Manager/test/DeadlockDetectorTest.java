@@ -0,0 +1,87 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests of DeadlockDetector through PREngine, which checks every blocking
+ * request and lists every cycle on dl. Processes destroyed after a check
+ * give their slots to later processes, which must not see the old marks.
+ */
+public class DeadlockDetectorTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    public void cycleOfTwo() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = createEngine(out);
+
+        run(engine, "init", "cr A 1", "cr B 1", "req R1 1", "to", "req R2 2", "req R1 1",
+            "req R2 1", "dl", "de A", "dl");
+        assertEquals("Cycle must be reported on the request that closes it and by dl",
+            "\r\n\r\ninit A A A B B A deadlock A R2 B R1" + NEW_LINE + "init deadlock A R2 B R1"
+                + NEW_LINE + "init ",
+            out.toString());
+    }
+
+    @Test
+    public void cycleOfThree() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = createEngine(out);
+
+        run(engine, "init", "cr A 1", "cr B 1", "cr C 1", "req R1 1", "to", "req R2 2", "to",
+            "req R3 3", "to", "req R2 1", "req R3 1", "req R1 1", "dl");
+        assertEquals("Cycle through every process must be reported",
+            "\r\n\r\ninit A A A A B B C C A B C deadlock C R1 A R2 B R3" + NEW_LINE
+                + "init deadlock A R2 B R3 C R1" + NEW_LINE,
+            out.toString());
+    }
+
+    @Test
+    public void noCycleWhileHolderRuns() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = createEngine(out);
+
+        run(engine, "init", "cr A 1", "cr B 1", "req R1 1", "to", "req R1 1", "dl");
+        assertFalse("Holder that is not blocked can finish", out.toString().contains("deadlock"));
+    }
+
+    @Test
+    public void reusedSlots() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = createEngine(out);
+        run(engine, "init");
+
+        /* Every round reuses the slots of the round before */
+        for (int i = 0; i < 1000; i++) {
+            out.clear();
+            String a = "A" + i;
+            String b = "B" + i;
+            run(engine, "cr " + a + " 1", "cr " + b + " 1", "req R1 1", "to", "req R2 2",
+                "req R1 1", "req R2 1");
+            assertTrue("Cycle of round " + i + " must be reported",
+                out.toString().endsWith("deadlock " + a + " R2 " + b + " R1" + NEW_LINE + "init "));
+
+            out.clear();
+            run(engine, "de " + a, "cr C 1", "req R1 1", "dl", "de C");
+            assertFalse("No cycle once round " + i + " is destroyed",
+                out.toString().contains("deadlock"));
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static PREngine createEngine(CaptureOutputSink out) {
+        PREngine engine = new PREngine(out);
+        engine.setDeadlockChecked(true);
+        return engine;
+    }
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+}
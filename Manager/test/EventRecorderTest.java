@@ -0,0 +1,136 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests of EventRecorder: the events of a script, the ring buffer once
+ * it has wrapped around, the binary export, and a reader on another
+ * thread that must never see an event whose slot is being reused.
+ */
+public class EventRecorderTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    public void eventsOfScript() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        EventRecorder events = new EventRecorder(16);
+        engine.setEventRecorder(events);
+
+        /* b blocks on R1 held by its parent a, then a and its child b are destroyed */
+        for (String line : new String[] {"init", "cr a 1", "req R1 1", "cr b 2", "req R1 1", "to",
+            "de a"}) {
+            Main.handleUserCommand(engine, line);
+        }
+
+        assertEquals("Events oldest first",
+            lines("0 switch init -", "1 switch a init preempted", "2 switch b a preempted",
+                "3 block b R1 1", "4 switch a b", "5 timeout a", "6 destroy b", "7 destroy a",
+                "8 switch init -"),
+            printLast(events, 100));
+        assertEquals("Most recent events", lines("7 destroy a", "8 switch init -"),
+            printLast(events, 2));
+    }
+
+    @Test
+    public void wrapAround() throws IOException {
+        EventRecorder events = new EventRecorder(3);
+        assertEquals("Capacity rounded up to a power of two", 4, events.getCapacity());
+
+        Process[] processes = createProcesses(10);
+        for (Process p : processes) {
+            events.destroy(p);
+        }
+
+        /* The slot of the oldest event kept may be being reused, so it is left out */
+        assertEquals("Count", 10, events.getCount());
+        assertEquals("Newest events", lines("7 destroy p7", "8 destroy p8", "9 destroy p9"),
+            printLast(events, 10));
+
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        events.writeTo(export);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(export.toByteArray()));
+        byte[] magic = new byte[EventRecorder.MAGIC.length];
+        in.readFully(magic);
+        assertTrue("Magic", Arrays.equals(EventRecorder.MAGIC, magic));
+        assertEquals("Version", EventRecorder.VERSION, in.readByte());
+        assertEquals("Events exported", 3, in.readInt());
+        for (int seq = 7; seq < 10; seq++) {
+            assertEquals("Number", seq, in.readLong());
+            assertEquals("Type", EventRecorder.DESTROY, in.readByte());
+            assertEquals("Flags", 0, in.readByte());
+            assertEquals("Units", 0, in.readInt());
+            assertEquals("Pid", "p" + seq, in.readUTF());
+            assertEquals("No other name", "", in.readUTF());
+        }
+        assertEquals("Nothing after the events", -1, in.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectCapacity() {
+        new EventRecorder(0);
+    }
+
+    @Test
+    public void readerWhileWriting() throws InterruptedException {
+        final EventRecorder events = new EventRecorder(8);
+        final Process[] processes = createProcesses(1000);
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 2000000; i++) {
+                    events.destroy(processes[i % processes.length]);
+                }
+            }
+        });
+        writer.start();
+
+        /* Every event printed must be the one recorded with its number */
+        CaptureOutputSink out = new CaptureOutputSink();
+        while (writer.isAlive()) {
+            out.clear();
+            events.printLast(8, out);
+            for (String line : out.toString().split(NEW_LINE)) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(" ");
+                long seq = Long.parseLong(fields[0]);
+                assertEquals("Event " + seq, "p" + seq % processes.length, fields[2]);
+            }
+        }
+        writer.join();
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static Process[] createProcesses(int count) {
+        Process[] processes = new Process[count];
+        for (int i = 0; i < count; i++) {
+            processes[i] = new Process("p" + i, Process.USER);
+        }
+        return processes;
+    }
+
+    private static String printLast(EventRecorder events, int count) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        events.printLast(count, out);
+        return out.toString();
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder s = new StringBuilder();
+        for (String line : lines) {
+            s.append(line).append(NEW_LINE);
+        }
+        return s.toString();
+    }
+}
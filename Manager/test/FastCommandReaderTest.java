@@ -0,0 +1,71 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of FastCommandReader and CommandParser against the String driver:
+ * every script must print the same with LF and CRLF line separators,
+ * without a separator after the last line, and with chunks so small that
+ * lines straddle every read and the buffer has to grow.
+ */
+public class FastCommandReaderTest {
+
+    private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 64, FastCommandReader.DEFAULT_CHUNK_SIZE};
+
+    @Test
+    public void samples() {
+        for (String script : Scripts.SAMPLES) {
+            assertSameOutput(script);
+        }
+    }
+
+    @Test
+    public void randomScripts() {
+        for (long seed = 1; seed <= 10; seed++) {
+            Random random = new Random(seed);
+            StringBuilder script = new StringBuilder("init\n");
+            for (int i = 0; i < 200; i++) {
+                script.append(Scripts.nextCommand(random, false)).append('\n');
+            }
+            assertSameOutput(script.toString());
+        }
+    }
+
+    @Test
+    public void whitespaceAndBlankLines() {
+        assertSameOutput("\n\ninit\n   \ncr  a\t2\n\tcr b 1  \nreq R2   2\n\nto\nallp\n");
+        assertSameOutput("init\ncr\ncr a\ncr a x\nreq\nreq R1\nreq R1 -1\nbogus 1 2\n");
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void assertSameOutput(String script) {
+        String expected = runText(script);
+        String[] variants = {script, script.replace("\n", "\r\n"),
+            script.substring(0, script.length() - 1)};
+
+        for (String variant : variants) {
+            for (int chunkSize : CHUNK_SIZES) {
+                CaptureOutputSink out = new CaptureOutputSink();
+                byte[] bytes = variant.getBytes(StandardCharsets.UTF_8);
+                new FastCommandReader(new ByteArrayInputStream(bytes), new PREngine(out),
+                    chunkSize).replay();
+                assertEquals("Chunks of " + chunkSize + " of " + variant.replace("\r", "\\r"),
+                    expected, out.toString());
+            }
+        }
+    }
+
+    private static String runText(String script) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+        for (String line : script.split("\n")) {
+            Main.handleUserCommand(engine, line);
+        }
+        return out.toString();
+    }
+}
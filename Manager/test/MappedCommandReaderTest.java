@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of MappedCommandReader against the String driver: every trace file
+ * must print the same with LF and CRLF line separators, without a
+ * separator after the last line, and with windows so small that lines
+ * straddle every window boundary and the window has to grow.
+ */
+public class MappedCommandReaderTest {
+
+    private static final int[] WINDOW_SIZES = {1, 2, 3, 7, 64, MappedCommandReader.DEFAULT_WINDOW_SIZE};
+
+    @Test
+    public void samples() throws IOException {
+        for (String script : Scripts.SAMPLES) {
+            assertSameOutput(script);
+        }
+    }
+
+    @Test
+    public void randomScripts() throws IOException {
+        for (long seed = 1; seed <= 5; seed++) {
+            Random random = new Random(seed);
+            StringBuilder script = new StringBuilder("init\n");
+            for (int i = 0; i < 200; i++) {
+                script.append(Scripts.nextCommand(random, false)).append('\n');
+            }
+            assertSameOutput(script.toString());
+        }
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        assertEquals("Empty file prints nothing", "", runMapped("", 16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectWindowSize() {
+        new MappedCommandReader(null, new PREngine(new CaptureOutputSink()), 0);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void assertSameOutput(String script) throws IOException {
+        String expected = runText(script);
+        String[] variants = {script, script.replace("\n", "\r\n"),
+            script.substring(0, script.length() - 1)};
+
+        for (String variant : variants) {
+            for (int windowSize : WINDOW_SIZES) {
+                assertEquals("Windows of " + windowSize + " of " + variant.replace("\r", "\\r"),
+                    expected, runMapped(variant, windowSize));
+            }
+        }
+    }
+
+    private static String runMapped(String script, int windowSize) throws IOException {
+        Path file = Files.createTempFile("trace", ".txt");
+        try {
+            Files.write(file, script.getBytes(StandardCharsets.UTF_8));
+            CaptureOutputSink out = new CaptureOutputSink();
+            new MappedCommandReader(file, new PREngine(out), windowSize).replay();
+            return out.toString();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String runText(String script) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+        for (String line : script.split("\n")) {
+            Main.handleUserCommand(engine, line);
+        }
+        return out.toString();
+    }
+}
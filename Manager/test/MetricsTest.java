@@ -0,0 +1,110 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of RecordingMetricsSink counters on a script with a known number
+ * of switches, blocks and errors, of the output being the same with and
+ * without metrics, and of LatencyHistogram quantiles against the exact
+ * quantiles of the values recorded.
+ */
+public class MetricsTest {
+
+    @Test
+    public void countersOfScript() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        RecordingMetricsSink metrics = new RecordingMetricsSink();
+        engine.setMetrics(metrics);
+
+        /* init, a preempting init, b on time out, a once b blocks, b on time out */
+        run(engine, "init", "cr a 1", "req R1 1", "cr b 1", "to", "req R1 1", "rel R1 1", "de q",
+            "req R9 1", "to");
+
+        assertEquals("Switches", 5, metrics.getContextSwitches());
+        assertEquals("Preemptions", 1, metrics.getPreemptions());
+        assertEquals("Blocks", 1, metrics.getBlocks());
+        assertEquals("Unblocks", 1, metrics.getUnblocks());
+        assertEquals("Unknown process", 1,
+            metrics.getErrors(MetricsSink.ErrorCause.UNKNOWN_PROCESS));
+        assertEquals("Unknown resource", 1,
+            metrics.getErrors(MetricsSink.ErrorCause.UNKNOWN_RESOURCE));
+        assertEquals("Errors", 2, metrics.getErrorCount());
+
+        assertEquals("Creates", 2, metrics.getLatency(MetricsSink.Operation.CREATE).getCount());
+        assertEquals("Destroys", 1, metrics.getLatency(MetricsSink.Operation.DESTROY).getCount());
+        assertEquals("Requests", 3, metrics.getLatency(MetricsSink.Operation.REQUEST).getCount());
+        assertEquals("Releases", 1, metrics.getLatency(MetricsSink.Operation.RELEASE).getCount());
+        assertEquals("Time outs", 2, metrics.getLatency(MetricsSink.Operation.TIME_OUT).getCount());
+
+        String json = metrics.toJson(engine);
+        assertTrue("Counters in JSON", json.startsWith("{\"counters\": {\"context_switches\": 5, "
+            + "\"preemptions\": 1, \"blocks\": 1, \"unblocks\": 1"));
+        assertTrue("Peak of the Block List in JSON",
+            json.contains("{\"rid\": \"R1\", \"depth\": 0, \"peak\": 1}"));
+    }
+
+    @Test
+    public void sameOutputWithMetrics() {
+        for (String script : Scripts.SAMPLES) {
+            CaptureOutputSink plain = new CaptureOutputSink();
+            run(new PREngine(plain), script.split("\n"));
+
+            CaptureOutputSink measured = new CaptureOutputSink();
+            PREngine engine = new PREngine(measured);
+            engine.setMetrics(new RecordingMetricsSink());
+            run(engine, script.split("\n"));
+
+            assertEquals("Metrics must not change the output", plain.toString(),
+                measured.toString());
+        }
+    }
+
+    @Test
+    public void histogramQuantiles() {
+        Random random = new Random(11);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10000];
+        for (int i = 0; i < values.length; i++) {
+            /* Spread over many powers of two */
+            values[i] = random.nextLong() >>> (1 + random.nextInt(62));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double quantile : new double[] {0.0, 0.5, 0.9, 0.99, 0.999, 1.0}) {
+            long exact = values[(int) Math.max(0, Math.ceil(quantile * values.length) - 1)];
+            long reported = histogram.getValueAt(quantile);
+            assertTrue("Quantile " + quantile + " below " + exact, reported >= exact);
+            assertTrue("Quantile " + quantile + " too far above " + exact,
+                reported - exact <= exact / 8);
+        }
+
+        assertEquals("Count", values.length, histogram.getCount());
+        assertEquals("Min", values[0], histogram.getMin());
+        assertEquals("Max", values[values.length - 1], histogram.getMax());
+    }
+
+    @Test
+    public void histogramExtremes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals("Empty", 0, histogram.getValueAt(0.5));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals("Negative recorded as 0", 0, histogram.getMin());
+        assertEquals("Largest value", Long.MAX_VALUE, histogram.getValueAt(1.0));
+        assertEquals("Smallest value", 0, histogram.getValueAt(0.5));
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+}
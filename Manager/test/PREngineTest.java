@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of PREngine lookups: pids and rids are matched ignoring case
+ * exactly as the original manager matched them with equalsIgnoreCase.
+ *
+ * Advancing the virtual clock by n ticks at once, which skips whole time
+ * slices and whole round-robin rounds, must leave the engine exactly as n
+ * single ticks do, down to the accounting of every process and the number
+ * of context switches.
+ */
+public class PREngineTest {
+
+    @Test
+    public void keyMatchesEqualsIgnoreCase() {
+        String[] targets = {"a", "i", "I", "k", "s", "z", "\u00df", "\u03c3"};
+
+        /* Every char against a few that have unusual case mappings */
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            String id = String.valueOf((char) c);
+            for (String target : targets) {
+                assertEquals("Key of U+" + Integer.toHexString(c) + " against " + target,
+                    id.equalsIgnoreCase(target), PREngine.toKey(id).equals(PREngine.toKey(target)));
+            }
+        }
+    }
+
+    @Test
+    public void lookupIgnoresCase() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+
+        run(engine, "init", "cr Alice 1", "cr ALICE 1", "req r2 1", "de alice");
+        assertEquals("Pids and rids must match ignoring case",
+            "\r\n\r\ninit Alice error Alice init ", out.toString());
+    }
+
+    @Test
+    public void lookupKeepsSpecialCaseMappings() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+
+        /* U+0130 and U+017F lower-case to other strings than 'i' and 's' */
+        run(engine, "init", "cr \u0130d 1", "cr id 1", "cr \u017fx 1", "cr SX 1", "de sx", "de iD");
+        assertEquals("Special case mappings must match as with equalsIgnoreCase",
+            "\r\n\r\ninit \u0130d error \u0130d error \u0130d init ", out.toString());
+    }
+
+    @Test
+    public void tickSkipsRounds() {
+        PREngine bulk = createEngine(10);
+        PREngine single = createEngine(10);
+        for (PREngine engine : new PREngine[] {bulk, single}) {
+            engine.createProcess("x", 1);
+            engine.createProcess("y", 1);
+            engine.createProcess("z", 1);
+        }
+
+        /* 3 rounds of 30 ticks, then one slice and a part of the next */
+        bulk.tick(105);
+        tickOneByOne(single, 105);
+
+        assertEquals("Clock must advance by the ticks", 105, bulk.getClock());
+        assertEquals("Bulk tick must match single ticks", printState(single), printState(bulk));
+    }
+
+    @Test
+    public void tickEqualsSingleTicks() {
+        for (long seed = 1; seed <= 40; seed++) {
+            Random random = new Random(seed);
+            int quantum = 1 + random.nextInt(7);
+            RecordingMetricsSink bulkMetrics = new RecordingMetricsSink();
+            RecordingMetricsSink singleMetrics = new RecordingMetricsSink();
+            PREngine bulk = createEngine(quantum);
+            PREngine single = createEngine(quantum);
+            bulk.setMetrics(bulkMetrics);
+            single.setMetrics(singleMetrics);
+
+            for (int i = 0; i < 300; i++) {
+                String command = Scripts.nextCommand(random, false);
+                if (command.startsWith("tick")) {
+                    int ticks = random.nextBoolean() ? random.nextInt(5) : random.nextInt(600);
+                    bulk.tick(ticks);
+                    tickOneByOne(single, ticks);
+                } else {
+                    Main.handleUserCommand(bulk, command);
+                    Main.handleUserCommand(single, command);
+                }
+
+                assertEquals("Clocks must match", single.getClock(), bulk.getClock());
+                assertEquals("Bulk tick must match single ticks, seed " + seed,
+                    printState(single), printState(bulk));
+            }
+
+            assertEquals("Context switches must match", singleMetrics.getContextSwitches(),
+                bulkMetrics.getContextSwitches());
+            assertEquals("Preemptions must match", singleMetrics.getPreemptions(),
+                bulkMetrics.getPreemptions());
+        }
+    }
+
+    @Test
+    public void negativeTicks() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+        engine.init(Process.NUM_PRIORITY);
+        out.clear();
+
+        engine.tick(-1);
+        assertEquals("Negative ticks must be an error", "error ", out.toString());
+        assertEquals("Clock must not move", 0, engine.getClock());
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+
+    private static PREngine createEngine(int quantum) {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        engine.setQuantum(quantum);
+        engine.init(Process.NUM_PRIORITY);
+        return engine;
+    }
+
+    private static void tickOneByOne(PREngine engine, int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            engine.tick(1);
+        }
+    }
+
+    private static String printState(PREngine engine) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        OutputSink previous = engine.getOutput();
+        engine.setOutput(out);
+        engine.printAllProcess();
+        engine.printAllResource();
+        engine.printAccounting();
+        engine.setOutput(previous);
+        return out.toString();
+    }
+}
@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the virtual time accounting of PREngine: a script whose figures
+ * are worked out by hand, and random scripts where every live process
+ * must have spent its whole age running, ready or blocked, every level
+ * the ages of its live processes plus the turnaround of its destroyed
+ * ones, and the processes together exactly one tick running per tick.
+ */
+public class ProcessAccountingTest {
+
+    private static final String NEW_LINE = System.lineSeparator();
+
+    @Test
+    public void figuresOfScript() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+
+        /* x runs 25 ticks, y waits 20 ticks on R2 from tick 5 and is destroyed at 25 */
+        run(engine, "init", "cr x 1", "cr y 1", "req R2 2", "tick 5", "to", "req R2 1", "tick 20",
+            "rel R2 2", "de y");
+
+        assertEquals("Figures of live processes, then of every level",
+            "init 0 1 run 0 ready 25 blocked 0 dispatches 1 age 25" + NEW_LINE
+                + "x 1 0 run 25 ready 0 blocked 0 dispatches 2 age 25" + NEW_LINE
+                + "level 0 processes 1 destroyed 0 run 0 ready 25 blocked 0 dispatches 1"
+                + " turnaround 0 wait R1:0 R2:0 R3:0 R4:0" + NEW_LINE
+                + "level 1 processes 1 destroyed 1 run 25 ready 5 blocked 20 dispatches 3"
+                + " turnaround 25 wait R1:0 R2:20 R3:0 R4:0" + NEW_LINE
+                + "level 2 processes 0 destroyed 0 run 0 ready 0 blocked 0 dispatches 0"
+                + " turnaround 0 wait R1:0 R2:0 R3:0 R4:0" + NEW_LINE,
+            printAccounting(engine));
+    }
+
+    @Test
+    public void ticksAddUp() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            PREngine engine = new PREngine(new CaptureOutputSink());
+            engine.setQuantum(1 + random.nextInt(7));
+            engine.init(Process.NUM_PRIORITY);
+
+            for (int i = 0; i < 400; i++) {
+                Main.handleUserCommand(engine, Scripts.nextCommand(random, false));
+            }
+            assertTicksAddUp("Seed " + seed, engine);
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void assertTicksAddUp(String message, PREngine engine) {
+        long totalRun = 0;
+        for (String line : printAccounting(engine).split(NEW_LINE)) {
+            String[] fields = line.split(" ");
+            if (fields[0].equals("level")) {
+                long run = Long.parseLong(fields[7]);
+                long ready = Long.parseLong(fields[9]);
+                long blocked = Long.parseLong(fields[11]);
+                long turnaround = Long.parseLong(fields[15]);
+                totalRun += run;
+                assertEquals(message + ": " + line, run + ready + blocked,
+                    getAges(engine, Integer.parseInt(fields[1])) + turnaround);
+            } else {
+                long run = Long.parseLong(fields[4]);
+                long ready = Long.parseLong(fields[6]);
+                long blocked = Long.parseLong(fields[8]);
+                long age = Long.parseLong(fields[12]);
+                assertEquals(message + ": " + line, age, run + ready + blocked);
+            }
+        }
+        assertEquals(message + ": a single process runs at a time", engine.getClock(), totalRun);
+    }
+
+    private static long getAges(PREngine engine, int level) {
+        long ages = 0;
+        for (String line : printAccounting(engine).split(NEW_LINE)) {
+            String[] fields = line.split(" ");
+            if (!fields[0].equals("level") && Integer.parseInt(fields[1]) == level) {
+                ages += Long.parseLong(fields[12]);
+            }
+        }
+        return ages;
+    }
+
+    private static String printAccounting(PREngine engine) {
+        CaptureOutputSink out = new CaptureOutputSink();
+        OutputSink previous = engine.getOutput();
+        engine.setOutput(out);
+        engine.printAccounting();
+        engine.setOutput(previous);
+        return out.toString();
+    }
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+}
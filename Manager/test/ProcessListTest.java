@@ -0,0 +1,96 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the intrusive ProcessList against a list of the processes in
+ * the order they were added, removing from the front, the middle and the
+ * back, and removing processes that are in another list.
+ */
+public class ProcessListTest {
+
+    @Test
+    public void removeFromEveryPosition() {
+        ProcessList list = new ProcessList();
+        Process a = add(list, "a");
+        Process b = add(list, "b");
+        Process c = add(list, "c");
+        Process d = add(list, "d");
+
+        assertTrue("Middle", list.remove(b));
+        assertOrder(list, a, c, d);
+        assertTrue("Back", list.remove(d));
+        assertOrder(list, a, c);
+        assertTrue("Front", list.remove(a));
+        assertOrder(list, c);
+        assertTrue("Last", list.remove(c));
+        assertOrder(list);
+        assertNull("Removed process must be unlinked", c.getList());
+    }
+
+    @Test
+    public void removeFromOtherList() {
+        ProcessList first = new ProcessList();
+        ProcessList second = new ProcessList();
+        Process a = add(first, "a");
+        Process b = add(second, "b");
+
+        assertFalse("Process of another list", first.remove(b));
+        assertFalse("Process of no list", first.remove(new Process("c", Process.USER)));
+        assertOrder(first, a);
+        assertOrder(second, b);
+
+        /* A removed process can be added to another list */
+        first.remove(a);
+        second.add(a);
+        assertOrder(first);
+        assertOrder(second, b, a);
+    }
+
+    @Test
+    public void randomAgainstArrayList() {
+        Random random = new Random(3);
+        ProcessList list = new ProcessList();
+        ArrayList<Process> expected = new ArrayList<Process>();
+
+        for (int i = 0; i < 5000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                expected.add(add(list, "p" + i));
+            } else {
+                assertTrue("Step " + i, list.remove(expected.remove(random.nextInt(expected.size()))));
+            }
+            assertOrder(list, expected.toArray(new Process[expected.size()]));
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static Process add(ProcessList list, String pid) {
+        Process p = new Process(pid, Process.USER);
+        list.add(p);
+        return p;
+    }
+
+    private static void assertOrder(ProcessList list, Process... expected) {
+        assertEquals("Size", expected.length, list.size());
+        assertEquals("Empty", expected.length == 0, list.isEmpty());
+
+        Process p = list.getFirst();
+        Process prev = null;
+        for (Process e : expected) {
+            assertSame("Next of " + (prev == null ? "head" : prev.getPid()), e, p);
+            assertSame("Prev of " + e.getPid(), prev, p.getPrev());
+            assertSame("List of " + e.getPid(), list, p.getList());
+            prev = p;
+            p = p.getNext();
+        }
+        assertNull("Tail must end the list", p);
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import org.junit.Test;
+
+/**
+ * Tests of ProcessPool, in particular that a recycled PCB is in the same
+ * state as a new one, whatever the process it belonged to had set.
+ */
+public class ProcessPoolTest {
+
+    @Test
+    public void reusesReleasedPcb() {
+        ProcessPool pool = new ProcessPool(1);
+        Process a = pool.acquire("a", Process.USER);
+        Process b = pool.acquire("b", Process.USER);
+        pool.release(a);
+        pool.release(b);
+
+        assertEquals("Pool must keep no more than its capacity", 1, pool.size());
+        assertSame("Released PCB must be reused", a, pool.acquire("c", Process.SYSTEM));
+        assertNotSame("Empty pool must create a new PCB", a, pool.acquire("d", Process.USER));
+        assertEquals("Hits", 1, pool.getHits());
+        assertEquals("Misses", 3, pool.getMisses());
+    }
+
+    @Test
+    public void recycledPcbIsNew() throws IllegalAccessException {
+        ProcessPool pool = new ProcessPool();
+        Process p = pool.acquire("a", Process.USER);
+        dirty(p);
+        pool.release(p);
+
+        Process recycled = pool.acquire("b", Process.SYSTEM);
+        assertSame("Released PCB must be reused", p, recycled);
+        assertSameState(new Process("b", Process.SYSTEM), recycled);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void dirty(Process p) {
+        Process other = new Process("other", Process.USER);
+        ProcessList list = new ProcessList();
+        list.add(p);
+        list.add(other);
+        p.addChild(other);
+        other.addChild(new Process("sibling", Process.USER));
+        new Process("parent", Process.USER).addChild(p);
+
+        p.getResources().add(0, 2);
+        p.setType(Process.BLOCKED);
+        p.setBlockedReqUnit(2);
+        p.setBlockedSeq(9);
+        p.setBypassCount(3);
+        p.setBlockedOn(new Resource("R", 4, 0));
+        WaiterIndex waiters = new WaiterIndex();
+        waiters.add(other, 2);
+        waiters.add(p, 2);
+
+        p.setClaims(new ResourceHoldings());
+        p.setClaimPrev(other);
+        p.setClaimNext(other);
+        p.setCheckpointIndex(5);
+        p.setCreatedAt(1);
+        p.setStateSince(2);
+        p.setRunTicks(3);
+        p.setReadyTicks(4);
+        p.setBlockedTicks(5);
+        p.setDispatches(6);
+        p.setKey("a");
+        p.setSlot(7);
+        p.setOrderPrev(other);
+        p.setOrderNext(other);
+    }
+
+    private static void assertSameState(Process expected, Process actual)
+        throws IllegalAccessException {
+        for (Field field : Process.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            field.setAccessible(true);
+            Object value = field.get(actual);
+            if (value instanceof ResourceHoldings && field.get(expected) != null) {
+                /* Holdings keep their storage, so only their contents are compared */
+                assertTrue(field.getName() + " must be empty", ((ResourceHoldings) value).isEmpty());
+            } else {
+                assertEquals(field.getName() + " must be reset", field.get(expected), value);
+            }
+        }
+    }
+}
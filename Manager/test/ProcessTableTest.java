@@ -0,0 +1,127 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the open-addressed ProcessTable, in particular that removing a
+ * process shifts the rest of its probe run back so that every other
+ * process can still be found.
+ *
+ * Keys made of the blocks "Aa" and "BB" all have the same hash code, so
+ * they fill a single probe run and every removal has entries to shift.
+ */
+public class ProcessTableTest {
+
+    @Test
+    public void removeFromCollidingRun() {
+        ArrayList<String> keys = collidingKeys(4);
+        assertEquals("All keys must collide", 16, keys.size());
+
+        /* Remove from the front, the middle and the back of the run */
+        int[] order = {0, 7, 15, 1, 8, 14, 2, 9, 13, 3, 10, 12, 4, 11, 5, 6};
+        ProcessTable table = new ProcessTable();
+        LinkedHashMap<String, Process> expected = new LinkedHashMap<String, Process>();
+        for (String key : keys) {
+            add(table, expected, key);
+        }
+
+        for (int i : order) {
+            String key = keys.get(i);
+            table.remove(expected.remove(key));
+            assertNull("Removed process must not be found", table.get(key));
+            assertContents(table, expected);
+        }
+    }
+
+    @Test
+    public void removeAcrossWrapAround() {
+        /* Enough keys to grow the table, so runs wrap around its end */
+        ArrayList<String> keys = collidingKeys(5);
+        ProcessTable table = new ProcessTable();
+        LinkedHashMap<String, Process> expected = new LinkedHashMap<String, Process>();
+        for (String key : keys) {
+            add(table, expected, key);
+            add(table, expected, "p" + key.length() + expected.size());
+        }
+
+        for (int i = keys.size() - 1; i >= 0; i -= 3) {
+            table.remove(expected.remove(keys.get(i)));
+            assertContents(table, expected);
+        }
+    }
+
+    @Test
+    public void randomAddAndRemove() {
+        Random random = new Random(2106);
+        ProcessTable table = new ProcessTable();
+        LinkedHashMap<String, Process> expected = new LinkedHashMap<String, Process>();
+
+        for (int i = 0; i < 20000; i++) {
+            String key = "p" + random.nextInt(300);
+            if (expected.containsKey(key)) {
+                table.remove(expected.remove(key));
+            } else {
+                add(table, expected, key);
+            }
+
+            if (i % 100 == 0) {
+                assertContents(table, expected);
+            }
+        }
+        assertContents(table, expected);
+    }
+
+    @Test
+    public void removeLastProcess() {
+        ProcessTable table = new ProcessTable();
+        Process p = new Process("x", 1);
+        table.add(p, "x");
+        table.remove(p);
+
+        assertEquals("Table must be empty", 0, table.size());
+        assertNull("Creation order must be empty", table.getFirst());
+        assertNull("Removed process must not be found", table.get("x"));
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static ArrayList<String> collidingKeys(int blocks) {
+        ArrayList<String> keys = new ArrayList<String>();
+        keys.add("");
+        for (int i = 0; i < blocks; i++) {
+            ArrayList<String> longer = new ArrayList<String>();
+            for (String key : keys) {
+                longer.add(key + "Aa");
+                longer.add(key + "BB");
+            }
+            keys = longer;
+        }
+        return keys;
+    }
+
+    private static void add(ProcessTable table, LinkedHashMap<String, Process> expected,
+        String key) {
+        Process p = new Process(key, 1);
+        table.add(p, key);
+        expected.put(key, p);
+    }
+
+    private static void assertContents(ProcessTable table, LinkedHashMap<String, Process> expected) {
+        assertEquals("Size must match", expected.size(), table.size());
+
+        /* Every process is found, and creation order is kept */
+        Process p = table.getFirst();
+        for (String key : expected.keySet()) {
+            assertSame("Process must be found by its key", expected.get(key), table.get(key));
+            assertSame("Creation order must be kept", expected.get(key), p);
+            p = p.getOrderNext();
+        }
+        assertNull("Creation order must end with the last process", p);
+    }
+}
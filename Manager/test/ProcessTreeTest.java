@@ -0,0 +1,98 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests of destroying process subtrees: a chain as deep as the priority
+ * levels allow is destroyed on a thread with a small stack, so a kill
+ * that recursed once per level would overflow it, and a destroyed
+ * subtree leaves its siblings and their resources alone.
+ */
+public class ProcessTreeTest {
+
+    /**
+     * Stack of the thread that destroys the chain, far too small for a
+     * frame per process of the chain
+     */
+    private static final long STACK_SIZE = 64 * 1024;
+
+    @Test
+    public void destroyDeepChain() throws Throwable {
+        final Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    killChain(ReadyQueue.MAX_LEVELS - 2);
+                } catch (Throwable e) {
+                    failure[0] = e;
+                }
+            }
+        }, "chain", STACK_SIZE);
+
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    @Test
+    public void destroySubtreeOnly() {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        run(engine, "init", "cr a 1", "cr b 1", "cr c 1", "req R4 1", "to", "cr d 1", "req R4 2",
+            "to", "to", "req R3 3");
+
+        /* a holds R4 and R3, its child b holds R4 and has child d, c holds nothing */
+        run(engine, "de b");
+        assertNull("b must be destroyed", engine.getProcess("b"));
+        assertNull("d must be destroyed with b", engine.getProcess("d"));
+        assertNotNull("a must be kept", engine.getProcess("a"));
+        assertNotNull("c must be kept", engine.getProcess("c"));
+        assertEquals("Units of b must be free", 3, engine.getResource("R4").getFreeUnits());
+
+        run(engine, "de a");
+        for (String pid : new String[] {"a", "b", "c", "d"}) {
+            assertNull(pid + " must be destroyed", engine.getProcess(pid));
+        }
+        assertEquals("Units of a must be free", 4, engine.getResource("R4").getFreeUnits());
+        assertEquals("Units of a must be free", 3,
+            engine.getResource("R3").getFreeUnits());
+        assertEquals("Init runs once the tree is gone", "init",
+            engine.getRunningProcess().getPid());
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void killChain(int length) {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        engine.init(length + 2);
+
+        /* Every process of the chain preempts its parent, then has a ready leaf */
+        for (int i = 0; i < length; i++) {
+            engine.createProcess("c" + i, i + 2);
+            engine.createProcess("l" + i, Process.USER);
+            if (i == 0) {
+                engine.requestResources("R4", 4);
+            }
+        }
+
+        engine.destroyProcess("c0");
+        for (int i = 0; i < length; i++) {
+            assertNull("c" + i + " must be destroyed", engine.getProcess("c" + i));
+            assertNull("l" + i + " must be destroyed", engine.getProcess("l" + i));
+        }
+        assertEquals("Leaves must leave the Ready List", 0, engine.getReadyCount(Process.USER));
+        assertEquals("Units of the chain must be free", 4, engine.getResource("R4").getFreeUnits());
+        assertEquals("Init runs once the chain is gone", "init",
+            engine.getRunningProcess().getPid());
+    }
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+}
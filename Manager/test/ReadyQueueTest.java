@@ -0,0 +1,103 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the occupancy bitmap of ReadyQueue: the highest non-empty level
+ * must be found across the 64 bit words of the bitmap, and levels that
+ * become empty must be cleared from it.
+ */
+public class ReadyQueueTest {
+
+    @Test
+    public void emptyQueue() {
+        ReadyQueue queue = new ReadyQueue(3);
+        assertEquals("Empty queue has no highest level", -1, queue.getHighestLevel());
+        assertNull("Empty queue has no highest process", queue.getHighest());
+    }
+
+    @Test
+    public void levelsAtWordBoundaries() {
+        ReadyQueue queue = new ReadyQueue(ReadyQueue.MAX_LEVELS);
+        int[] levels = {0, 63, 64, 127, 128, 4031, 4032, ReadyQueue.MAX_LEVELS - 1};
+        Process[] processes = new Process[levels.length];
+
+        for (int i = 0; i < levels.length; i++) {
+            processes[i] = new Process("p" + i, levels[i]);
+            queue.add(processes[i]);
+            assertEquals("Highest level must be the last added", levels[i],
+                queue.getHighestLevel());
+        }
+
+        /* Removing the highest level falls back to the next one below */
+        for (int i = levels.length - 1; i >= 0; i--) {
+            assertSame("Highest process must be on the highest level", processes[i],
+                queue.getHighest());
+            queue.remove(processes[i]);
+            assertEquals("Highest level must be the next one below",
+                i == 0 ? -1 : levels[i - 1], queue.getHighestLevel());
+        }
+    }
+
+    @Test
+    public void levelStaysUntilEmpty() {
+        ReadyQueue queue = new ReadyQueue(130);
+        Process a = new Process("a", 129);
+        Process b = new Process("b", 129);
+        Process c = new Process("c", 1);
+        queue.add(a);
+        queue.add(b);
+        queue.add(c);
+
+        queue.remove(a);
+        assertEquals("Level must stay while not empty", 129, queue.getHighestLevel());
+        assertSame("Level must be FIFO", b, queue.getHighest());
+
+        queue.remove(b);
+        assertEquals("Empty level must be cleared", 1, queue.getHighestLevel());
+        assertSame("Only process left must be highest", c, queue.getHighest());
+    }
+
+    @Test
+    public void randomAgainstScan() {
+        Random random = new Random(2106);
+        ReadyQueue queue = new ReadyQueue(ReadyQueue.MAX_LEVELS);
+        ArrayList<Process> ready = new ArrayList<Process>();
+
+        for (int i = 0; i < 20000; i++) {
+            if (ready.isEmpty() || random.nextInt(3) != 0) {
+                /* Cluster the levels so that some of them hold many processes */
+                int level = random.nextBoolean() ? random.nextInt(ReadyQueue.MAX_LEVELS)
+                    : 60 + random.nextInt(10);
+                Process p = new Process("p" + i, level);
+                queue.add(p);
+                ready.add(p);
+            } else {
+                queue.remove(ready.remove(random.nextInt(ready.size())));
+            }
+
+            assertEquals("Highest level must match a scan of every process",
+                scanHighest(ready), queue.getHighestLevel());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyLevels() {
+        new ReadyQueue(ReadyQueue.MAX_LEVELS + 1);
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static int scanHighest(ArrayList<Process> ready) {
+        int highest = -1;
+        for (Process p : ready) {
+            highest = Math.max(highest, p.getPriority());
+        }
+        return highest;
+    }
+}
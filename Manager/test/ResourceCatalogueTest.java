@@ -0,0 +1,113 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests of ResourceCatalogue specs and files, of the entries it rejects,
+ * and of the engine looking up every resource of a large catalogue by
+ * rid ignoring case.
+ */
+public class ResourceCatalogueTest {
+
+    @Test
+    public void standard() {
+        ResourceCatalogue catalogue = ResourceCatalogue.STANDARD;
+        assertEquals("Size", 4, catalogue.size());
+        for (int i = 0; i < catalogue.size(); i++) {
+            assertEquals("Rid", "R" + (i + 1), catalogue.getRid(i));
+            assertEquals("Units", i + 1, catalogue.getUnits(i));
+        }
+        assertTrue("Standard resources are FIFO", catalogue.isAllFifo());
+    }
+
+    @Test
+    public void specWithRangesAndPolicies() {
+        ResourceCatalogue catalogue =
+            ResourceCatalogue.parse("disk:1000000:best-fit, R1..R3:10 ,tape:2");
+        assertEquals("Size", 5, catalogue.size());
+        assertEquals("Rid", "disk", catalogue.getRid(0));
+        assertEquals("Units", 1000000, catalogue.getUnits(0));
+        assertSame("Own policy", WakeUpPolicy.BEST_FIT, catalogue.getPolicy(0));
+        assertEquals("First of range", "R1", catalogue.getRid(1));
+        assertEquals("Last of range", "R3", catalogue.getRid(3));
+        assertEquals("Units of range", 10, catalogue.getUnits(3));
+        assertSame("Default policy", WakeUpPolicy.FIFO, catalogue.getPolicy(4));
+        assertFalse("Not all FIFO", catalogue.isAllFifo());
+
+        ResourceCatalogue firstFit = catalogue.withDefaultPolicy(WakeUpPolicy.FIRST_FIT);
+        assertSame("Own policy kept", WakeUpPolicy.BEST_FIT, firstFit.getPolicy(0));
+        assertSame("Default policy replaced", WakeUpPolicy.FIRST_FIT, firstFit.getPolicy(4));
+    }
+
+    @Test
+    public void rejectInvalidSpecs() {
+        String[] specs = {"", "R1", "R1:1:fifo:2", "R1:0", "R1:-1", "R1:x",
+            "R1:" + (ResourceCatalogue.MAX_UNITS + 1L), "R1:1,r1:2", "R 1:1", "R1:1:nope",
+            "R3..R1:1", "R1..S3:1", "R..R3:1", "R1..R:1"};
+        for (String spec : specs) {
+            try {
+                ResourceCatalogue.parse(spec);
+                fail("Spec must be rejected: " + spec);
+            } catch (IllegalArgumentException e) {
+                /* Expected */
+            }
+        }
+    }
+
+    @Test
+    public void catalogueFile() throws IOException {
+        Path file = Files.createTempFile("catalogue", ".txt");
+        try {
+            Files.write(file, Arrays.asList("# rid units [policy]", "", "  R1 1", "disk\t8 first-fit"),
+                StandardCharsets.UTF_8);
+            ResourceCatalogue catalogue = ResourceCatalogue.read(file.toString());
+            assertEquals("Size", 2, catalogue.size());
+            assertEquals("Rid", "disk", catalogue.getRid(1));
+            assertEquals("Units", 8, catalogue.getUnits(1));
+            assertSame("Policy", WakeUpPolicy.FIRST_FIT, catalogue.getPolicy(1));
+
+            Files.write(file, Arrays.asList("R1 1", "R2"), StandardCharsets.UTF_8);
+            try {
+                ResourceCatalogue.load(file);
+                fail("Line without units must be rejected");
+            } catch (IllegalArgumentException e) {
+                assertTrue("Error names the line", e.getMessage().startsWith("line 2:"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        assertEquals("Not a file, so a spec", 3, ResourceCatalogue.read("R1..R3:1").size());
+    }
+
+    @Test
+    public void lookupInLargeCatalogue() {
+        CaptureOutputSink out = new CaptureOutputSink();
+        PREngine engine = new PREngine(out);
+        engine.setCatalogue(ResourceCatalogue.parse("R1..R5000:10"));
+        Main.handleUserCommand(engine, "init");
+
+        for (int i = 1; i <= 5000; i++) {
+            Resource r = engine.getResource("r" + i);
+            assertEquals("Rid ignoring case", "R" + i, r.getRid());
+            assertEquals("Index", i - 1, r.getIndex());
+        }
+        assertNull("No such resource", engine.getResource("R5001"));
+
+        Main.handleUserCommand(engine, "cr a 1");
+        Main.handleUserCommand(engine, "req r4999 10");
+        assertEquals("Request on a resource far down the catalogue", 0,
+            engine.getResource("R4999").getFreeUnits());
+    }
+}
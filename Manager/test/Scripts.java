@@ -0,0 +1,58 @@
+import java.util.Random;
+
+/**
+ * Scripts of driver commands shared by the tests: the commands of the
+ * sample test sequences, and random commands over a few pids and the four
+ * standard resources, with the odd invalid command.
+ */
+final class Scripts {
+
+    /**
+     * Sample test sequences, one command per line
+     */
+    static final String[] SAMPLES = {
+        "init\ncr x 1\ncr p 1\ncr q 1\ncr r 1\nto\nreq R2 1\nto\nreq R3 3\nto\nreq R4 3\nto\nto\n"
+            + "req R3 1\nreq R4 2\nreq R2 2\nto\nde q\nto\nto\n",
+        "init\ncr x 1\ncr y 1\nto\ncr z 2\nto\nreq R1 1\nto\nreq R1 1\nde z\nrel R1 1\nde x\n",
+        "init\ncr a 2\ncr b 1\nreq R4 4\ncr c 2\nto\nreq R4 1\nto\nrel R4 4\nde a\nto\nde c\n"
+            + "allp\nallr\n",
+        "init\ncr x 1\ncr y 1\ncr z 1\ntick 25\nreq R2 2\ntick 7\nto\nrel R2 2\ntick 100\n"
+            + "allp\nde y\ntick 3\n",
+        "init\ncr a 1\nreq R3 2\ncr b 1\nto\nreq R3 2\nto\nreq R2 1\nto\nreq R2 1\nallr\nde b\n"
+            + "init\ncr x 2\nde x\ncr x 3\nto\nreq R5 1\nrel R1 1\n"
+    };
+
+    private Scripts() {
+    }
+
+    /**
+     * Returns a random driver command. Creates declare claims when the
+     * engine avoids deadlocks.
+     *
+     * @param random     the random generator
+     * @param isAvoiding whether creates declare claims
+     * @return the command line
+     */
+    static String nextCommand(Random random, boolean isAvoiding) {
+        int kind = random.nextInt(20);
+        String pid = "p" + random.nextInt(12);
+        String rid = "R" + (1 + random.nextInt(4));
+
+        if (kind < 4) {
+            return "cr " + pid + " " + (1 + random.nextInt(2)) + (isAvoiding
+                ? " R1:1,R2:2,R3:" + (1 + random.nextInt(3)) + ",R4:" + (1 + random.nextInt(4))
+                : "");
+        } else if (kind < 6) {
+            return "de " + pid;
+        } else if (kind < 11) {
+            return "req " + rid + " " + (1 + random.nextInt(3));
+        } else if (kind < 15) {
+            return "rel " + rid + " " + (1 + random.nextInt(3));
+        } else if (kind < 17) {
+            return "to";
+        } else if (kind == 17) {
+            return random.nextBoolean() ? "cr " + pid + " 5" : "req R9 1";
+        }
+        return "tick " + random.nextInt(40);
+    }
+}
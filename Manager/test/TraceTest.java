@@ -0,0 +1,115 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of binary traces: a script compiled by TraceCompiler and replayed
+ * by TraceReplayer must print exactly what the text driver prints, and a
+ * trace with a corrupt name must be rejected before the name is read.
+ */
+public class TraceTest {
+
+    @Test
+    public void roundTripSamples() throws IOException {
+        for (String script : Scripts.SAMPLES) {
+            assertRoundTrip(script, Process.NUM_PRIORITY);
+        }
+    }
+
+    @Test
+    public void roundTripRandom() throws IOException {
+        for (long seed = 1; seed <= 20; seed++) {
+            Random random = new Random(seed);
+            StringBuilder script = new StringBuilder("init\n");
+            for (int i = 0; i < 300; i++) {
+                script.append(Scripts.nextCommand(random, false)).append('\n');
+            }
+            assertRoundTrip(script.toString(), Process.NUM_PRIORITY);
+        }
+    }
+
+    @Test
+    public void levelsOfInit() throws IOException {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        new TraceReplayer(new ByteArrayInputStream(compile("init\ncr a 7\n", 8)), engine).replay();
+
+        assertEquals("Init must use the levels given to the compiler", 8,
+            engine.getNumPriority());
+        assertEquals("Priority 7 must be valid with 8 levels", 7,
+            engine.getProcess("a").getPriority());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectLevels() throws IOException {
+        compile("init\n", ReadyQueue.MAX_LEVELS + 1);
+    }
+
+    @Test
+    public void rejectNameLength() {
+        /* Longer than any name, and longer than what follows */
+        assertRejected(nameTrace(TraceFormat.MAX_NAME_LENGTH + 1, 0));
+        assertRejected(nameTrace(Integer.MAX_VALUE, 0));
+        assertRejected(nameTrace(TraceFormat.MAX_NAME_LENGTH, 100));
+        assertRejected(nameTrace(3, 2));
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static void assertRoundTrip(String script, int numPriority) throws IOException {
+        CaptureOutputSink textOut = new CaptureOutputSink();
+        PREngine text = new PREngine(textOut);
+        for (String line : script.split("\n")) {
+            Main.handleUserCommand(text, line, numPriority);
+        }
+
+        CaptureOutputSink traceOut = new CaptureOutputSink();
+        PREngine trace = new PREngine(traceOut);
+        new TraceReplayer(new ByteArrayInputStream(compile(script, numPriority)), trace).replay();
+
+        assertEquals("Replayed trace must print what the script prints", textOut.toString(),
+            traceOut.toString());
+    }
+
+    private static byte[] compile(String script, int numPriority) throws IOException {
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        TraceCompiler.compile(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)),
+            trace, numPriority);
+        return trace.toByteArray();
+    }
+
+    private static byte[] nameTrace(int length, int present) {
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        trace.write(TraceFormat.MAGIC, 0, TraceFormat.MAGIC.length);
+        trace.write(TraceFormat.VERSION);
+        trace.write(TraceFormat.DEFINE_PID);
+
+        /* Length as an unsigned varint, then only some of its bytes */
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            trace.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        trace.write(value);
+        for (int i = 0; i < present; i++) {
+            trace.write('a');
+        }
+        return trace.toByteArray();
+    }
+
+    private static void assertRejected(byte[] trace) {
+        try {
+            new TraceReplayer(new ByteArrayInputStream(trace),
+                new PREngine(new CaptureOutputSink())).replay();
+            fail("Trace of " + trace.length + " bytes must be rejected");
+        } catch (IllegalArgumentException e) {
+            /* Expected */
+        }
+    }
+}
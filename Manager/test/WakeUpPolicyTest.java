@@ -0,0 +1,137 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of the FIFO, FIRST_FIT and BEST_FIT wake-up policies, of the
+ * bypass limit of BEST_FIT, and of WaiterIndex against a scan of every
+ * waiter in the order they blocked.
+ */
+public class WakeUpPolicyTest {
+
+    /**
+     * A holds all of R, then B, C and D block asking for 3, 1 and 2 units
+     */
+    private static final String[] WAITERS = {"init", "cr A 1", "cr B 1", "cr C 1", "cr D 1",
+        "req R 4", "to", "req R 3", "req R 1", "req R 2"};
+
+    @Test
+    public void fifoWaitsForHead() {
+        PREngine engine = createEngine("R:4:fifo");
+        run(engine, WAITERS);
+        run(engine, "rel R 2");
+        assertBlocked("Nothing fits the head of the Block List", engine, true, true, true);
+    }
+
+    @Test
+    public void firstFitServesLongestWaiting() {
+        PREngine engine = createEngine("R:4:first-fit");
+        run(engine, WAITERS);
+        run(engine, "rel R 2");
+        assertBlocked("C waited longest of those that fit", engine, true, false, true);
+    }
+
+    @Test
+    public void bestFitServesLargest() {
+        PREngine engine = createEngine("R:4:best-fit");
+        run(engine, WAITERS);
+        run(engine, "rel R 2");
+        assertBlocked("D asked for the most units that fit", engine, true, true, false);
+        assertEquals("B was bypassed by D", 1, engine.getProcess("B").getBypassCount());
+    }
+
+    @Test
+    public void bypassLimit() {
+        PREngine engine = createEngine("R:4:best-fit");
+        engine.setMaxBypass(1);
+        run(engine, WAITERS);
+        run(engine, "rel R 2", "rel R 2");
+        assertBlocked("B bypassed once is served first, and does not fit", engine, true, true,
+            false);
+    }
+
+    @Test
+    public void declinedGrantIsNoBypass() {
+        PREngine engine = createEngine("R:4:best-fit,S:1");
+        engine.setAvoiding(true);
+
+        /* Granting D leaves E waiting on R for S and A waiting for R */
+        run(engine, "init", "cr A 1 R:4", "cr B 1 R:3", "cr D 1 R:2,S:1", "cr E 1 S:1,R:1",
+            "req R 4", "to", "req R 3", "req R 2", "req S 1", "to", "rel R 2");
+        assertEquals("D must not be granted R", Process.BLOCKED,
+            engine.getProcess("D").getType());
+        assertEquals("B is not bypassed by a grant the Banker declined", 0,
+            engine.getProcess("B").getBypassCount());
+    }
+
+    @Test
+    public void waiterIndexAgainstScan() {
+        Random random = new Random(17);
+        WaiterIndex index = new WaiterIndex();
+        ArrayList<Process> waiters = new ArrayList<Process>();
+
+        for (int i = 0; i < 20000; i++) {
+            if (waiters.isEmpty() || random.nextInt(3) > 0) {
+                Process p = new Process("p" + i, Process.USER);
+                p.setBlockedSeq(i);
+                p.setBlockedReqUnit(1 + random.nextInt(200));
+                index.add(p, p.getBlockedReqUnit());
+                waiters.add(p);
+            } else {
+                WaiterIndex.remove(waiters.remove(random.nextInt(waiters.size())));
+            }
+
+            int freeUnits = random.nextInt(220);
+            assertSame("First fit of " + freeUnits + " at step " + i,
+                scanFirstFit(waiters, freeUnits), index.getFirstFit(freeUnits));
+            assertSame("Best fit of " + freeUnits + " at step " + i,
+                scanBestFit(waiters, freeUnits), index.getBestFit(freeUnits));
+        }
+    }
+
+    /* Helper Methods - Self Explanatory */
+
+    private static PREngine createEngine(String catalogue) {
+        PREngine engine = new PREngine(new CaptureOutputSink());
+        engine.setCatalogue(ResourceCatalogue.parse(catalogue));
+        return engine;
+    }
+
+    private static void run(PREngine engine, String... lines) {
+        for (String line : lines) {
+            Main.handleUserCommand(engine, line);
+        }
+    }
+
+    private static void assertBlocked(String message, PREngine engine, boolean... isBlocked) {
+        String[] pids = {"B", "C", "D"};
+        for (int i = 0; i < pids.length; i++) {
+            assertEquals(message + ": " + pids[i], isBlocked[i],
+                engine.getProcess(pids[i]).getType() == Process.BLOCKED);
+        }
+    }
+
+    private static Process scanFirstFit(ArrayList<Process> waiters, int freeUnits) {
+        for (Process p : waiters) {
+            if (p.getBlockedReqUnit() <= freeUnits) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    private static Process scanBestFit(ArrayList<Process> waiters, int freeUnits) {
+        Process best = null;
+        for (Process p : waiters) {
+            if (p.getBlockedReqUnit() <= freeUnits
+                && (best == null || p.getBlockedReqUnit() > best.getBlockedReqUnit())) {
+                best = p;
+            }
+        }
+        return best;
+    }
+}